@@ -1,118 +1,283 @@
 package defrac.benchmark;
 
 import android.support.annotation.NonNull;
-import java.text.DecimalFormat;
+import android.support.annotation.Nullable;
+import defrac.benchmark.fluidMotion.FluidField;
+import defrac.benchmark.tracer.RenderMode;
+import defrac.benchmark.tracer.Workload;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
 
 public final class AllBenchmarks {
   @NonNull
-  private static final DecimalFormat PERCENT = new DecimalFormat("##0.00");
+  static final String[] NAMES = {
+      "DeltaBlue",
+      "FluidMotion",
+      "Richards",
+      "Tracer",
+      "Havlak",
+  };
 
+  // Alternative implementations of the kernels above. They can be selected
+  // by name but are not part of the default suite, which mirrors the Dart
+  // one.
   @NonNull
-  private static final DecimalFormat ERROR = new DecimalFormat("0.0");
+  static final String[] VARIANTS = {
+      "TracerScratch",
+      "TracerTiled",
+      "TracerPacket",
+      "TracerSpheres",
+      "TracerSpheresBvh",
+      "TracerSpheresPacket",
+      "TracerFrame",
+      "TracerFrameDirect",
+      "TracerSmall",
+      "TracerVga",
+      "TracerHd",
+      "TracerFullHd",
+      "TracerUhd",
+      "TracerPreview",
+      "TracerProgressive",
+      "TracerSoft",
+      "TracerCacheCold",
+      "TracerCacheWarm",
+      "TracerCompiled",
+      "TracerUncompiled",
+      "TracerDeep",
+      "TracerDeepReference",
+      "TracerWavefront",
+      "TracerHdWavefront",
+      "TracerFullHdWavefront",
+      "TracerFloat",
+      "FluidMotionRedBlack",
+      "FluidMotionRedBlackParallel",
+  };
 
-  @NonNull
-  private static final DecimalFormat SCORE = new DecimalFormat("########.00");
+  // Fewest repetitions an adaptive run makes before it looks at the
+  // confidence interval.
+  static final int MIN_ADAPTIVE_ITERATIONS = 5;
 
-  @NonNull
-  private static final double[] TABLE = {
-      Double.NaN, Double.NaN, 12.71,
-      4.30, 3.18, 2.78, 2.57, 2.45, 2.36, 2.31, 2.26, 2.23, 2.20, 2.18, 2.16,
-      2.14, 2.13, 2.12, 2.11, 2.10, 2.09, 2.09, 2.08, 2.07, 2.07, 2.06, 2.06,
-      2.06, 2.05, 2.05, 2.05, 2.04, 2.04, 2.04, 2.03, 2.03, 2.03, 2.03, 2.03,
-      2.02, 2.02, 2.02, 2.02, 2.02, 2.02, 2.02, 2.01, 2.01, 2.01, 2.01, 2.01,
-      2.01, 2.01, 2.01, 2.01, 2.00, 2.00, 2.00, 2.00, 2.00, 2.00, 2.00, 2.00,
-      2.00, 2.00, 2.00, 2.00, 2.00, 2.00, 2.00, 1.99, 1.99, 1.99, 1.99, 1.99,
-      1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99,
-      1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99 };
+  // An adaptive repetition first lasts this fraction of options.measureMillis
+  // and grows, up to all of it, whenever the confidence interval suggests
+  // options.maxIterations will not be enough.
+  static final int ADAPTIVE_WINDOWS = 10;
 
   public static void main() {
-    final BenchmarkBase[] benchmarks = {
-        new DeltaBlue(),
-        new FluidMotion(),
-        new Richards(),
-        new Tracer(),
-        new Havlak(),
-    };
+    run(new Options(), System.out);
+  }
 
-    for(final BenchmarkBase benchmark : benchmarks) {
-      measure(benchmark);
+  // Runs the benchmarks selected by options and returns false if any of
+  // them regressed against its baseline.
+  public static boolean run(@NonNull final Options options, @NonNull final PrintStream out) {
+    if (options.output == null) {
+      return run(options, Reporter.create(options.format, out));
     }
-  }
 
-  private static void measure(@NonNull final BenchmarkBase benchmark) {
-//    System.out.println("[benchmark] Java - Running "+benchmark.name+" ...");
-    final double[] scores = extractScores(benchmark);
-//    System.out.println("[benchmark] Java - " +benchmark.name+ ":(runs/sec)\t" +format(scores, "\t"));
+    final PrintStream file;
+    try {
+      file = new PrintStream(new BufferedOutputStream(new FileOutputStream(options.output)), false, "UTF-8");
+    } catch(IOException e) {
+      throw new RuntimeException("Cannot write to " + options.output, e);
+    }
+    try {
+      return run(options, Reporter.create(options.format, file));
+    } finally {
+      file.close();
+    }
   }
 
-  private static double[] extractScores(@NonNull final BenchmarkBase benchmark) {
-    return extractScores(benchmark, 10);
+  // A run is cancelled by interrupting the thread executing it. It stops
+  // at the next repetition with a CancellationException after the reporter
+  // has been ended, so streamed reports stay well-formed.
+  public static boolean run(@NonNull final Options options, @NonNull final Reporter reporter) {
+    final RunMetadata metadata = RunMetadata.collect();
+    final BaselineStore baselines = options.baseline == null ? null : new BaselineStore(new File(options.baseline));
+    final RegressionDetector detector = new RegressionDetector(options.threshold);
+    final boolean passed;
+
+    reporter.begin(metadata);
+    try {
+      passed = run(options, reporter, metadata, baselines, detector);
+    } finally {
+      reporter.end();
+    }
+
+    return passed;
   }
 
-  private static double[] extractScores(@NonNull final BenchmarkBase benchmark, final int iterations) {
-    final double[] scores = new double[iterations];
-    final double[] elapsedUs = new double[iterations];
+  private static boolean run(@NonNull final Options options, @NonNull final Reporter reporter,
+                             @NonNull final RunMetadata metadata, @Nullable final BaselineStore baselines,
+                             @NonNull final RegressionDetector detector) {
+    boolean passed = true;
+
+    if (options.threads > 0) {
+      final ParallelRunner runner = new ParallelRunner(options.threads, options.warmupMillis, options.measureMillis);
+      try {
+        for(final String name : options.benchmarks) {
+          checkCancelled();
+          reporter.reportThroughput(runner.measure(name));
+        }
+      } finally {
+        runner.shutdown();
+      }
+    } else {
+      for(final String name : options.benchmarks) {
+        checkCancelled();
+        final Result result = measure(create(name), options);
+        reporter.report(result);
 
-    for(int i = 0; i < iterations; ++i) {
-      double ret = benchmark.measure();
-      elapsedUs[i] = ret;
-      scores[i] = 1.0e6 / ret;
+        if (baselines != null) {
+          final double[] baseline = baselines.load(name);
+          if (baseline != null) {
+            // Printed to stderr to keep machine readable reports intact.
+            final Comparison comparison = detector.compare(name, baseline, result.elapsedUs);
+            detector.print(comparison, System.err);
+            passed &= !comparison.regressed;
+          }
+          if (options.saveBaseline) {
+            baselines.save(result, metadata);
+          }
+        }
+      }
     }
 
-    double mean = computeMean(elapsedUs);
+    return passed;
+  }
 
-    System.out.println("[benchmark] Java - " +benchmark.name+ ":(runs/sec)\t" +format(scores, "\t") + "\tavg us:\t" + mean);
+  private static void checkCancelled() {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new CancellationException("Benchmark run cancelled");
+    }
+  }
 
-    return scores;
+  @NonNull
+  static BenchmarkBase create(@NonNull final String name) {
+    switch(name) {
+      case "DeltaBlue": return new DeltaBlue();
+      case "FluidMotion": return new FluidMotion();
+      case "Richards": return new Richards();
+      case "Tracer": return new Tracer();
+      case "Havlak": return new Havlak();
+      case "TracerScratch": return new Tracer("TracerScratch", RenderMode.SCRATCH);
+      case "TracerTiled": return new Tracer("TracerTiled", RenderMode.TILED);
+      case "TracerPacket": return new Tracer("TracerPacket", RenderMode.PACKET);
+      case "TracerSpheres": return new TracerSpheres("TracerSpheres", false, false);
+      case "TracerSpheresBvh": return new TracerSpheres("TracerSpheresBvh", true, false);
+      case "TracerSpheresPacket": return new TracerSpheres("TracerSpheresPacket", false, true);
+      case "TracerFrame": return new TracerFrame("TracerFrame", false);
+      case "TracerFrameDirect": return new TracerFrame("TracerFrameDirect", true);
+      case "TracerSmall": return new TracerWorkload("TracerSmall", Workload.SMALL, RenderMode.REFERENCE);
+      case "TracerVga": return new TracerWorkload("TracerVga", Workload.VGA, RenderMode.REFERENCE);
+      case "TracerHd": return new TracerWorkload("TracerHd", Workload.HD, RenderMode.REFERENCE);
+      case "TracerFullHd": return new TracerWorkload("TracerFullHd", Workload.FULL_HD, RenderMode.REFERENCE);
+      case "TracerUhd": return new TracerWorkload("TracerUhd", Workload.UHD, RenderMode.REFERENCE);
+      case "TracerPreview": return new TracerProgressive("TracerPreview", true);
+      case "TracerProgressive": return new TracerProgressive("TracerProgressive", false);
+      case "TracerSoft": return new TracerWorkload("TracerSoft", Workload.SOFT, RenderMode.SCRATCH);
+      case "TracerCacheCold": return new TracerCache("TracerCacheCold", false);
+      case "TracerCacheWarm": return new TracerCache("TracerCacheWarm", true);
+      case "TracerCompiled": return new TracerWorkload("TracerCompiled", Workload.VGA, RenderMode.SCRATCH, true);
+      case "TracerUncompiled": return new TracerWorkload("TracerUncompiled", Workload.VGA, RenderMode.SCRATCH, false);
+      case "TracerDeep": return new TracerWorkload("TracerDeep", Workload.DEEP, RenderMode.SCRATCH);
+      case "TracerDeepReference": return new TracerWorkload("TracerDeepReference", Workload.DEEP, RenderMode.REFERENCE);
+      case "TracerWavefront": return new Tracer("TracerWavefront", RenderMode.WAVEFRONT);
+      case "TracerHdWavefront": return new TracerWorkload("TracerHdWavefront", Workload.HD, RenderMode.WAVEFRONT);
+      case "TracerFullHdWavefront": return new TracerWorkload("TracerFullHdWavefront", Workload.FULL_HD, RenderMode.WAVEFRONT);
+      case "TracerFloat": return new TracerFloat("TracerFloat", Workload.VGA);
+      case "FluidMotionRedBlack": return new FluidMotion("FluidMotionRedBlack", FluidField.Solver.RED_BLACK, false);
+      case "FluidMotionRedBlackParallel": return new FluidMotion("FluidMotionRedBlackParallel", FluidField.Solver.RED_BLACK, true);
+      default: throw new IllegalArgumentException("Unknown benchmark: " + name);
+    }
   }
 
-  private static String format(@NonNull final double[] scores, @NonNull final String metric) {
-    final double mean = computeMean(scores);
-    final double best = computeBest(scores);
-    final String score = SCORE.format(best);
-    if(scores.length == 1) {
-      return score+" "+metric;
+  @NonNull
+  private static Result measure(@NonNull final BenchmarkBase benchmark, @NonNull final Options options) {
+//    System.out.println("[benchmark] Java - Running "+benchmark.name+" ...");
+    Warmup warmup = null;
+    final double[] elapsedUs;
+    if (options.adaptive) {
+      // Measures right after the warmup, in the same setup, so that the
+      // repetitions do not need a warmup of their own.
+      benchmark.setup();
+      try {
+        warmup = benchmark.warmupUntilSteady(options.warmupMillis, options.maxWarmupMillis,
+            new SteadyStateDetector(SteadyStateDetector.DEFAULT_WINDOW, options.steadyThreshold));
+        elapsedUs = extractElapsedAdaptive(benchmark, options);
+      } finally {
+        benchmark.teardown();
+      }
     } else {
-      final int n = scores.length;
-      final double standardDeviation = computeStandardDeviation(scores, mean);
-      final double standardError = standardDeviation / Math.sqrt(n);
-      final double percent = (computeTDistribution(n) * standardError / mean) * 100.0;
-      final String error = ERROR.format(percent);
-      return score+" "+metric+" ("+PERCENT.format(mean)+"±"+error+"%)";
+      elapsedUs = extractElapsed(benchmark, options);
     }
+    // Taken before the latency measurement sets the benchmark up again.
+    final ProgressiveTimes progressive = benchmark instanceof TracerProgressive
+        ? ((TracerProgressive) benchmark).times()
+        : null;
+    checkCancelled();
+    final Histogram latency = options.latency
+        ? benchmark.measureLatency(options.warmupMillis, options.measureMillis)
+        : null;
+    final MemoryProbe probe = options.memory ? MemoryProbe.getDefault() : null;
+    final MemoryUsage memory = probe != null
+        ? benchmark.measureMemory(options.warmupMillis, options.measureMillis, probe)
+        : null;
+    return new Result(benchmark.name, elapsedUs, latency, memory, warmup, progressive);
   }
 
+  private static double[] extractElapsed(@NonNull final BenchmarkBase benchmark, @NonNull final Options options) {
+    final double[] elapsedUs = new double[options.iterations];
 
-  private static double computeBest(double[] scores) {
-    double best = scores[0];
-    for(int i = 1; i < scores.length; i++) {
-      best = Math.max(best, scores[i]);
+    for(int i = 0; i < options.iterations; ++i) {
+      checkCancelled();
+      elapsedUs[i] = benchmark.measure(options.warmupMillis, options.measureMillis);
     }
-    return best;
-  }
 
-  private static double computeMean(double[] scores) {
-    double sum = 0.0;
-    for(double score : scores) {
-      sum += score;
-    }
-    return sum / scores.length;
+    return elapsedUs;
   }
 
-  private static double computeStandardDeviation(double[] scores, double mean) {
-    double deltaSquaredSum = 0.0;
-    for(double score : scores) {
-      double delta = score - mean;
-      deltaSquaredSum += delta * delta;
+  // Repeats the measurement of the warmed up benchmark until the confidence
+  // interval of the mean is within options.targetError of it or
+  // options.maxIterations is reached. Repetitions start short; if the error
+  // after a repetition means more than options.maxIterations would be
+  // needed at the current length, the following ones are made long enough
+  // to get by with options.maxIterations.
+  private static double[] extractElapsedAdaptive(@NonNull final BenchmarkBase benchmark, @NonNull final Options options) {
+    final int max = Math.max(options.maxIterations, MIN_ADAPTIVE_ITERATIONS);
+    final double targetPercent = options.targetError * 100.0;
+    final double[] elapsedUs = new double[max];
+    final Runnable exercise = new Runnable() {
+      @Override
+      public void run() {
+        benchmark.exercise();
+      }
+    };
+    int windowMillis = Math.max(1, options.measureMillis / ADAPTIVE_WINDOWS);
+    int n = 0;
+
+    while(n < max) {
+      checkCancelled();
+      elapsedUs[n++] = BenchmarkBase.measureFor(exercise, windowMillis);
+      if (n < MIN_ADAPTIVE_ITERATIONS) {
+        continue;
+      }
+      final double errorPercent = Statistics.computeErrorPercent(Arrays.copyOf(elapsedUs, n));
+      if (errorPercent <= targetPercent) {
+        break;
+      }
+      // The error shrinks with the square root of the measured time, so
+      // this many repetitions of the current length would reach the target.
+      final double ratio = errorPercent / targetPercent;
+      final double needed = n * ratio * ratio;
+      if (needed > max) {
+        windowMillis = (int) Math.min(Math.ceil(windowMillis * needed / max), Math.max(1, options.measureMillis));
+      }
     }
-    double variance = deltaSquaredSum / (scores.length - 1);
-    return Math.sqrt(variance);
-  }
 
-  private static double computeTDistribution(int n) {
-    if (n >= 474) return 1.96;
-    else if (n >= 160) return 1.97;
-    else if (n >= TABLE.length) return 1.98;
-    else return TABLE[n];
+    return Arrays.copyOf(elapsedUs, n);
   }
 }
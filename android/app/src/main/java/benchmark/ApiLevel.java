@@ -0,0 +1,37 @@
+package defrac.benchmark;
+
+// The Android API level the suite runs on, for the benchmarks that use APIs
+// newer than the app's minSdkVersion, like ForkJoinPool. The shared sources
+// cannot refer to android.os.Build, which desktop JVMs do not have, so it is
+// looked up reflectively.
+public final class ApiLevel {
+  // Reported on desktop JVMs, which have every API the suite uses.
+  public static final int DESKTOP = Integer.MAX_VALUE;
+
+  private static final int CURRENT = lookUp();
+
+  private ApiLevel() {}
+
+  public static int current() {
+    return CURRENT;
+  }
+
+  public static boolean isAtLeast(final int level) {
+    return CURRENT >= level;
+  }
+
+  private static int lookUp() {
+    final Class<?> version;
+    try {
+      version = Class.forName("android.os.Build$VERSION");
+    } catch(ClassNotFoundException e) {
+      return DESKTOP;
+    }
+    try {
+      return version.getField("SDK_INT").getInt(null);
+    } catch(NoSuchFieldException | IllegalAccessException e) {
+      // SDK_INT is there since API level 4.
+      throw new AssertionError(e);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Keeps the samples of a previous run, one file per benchmark, so that
+// later runs can be compared against them.
+//
+// A baseline file holds the microseconds per exercise() of every
+// repetition, one per line. Lines starting with '#' are comments.
+final class BaselineStore {
+  @NonNull
+  private final File directory;
+
+  BaselineStore(@NonNull final File directory) {
+    this.directory = directory;
+  }
+
+  @NonNull
+  private File fileFor(@NonNull final String name) {
+    return new File(directory, name + ".baseline");
+  }
+
+  // Returns the stored samples, or null if there is no baseline yet. A file
+  // without any samples, e.g. only comments, counts as no baseline.
+  @Nullable
+  double[] load(@NonNull final String name) {
+    final File file = fileFor(name);
+    if (!file.isFile()) {
+      return null;
+    }
+
+    final List<Double> samples = new ArrayList<Double>();
+    BufferedReader reader = null;
+    try {
+      reader = new BufferedReader(new FileReader(file));
+      String line;
+      while((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        samples.add(Double.parseDouble(line));
+      }
+    } catch(IOException | NumberFormatException e) {
+      throw new RuntimeException("Cannot read baseline " + file, e);
+    } finally {
+      close(reader);
+    }
+
+    if (samples.isEmpty()) {
+      return null;
+    }
+    final double[] result = new double[samples.size()];
+    for(int i = 0; i < result.length; ++i) {
+      result[i] = samples.get(i);
+    }
+    return result;
+  }
+
+  void save(@NonNull final Result result, @NonNull final RunMetadata metadata) {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new RuntimeException("Cannot create baseline directory " + directory);
+    }
+
+    final File file = fileFor(result.name);
+    final PrintStream out;
+    try {
+      out = new PrintStream(file, "UTF-8");
+    } catch(FileNotFoundException | UnsupportedEncodingException e) {
+      throw new RuntimeException("Cannot write baseline " + file, e);
+    }
+    try {
+      out.println("# " + result.name + " us per exercise()");
+      out.println("# " + metadata.formatTimestamp() + " " + metadata.vmName + " " + metadata.vmVersion);
+      for(final double sample : result.elapsedUs) {
+        out.println(sample);
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  private static void close(@Nullable final BufferedReader reader) {
+    if (reader != null) {
+      try {
+        reader.close();
+      } catch(IOException ignored) {
+      }
+    }
+  }
+}
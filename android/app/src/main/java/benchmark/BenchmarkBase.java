@@ -3,8 +3,15 @@
 package defrac.benchmark;
 
 import android.support.annotation.NonNull;
+import java.util.Arrays;
 
 abstract class BenchmarkBase {
+  // Upper bound on the number of per-operation samples kept by sample().
+  static final int MAX_SAMPLES = 1 << 17;
+
+  static final int WARMUP_MILLIS = 100;
+  static final int MEASURE_MILLIS = 2000;
+
   @NonNull
   protected final String name;
 
@@ -26,6 +33,13 @@ abstract class BenchmarkBase {
     }
   }
 
+  // A single unit of work as timed by sample(). By default this is a whole
+  // exercise(); benchmarks whose exercise() batches several run() calls
+  // override it so that every run() is timed on its own.
+  public void operation() {
+    exercise();
+  }
+
   public void setup() {
 
   }
@@ -38,41 +52,225 @@ abstract class BenchmarkBase {
     final Stopwatch watch = new Stopwatch();
     watch.start();
 
+    final long limit = timeMinimum * 1000000L;
     int iter = 0;
-    int elapsed = 0;
+    long elapsed = 0L;
 
-    while(elapsed < timeMinimum) {
+    while(elapsed < limit) {
       r.run();
-      elapsed = watch.elapsedMilliseconds();
+      elapsed = watch.elapsedNanoseconds();
       iter++;
     }
 
-    return 1000.0 * elapsed / iter;
+    return elapsed / 1000.0 / iter;
+  }
+
+  // Runs r until timeMinimum milliseconds have passed or samples is full and
+  // stores the duration of each call in nanoseconds, corrected for the cost
+  // of reading the clock. Returns the number of samples taken.
+  public static int sampleFor(@NonNull final Runnable r, final int timeMinimum, @NonNull final long[] samples) {
+    final Clock clock = Stopwatch.defaultClock();
+    final long overhead = ClockCalibration.forClock(clock).overheadNanos;
+    final long limit = timeMinimum * 1000000L;
+    final long begin = clock.nanoTime();
+
+    int count = 0;
+    long end = begin;
+
+    while(end - begin < limit && count < samples.length) {
+      final long start = clock.nanoTime();
+      r.run();
+      end = clock.nanoTime();
+      final long sample = end - start - overhead;
+      samples[count++] = sample > 0L ? sample : 0L;
+    }
+
+    return count;
+  }
+
+  // Like sampleFor(Runnable, int, long[]), but records every duration into
+  // histogram and keeps going until timeMinimum milliseconds have passed.
+  // Returns the number of samples taken.
+  public static int sampleFor(@NonNull final Runnable r, final int timeMinimum, @NonNull final Histogram histogram) {
+    final Clock clock = Stopwatch.defaultClock();
+    final long overhead = ClockCalibration.forClock(clock).overheadNanos;
+    final long limit = timeMinimum * 1000000L;
+    final long begin = clock.nanoTime();
+
+    int count = 0;
+    long end = begin;
+
+    while(end - begin < limit) {
+      final long start = clock.nanoTime();
+      r.run();
+      end = clock.nanoTime();
+      histogram.record(end - start - overhead);
+      count++;
+    }
+
+    return count;
+  }
+
+  // Calls warmup() for at least minMillis and then until the detector
+  // considers its timings steady or bimodal, but no longer than maxMillis.
+  @NonNull
+  public Warmup warmupUntilSteady(final int minMillis, final int maxMillis, @NonNull final SteadyStateDetector detector) {
+    final Clock clock = Stopwatch.defaultClock();
+    final long min = minMillis * 1000000L;
+    final long max = maxMillis * 1000000L;
+    final long begin = clock.nanoTime();
+
+    long elapsed = 0L;
+    boolean steady = false;
+    boolean bimodal = false;
+
+    while(elapsed < max) {
+      final long start = clock.nanoTime();
+      warmup();
+      final long end = clock.nanoTime();
+      detector.add(end - start);
+      elapsed = end - begin;
+
+      if (elapsed >= min) {
+        steady = detector.isSteady();
+        bimodal = !steady && detector.isBimodal();
+        if (steady || bimodal) {
+          break;
+        }
+      }
+    }
+
+    return new Warmup(elapsed / 1000000L, detector.count(), detector.coefficientOfVariation(), steady, bimodal);
   }
 
   public double measure() {
+    return measure(WARMUP_MILLIS, MEASURE_MILLIS);
+  }
+
+  public double measure(final int warmupMillis, final int measureMillis) {
     setup();
 
-    // Warmup for at least 100ms. Discard result.
+    // Warmup for at least warmupMillis. Discard result.
     measureFor(new Runnable() {
       @Override
       public void run() {
         warmup();
       }
-    }, 100);
+    }, warmupMillis);
 
-    // Run the benchmark for at least 2000ms.
+    // Run the benchmark for at least measureMillis.
     final double result = measureFor(new Runnable() {
       @Override
       public void run() {
         exercise();
       }
-    }, 2000);
+    }, measureMillis);
     teardown();
 
     return result;
   }
 
+  // Like measure(), but times every operation() individually and returns
+  // the durations in nanoseconds.
+  @NonNull
+  public long[] sample() {
+    return sample(WARMUP_MILLIS, MEASURE_MILLIS);
+  }
+
+  @NonNull
+  public long[] sample(final int warmupMillis, final int measureMillis) {
+    setup();
+
+    // Warmup for at least warmupMillis. Discard result.
+    measureFor(new Runnable() {
+      @Override
+      public void run() {
+        warmup();
+      }
+    }, warmupMillis);
+
+    // Sample the benchmark for at least measureMillis.
+    final long[] samples = new long[MAX_SAMPLES];
+    final int count = sampleFor(new Runnable() {
+      @Override
+      public void run() {
+        operation();
+      }
+    }, measureMillis, samples);
+    teardown();
+
+    return Arrays.copyOf(samples, count);
+  }
+
+  // Measures the latency distribution of operation() in nanoseconds.
+  @NonNull
+  public Histogram measureLatency() {
+    return measureLatency(WARMUP_MILLIS, MEASURE_MILLIS);
+  }
+
+  @NonNull
+  public Histogram measureLatency(final int warmupMillis, final int measureMillis) {
+    setup();
+
+    // Warmup for at least warmupMillis. Discard result.
+    measureFor(new Runnable() {
+      @Override
+      public void run() {
+        warmup();
+      }
+    }, warmupMillis);
+
+    // Sample the benchmark for at least measureMillis.
+    final Histogram histogram = new Histogram();
+    sampleFor(new Runnable() {
+      @Override
+      public void run() {
+        operation();
+      }
+    }, measureMillis, histogram);
+    teardown();
+
+    return histogram;
+  }
+
+  // Runs operation() for at least measureMillis and returns how much it
+  // allocated and collected per the given probe. The counters are only read
+  // before and after the loop, so the measurement itself allocates nothing.
+  @NonNull
+  public MemoryUsage measureMemory(final int warmupMillis, final int measureMillis, @NonNull final MemoryProbe probe) {
+    setup();
+
+    // Warmup for at least warmupMillis. Discard result.
+    measureFor(new Runnable() {
+      @Override
+      public void run() {
+        warmup();
+      }
+    }, warmupMillis);
+
+    final Stopwatch watch = new Stopwatch();
+    final long limit = measureMillis * 1000000L;
+    long operations = 0L;
+
+    final long bytesBefore = probe.allocatedBytes();
+    final long gcCountBefore = probe.gcCount();
+    final long gcTimeBefore = probe.gcTimeMillis();
+    watch.start();
+    while(watch.elapsedNanoseconds() < limit) {
+      operation();
+      operations++;
+    }
+    final long bytesAfter = probe.allocatedBytes();
+    final long gcCountAfter = probe.gcCount();
+    final long gcTimeAfter = probe.gcTimeMillis();
+    teardown();
+
+    return new MemoryUsage(operations,
+        MemoryUsage.delta(bytesBefore, bytesAfter),
+        MemoryUsage.delta(gcCountBefore, gcCountAfter),
+        MemoryUsage.delta(gcTimeBefore, gcTimeAfter));
+  }
+
   public void report() {
     final double runtime = measure();
     System.out.println("[benchmark] Java - " + name + "(us)\t" + runtime);
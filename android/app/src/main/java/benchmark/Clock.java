@@ -0,0 +1,22 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+
+// Source of monotonic time used by Stopwatch and the sampling loops.
+// Readings are in nanoseconds and only meaningful relative to each other.
+public interface Clock {
+  @NonNull
+  Clock SYSTEM = new Clock() {
+    @Override
+    public long nanoTime() {
+      return System.nanoTime();
+    }
+
+    @Override
+    public String toString() {
+      return "System.nanoTime";
+    }
+  };
+
+  long nanoTime();
+}
@@ -0,0 +1,74 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.Arrays;
+
+// Measured properties of a Clock: the cost of taking one reading and the
+// smallest step by which consecutive readings advance.
+public final class ClockCalibration {
+  private static final int TRIALS = 10000;
+
+  @Nullable
+  private static ClockCalibration cached;
+
+  @NonNull
+  public final Clock clock;
+
+  // Median cost of a start/stop pair of readings around an empty region.
+  public final long overheadNanos;
+
+  // Smallest observed non-zero difference between two readings.
+  public final long resolutionNanos;
+
+  private ClockCalibration(@NonNull final Clock clock, final long overheadNanos, final long resolutionNanos) {
+    this.clock = clock;
+    this.overheadNanos = overheadNanos;
+    this.resolutionNanos = resolutionNanos;
+  }
+
+  // Returns the calibration for the given clock, calibrating it only
+  // the first time it is asked for.
+  @NonNull
+  public static synchronized ClockCalibration forClock(@NonNull final Clock clock) {
+    if (cached == null || cached.clock != clock) {
+      cached = calibrate(clock);
+    }
+    return cached;
+  }
+
+  @NonNull
+  public static ClockCalibration calibrate(@NonNull final Clock clock) {
+    final long[] deltas = new long[TRIALS];
+
+    // Let the JIT compile the reading loop before it is measured.
+    for (int i = 0; i < TRIALS; ++i) {
+      deltas[i] = clock.nanoTime() - clock.nanoTime();
+    }
+
+    for (int i = 0; i < TRIALS; ++i) {
+      final long start = clock.nanoTime();
+      deltas[i] = clock.nanoTime() - start;
+    }
+    Arrays.sort(deltas);
+    final long overhead = deltas[TRIALS / 2];
+
+    long resolution = Long.MAX_VALUE;
+    for (int i = 0; i < TRIALS / 10; ++i) {
+      final long start = clock.nanoTime();
+      long now = start;
+      while (now == start) {
+        now = clock.nanoTime();
+      }
+      resolution = Math.min(resolution, now - start);
+    }
+
+    return new ClockCalibration(clock, overhead, resolution);
+  }
+
+  @NonNull
+  @Override
+  public String toString() {
+    return "ClockCalibration [clock: "+clock+", overhead: "+overheadNanos+"ns, resolution: "+resolutionNanos+"ns]";
+  }
+}
@@ -0,0 +1,41 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+
+// Outcome of comparing the samples of a benchmark against its baseline.
+public final class Comparison {
+  @NonNull
+  public final String name;
+
+  // Median microseconds per exercise() of either run.
+  public final double baselineMedian;
+  public final double currentMedian;
+
+  // One-sided Mann-Whitney p-value for the current run being slower.
+  public final double pSlower;
+
+  // One-sided Mann-Whitney p-value for the current run being faster.
+  public final double pFaster;
+
+  public final boolean regressed;
+  public final boolean improved;
+
+  Comparison(@NonNull final String name,
+             final double baselineMedian, final double currentMedian,
+             final double pSlower, final double pFaster,
+             final boolean regressed, final boolean improved) {
+    this.name = name;
+    this.baselineMedian = baselineMedian;
+    this.currentMedian = currentMedian;
+    this.pSlower = pSlower;
+    this.pFaster = pFaster;
+    this.regressed = regressed;
+    this.improved = improved;
+  }
+
+  // Relative change of the median time, positive if the current run is
+  // slower.
+  public double change() {
+    return currentMedian / baselineMedian - 1.0;
+  }
+}
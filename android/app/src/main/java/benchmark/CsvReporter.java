@@ -0,0 +1,126 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.io.PrintStream;
+
+// Writes one row per value in long format, with the run metadata repeated
+// on every row so that files of several runs can simply be concatenated:
+//
+//   timestamp,vm,vm_version,governor,cores,benchmark,metric,index,value
+//
+// Indexed metrics (samples, per thread throughput) carry the sample index,
+// summary metrics leave it empty.
+final class CsvReporter extends Reporter {
+  @NonNull
+  private final PrintStream out;
+
+  @NonNull
+  private String prefix = "";
+
+  CsvReporter(@NonNull final PrintStream out) {
+    this.out = out;
+  }
+
+  @Override
+  public void begin(@NonNull final RunMetadata metadata) {
+    out.println("timestamp,vm,vm_version,governor,cores,benchmark,metric,index,value");
+    prefix = escape(metadata.formatTimestamp())+","+escape(metadata.vmName)+","+
+        escape(metadata.vmVersion)+","+escape(metadata.governor)+","+metadata.cores+",";
+    out.flush();
+  }
+
+  @Override
+  public void report(@NonNull final Result result) {
+    final double[] elapsedUs = result.elapsedUs;
+    final double mean = Statistics.computeMean(elapsedUs);
+    final double confidence = Statistics.computeConfidence(elapsedUs);
+
+    for(int i = 0; i < elapsedUs.length; ++i) {
+      row(result.name, "elapsed_us", i, elapsedUs[i]);
+    }
+    row(result.name, "mean_us", -1, mean);
+    row(result.name, "stddev_us", -1,
+        elapsedUs.length < 2 ? Double.NaN : Statistics.computeStandardDeviation(elapsedUs, mean));
+    row(result.name, "ci95_low_us", -1, mean - confidence);
+    row(result.name, "ci95_high_us", -1, mean + confidence);
+    row(result.name, "best_runs_per_sec", -1, Statistics.computeBest(result.scores()));
+
+    final Histogram latency = result.latency;
+    if (latency != null) {
+      row(result.name, "latency_count", -1, latency.count());
+      row(result.name, "latency_mean_ns", -1, latency.mean());
+      for(final double percentile : TextReporter.PERCENTILES) {
+        row(result.name, "latency_" + TextReporter.label(percentile) + "_ns", -1, latency.valueAtPercentile(percentile));
+      }
+      row(result.name, "latency_max_ns", -1, latency.max());
+    }
+
+    final MemoryUsage memory = result.memory;
+    if (memory != null) {
+      row(result.name, "alloc_bytes_per_op", -1, memory.bytesPerOperation());
+      row(result.name, "gc_count", -1, memory.gcCount);
+      row(result.name, "gc_time_ms", -1, memory.gcTimeMillis);
+    }
+
+    final Warmup warmup = result.warmup;
+    if (warmup != null) {
+      row(result.name, "warmup_ms", -1, warmup.elapsedMillis);
+      row(result.name, "warmup_samples", -1, warmup.samples);
+      row(result.name, "warmup_cv", -1, warmup.coefficientOfVariation);
+      row(result.name, "warmup_steady", -1, warmup.steady ? 1 : 0);
+      row(result.name, "warmup_bimodal", -1, warmup.bimodal ? 1 : 0);
+    }
+
+    final ProgressiveTimes progressive = result.progressive;
+    if (progressive != null) {
+      row(result.name, "progressive_renders", -1, progressive.renders);
+      row(result.name, "progressive_preview_ns", -1, progressive.firstPreviewNanos);
+      if (progressive.convergedNanos >= 0L) {
+        row(result.name, "progressive_converged_ns", -1, progressive.convergedNanos);
+      }
+      row(result.name, "progressive_slices", -1, progressive.slices);
+    }
+    out.flush();
+  }
+
+  @Override
+  public void reportThroughput(@NonNull final Throughput throughput) {
+    for(int i = 0; i < throughput.threadRunsPerSec.length; ++i) {
+      row(throughput.name, "thread_runs_per_sec", i, throughput.threadRunsPerSec[i]);
+    }
+    row(throughput.name, "single_runs_per_sec", -1, throughput.singleRunsPerSec);
+    row(throughput.name, "aggregate_runs_per_sec", -1, throughput.aggregateRunsPerSec());
+    row(throughput.name, "efficiency", -1, throughput.efficiency());
+    row(throughput.name, "contended", -1, throughput.isContended() ? 1 : 0);
+    row(throughput.name, "imbalanced", -1, throughput.isImbalanced() ? 1 : 0);
+    out.flush();
+  }
+
+  private void row(@NonNull final String benchmark, @NonNull final String metric, final int index, final double value) {
+    out.print(prefix);
+    out.print(escape(benchmark));
+    out.print(',');
+    out.print(metric);
+    out.print(',');
+    if (index >= 0) {
+      out.print(index);
+    }
+    out.print(',');
+    if (!Double.isNaN(value)) {
+      out.print(value);
+    }
+    out.println();
+  }
+
+  @NonNull
+  private static String escape(@Nullable final String value) {
+    if (value == null) {
+      return "";
+    }
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+}
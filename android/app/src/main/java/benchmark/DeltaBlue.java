@@ -34,6 +34,11 @@ public final class DeltaBlue extends BenchmarkBase {
 
   DeltaBlue() { super("DeltaBlue"); }
 
+  @Override
+  public void operation() {
+    run();
+  }
+
   @Override
   public void run() {
     chainTest(100);
@@ -42,18 +47,17 @@ public final class DeltaBlue extends BenchmarkBase {
 
   private void chainTest(final int n) {
     final Planner planner = new Planner();
-    Planner.INSTANCE = planner;
     Variable prev = null, first = null, last = null;
     // Build chain of n equality constraints.
     for (int i = 0; i <= n; i++) {
       Variable v = new Variable(0);
-      if (prev != null) new EqualityConstraint(prev, v, Strength.REQUIRED);
+      if (prev != null) new EqualityConstraint(planner, prev, v, Strength.REQUIRED);
       if (i == 0) first = v;
       if (i == n) last = v;
       prev = v;
     }
-    new StayConstraint(last, Strength.STRONG_DEFAULT);
-    EditConstraint edit = new EditConstraint(first, Strength.PREFERRED);
+    new StayConstraint(planner, last, Strength.STRONG_DEFAULT);
+    EditConstraint edit = new EditConstraint(planner, first, Strength.PREFERRED);
     ArrayList<EditConstraint> arg = new ArrayList();
     arg.add(edit);
     Plan plan = planner.extractPlanFromConstraints(arg);
@@ -68,7 +72,7 @@ public final class DeltaBlue extends BenchmarkBase {
   }
 
   private void projectionTest(final int n) {
-    Planner.INSTANCE = new Planner();
+    final Planner planner = new Planner();
     Variable scale = new Variable(10);
     Variable offset = new Variable(1000);
     Variable src = null, dst = null;
@@ -78,28 +82,28 @@ public final class DeltaBlue extends BenchmarkBase {
       src = new Variable(i);
       dst = new Variable(i);
       dests.add(dst);
-      new StayConstraint(src, Strength.NORMAL);
-      new ScaleConstraint(src, scale, offset, dst, Strength.REQUIRED);
+      new StayConstraint(planner, src, Strength.NORMAL);
+      new ScaleConstraint(planner, src, scale, offset, dst, Strength.REQUIRED);
     }
-    change(src, 17);
+    change(planner, src, 17);
     if (dst.value != 1170) System.out.println("Projection 1 failed");
-    change(dst, 1050);
+    change(planner, dst, 1050);
     if (src.value != 5) System.out.println("Projection 2 failed");
-    change(scale, 5);
+    change(planner, scale, 5);
     for (int i = 0; i < n - 1; i++) {
       if (dests.get(i).value != i * 5 + 1000) System.out.println("Projection 3 failed");
     }
-    change(offset, 2000);
+    change(planner, offset, 2000);
     for (int i = 0; i < n - 1; i++) {
       if (dests.get(i).value != i * 5 + 2000) System.out.println("Projection 4 failed");
     }
   }
 
-  private void change(Variable v, int newValue) {
-    EditConstraint edit = new EditConstraint(v, Strength.PREFERRED);
+  private void change(Planner planner, Variable v, int newValue) {
+    EditConstraint edit = new EditConstraint(planner, v, Strength.PREFERRED);
     ArrayList<EditConstraint> arg = new ArrayList();
     arg.add(edit);
-    Plan plan = Planner.INSTANCE.extractPlanFromConstraints(arg);
+    Plan plan = planner.extractPlanFromConstraints(arg);
     for (int i = 0; i < 10; i++) {
       v.value = newValue;
       plan.execute();
@@ -33,22 +33,49 @@ import defrac.benchmark.fluidMotion.Field;
 import defrac.benchmark.fluidMotion.FluidField;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.RequiresApi;
+import java.util.concurrent.ForkJoinPool;
 
 public final class FluidMotion extends BenchmarkBase {
   public static void main() {
     new FluidMotion().report();
   }
 
-  FluidMotion() { super("FluidMotion"); }
+  FluidMotion() { this("FluidMotion", FluidField.Solver.GAUSS_SEIDEL, false); }
 
-  private static FluidField solver;
-  private static int framesTillAddingPoints = 0;
-  private static int framesBetweenAddingPoints = 5;
+  // Runs the simulation with the given solver, in parallel on a pool with
+  // one worker per core if the solver can. The pool needs API level 21.
+  FluidMotion(final String name, @NonNull final FluidField.Solver fieldSolver, final boolean parallel) {
+    super(name);
+    this.fieldSolver = fieldSolver;
+    this.parallel = parallel;
+  }
+
+  @RequiresApi(21)
+  private static final class DefaultPool {
+    static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+  }
+
+  @NonNull
+  private final FluidField.Solver fieldSolver;
+  private final boolean parallel;
+
+  // Per instance so that several instances can run on different threads.
+  private FluidField solver;
+  private int framesTillAddingPoints = 0;
+  private int framesBetweenAddingPoints = 5;
 
-  private static void setupFluidMotion() {
+  private void setupFluidMotion() {
     framesTillAddingPoints = 0;
     framesBetweenAddingPoints = 5;
     solver = FluidField.create(null, 128, 128, 20);
+    solver.setSolver(fieldSolver);
+    if (parallel) {
+      if (!ApiLevel.isAtLeast(21)) {
+        throw new IllegalArgumentException("Cannot run " + name + " in parallel on API level " + ApiLevel.current());
+      }
+      solver.setPool(DefaultPool.POOL);
+    }
     solver.setDisplayFunction(new FluidField.ProcedureCallback() {
       @Override
       public void apply(Field field) {
@@ -62,13 +89,22 @@ public final class FluidMotion extends BenchmarkBase {
     });
   }
 
-  private static void runFluidMotion() {
+  private void runFluidMotion() {
     setupFluidMotion();
     for (int i = 0; i < 10; i++) {
       solver.update();
     }
 
-    solver.validate(758.9012130174812, -352.56376676179076, -357.3690235879736);
+    if (fieldSolver == FluidField.Solver.RED_BLACK) {
+      // The same whether parallel or not. 20 sweeps leave the pressure far
+      // from converged and the simulation amplifies any difference, so the
+      // sums differ from Gauss-Seidel's. They only approach them as both
+      // converge: with 1000 sweeps the densities agree within 1%. How far
+      // the solvers themselves are apart is checked by FluidFieldTest.
+      solver.validate(278.27068333127113, -423.6149768579938, -425.0300802107093);
+    } else {
+      solver.validate(758.9012130174812, -352.56376676179076, -357.3690235879736);
+    }
   }
 
   private static void addPoints(@NonNull final Field field) {
@@ -84,7 +120,7 @@ public final class FluidMotion extends BenchmarkBase {
     }
   }
 
-  private static void prepareFrame(@NonNull final Field field) {
+  private void prepareFrame(@NonNull final Field field) {
     if (framesTillAddingPoints == 0) {
       addPoints(field);
       framesTillAddingPoints = framesBetweenAddingPoints;
@@ -0,0 +1,123 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+
+// Log-bucketed histogram of non-negative long values in the style of
+// HdrHistogram. Values below 128 are counted exactly; above that every power
+// of two is split into 64 linear sub-buckets, which bounds the relative error
+// of any reported value by 1/64. All storage is allocated up front so that
+// record() never allocates.
+public final class Histogram {
+  private static final int SUB_BUCKET_BITS = 6;
+  private static final int SUB_BUCKET_HALF = 1 << SUB_BUCKET_BITS;
+  private static final int SUB_BUCKET_COUNT = SUB_BUCKET_HALF << 1;
+  private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_HALF;
+
+  @NonNull
+  private final long[] counts = new long[BUCKET_COUNT];
+
+  private long totalCount;
+  private long sum;
+  private long min = Long.MAX_VALUE;
+  private long max = 0L;
+
+  public void record(long value) {
+    if (value < 0L) {
+      value = 0L;
+    }
+    counts[indexOf(value)]++;
+    totalCount++;
+    sum += value;
+    if (value < min) min = value;
+    if (value > max) max = value;
+  }
+
+  public void reset() {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = 0L;
+    }
+    totalCount = 0L;
+    sum = 0L;
+    min = Long.MAX_VALUE;
+    max = 0L;
+  }
+
+  public void add(@NonNull final Histogram other) {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] += other.counts[i];
+    }
+    totalCount += other.totalCount;
+    sum += other.sum;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+  }
+
+  public long count() {
+    return totalCount;
+  }
+
+  public long min() {
+    return totalCount == 0L ? 0L : min;
+  }
+
+  public long max() {
+    return max;
+  }
+
+  public double mean() {
+    return totalCount == 0L ? 0.0 : (double)sum / totalCount;
+  }
+
+  // Returns the smallest recorded value such that the given percentage of
+  // all recorded values are less than or equal to it, up to bucket precision.
+  public long valueAtPercentile(final double percentile) {
+    if (totalCount == 0L) {
+      return 0L;
+    }
+    final double p = Math.min(Math.max(percentile, 0.0), 100.0);
+    long target = (long)Math.ceil(p / 100.0 * totalCount);
+    if (target < 1L) target = 1L;
+
+    long seen = 0L;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= target) {
+        return Math.max(Math.min(highestEquivalentValue(i), max), min);
+      }
+    }
+    return max;
+  }
+
+  // Number of buckets, valid indices for countAtIndex() are below it.
+  static int buckets() {
+    return BUCKET_COUNT;
+  }
+
+  long countAtIndex(final int index) {
+    return counts[index];
+  }
+
+  static int indexOf(final long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int)value;
+    }
+    final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return (shift << SUB_BUCKET_BITS) + (int)(value >>> shift);
+  }
+
+  static long lowestEquivalentValue(final int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    final int shift = (index >> SUB_BUCKET_BITS) - 1;
+    return (long)(index - (shift << SUB_BUCKET_BITS)) << shift;
+  }
+
+  static long highestEquivalentValue(final int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    final int shift = (index >> SUB_BUCKET_BITS) - 1;
+    return lowestEquivalentValue(index) + (1L << shift) - 1L;
+  }
+}
@@ -0,0 +1,171 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+import java.io.PrintStream;
+
+// Writes a single JSON document:
+//
+//   {"metadata": {...}, "results": [...], "throughput": [...]}
+//
+// Every result is written and flushed as soon as it is reported, so nothing
+// but the result currently being written is kept in memory.
+final class JsonReporter extends Reporter {
+  @NonNull
+  private final JsonWriter json;
+
+  private boolean inResults;
+  private boolean inThroughput;
+
+  JsonReporter(@NonNull final PrintStream out) {
+    this.json = new JsonWriter(out);
+  }
+
+  @Override
+  public void begin(@NonNull final RunMetadata metadata) {
+    json.beginObject();
+    json.name("metadata").beginObject();
+    json.name("timestamp").value(metadata.formatTimestamp());
+    json.name("vmName").value(metadata.vmName);
+    json.name("vmVersion").value(metadata.vmVersion);
+    json.name("vmVendor").value(metadata.vmVendor);
+    json.name("javaVersion").value(metadata.javaVersion);
+    json.name("osName").value(metadata.osName);
+    json.name("osVersion").value(metadata.osVersion);
+    json.name("osArch").value(metadata.osArch);
+    json.name("cores").value(metadata.cores);
+    json.name("governor").value(metadata.governor);
+    json.name("clockOverheadNs").value(metadata.clock.overheadNanos);
+    json.name("clockResolutionNs").value(metadata.clock.resolutionNanos);
+    json.endObject();
+    json.flush();
+  }
+
+  @Override
+  public void report(@NonNull final Result result) {
+    if (!inResults) {
+      closeSection();
+      json.name("results").beginArray();
+      inResults = true;
+    }
+
+    final double[] elapsedUs = result.elapsedUs;
+    final double mean = Statistics.computeMean(elapsedUs);
+    final double confidence = Statistics.computeConfidence(elapsedUs);
+
+    json.beginObject();
+    json.name("benchmark").value(result.name);
+    json.name("unit").value("us");
+    json.name("samples").beginArray();
+    for(final double sample : elapsedUs) {
+      json.value(sample);
+    }
+    json.endArray();
+    json.name("mean").value(mean);
+    json.name("stddev").value(elapsedUs.length < 2 ? Double.NaN : Statistics.computeStandardDeviation(elapsedUs, mean));
+    json.name("ci95").beginArray().value(mean - confidence).value(mean + confidence).endArray();
+    json.name("bestRunsPerSec").value(Statistics.computeBest(result.scores()));
+    if (result.latency != null) {
+      writeLatency(result.latency);
+    }
+    if (result.memory != null) {
+      final MemoryUsage memory = result.memory;
+      json.name("memory").beginObject();
+      json.name("operations").value(memory.operations);
+      json.name("allocatedBytes").value(memory.allocatedBytes);
+      json.name("bytesPerOperation").value(memory.bytesPerOperation());
+      json.name("gcCount").value(memory.gcCount);
+      json.name("gcTimeMs").value(memory.gcTimeMillis);
+      json.endObject();
+    }
+    if (result.warmup != null) {
+      final Warmup warmup = result.warmup;
+      json.name("warmup").beginObject();
+      json.name("elapsedMs").value(warmup.elapsedMillis);
+      json.name("samples").value(warmup.samples);
+      json.name("cv").value(warmup.coefficientOfVariation);
+      json.name("steady").value(warmup.steady);
+      json.name("bimodal").value(warmup.bimodal);
+      json.endObject();
+    }
+    if (result.progressive != null) {
+      final ProgressiveTimes progressive = result.progressive;
+      json.name("progressive").beginObject();
+      json.name("renders").value(progressive.renders);
+      json.name("firstPreviewNs").value(progressive.firstPreviewNanos);
+      if (progressive.convergedNanos >= 0L) {
+        json.name("convergedNs").value(progressive.convergedNanos);
+      }
+      json.name("slices").value(progressive.slices);
+      json.endObject();
+    }
+    json.endObject();
+    json.flush();
+  }
+
+  // Per operation latencies in nanoseconds: a summary and the non-empty
+  // histogram buckets as [lowest value, highest value, count].
+  private void writeLatency(@NonNull final Histogram latency) {
+    json.name("latency").beginObject();
+    json.name("unit").value("ns");
+    json.name("count").value(latency.count());
+    json.name("mean").value(latency.mean());
+    json.name("min").value(latency.min());
+    for(final double percentile : TextReporter.PERCENTILES) {
+      json.name(TextReporter.label(percentile)).value(latency.valueAtPercentile(percentile));
+    }
+    json.name("max").value(latency.max());
+    json.name("buckets").beginArray();
+    for(int i = 0; i < Histogram.buckets(); i++) {
+      final long count = latency.countAtIndex(i);
+      if (count != 0L) {
+        json.beginArray();
+        json.value(Histogram.lowestEquivalentValue(i));
+        json.value(Histogram.highestEquivalentValue(i));
+        json.value(count);
+        json.endArray();
+      }
+    }
+    json.endArray();
+    json.endObject();
+  }
+
+  @Override
+  public void reportThroughput(@NonNull final Throughput throughput) {
+    if (!inThroughput) {
+      closeSection();
+      json.name("throughput").beginArray();
+      inThroughput = true;
+    }
+
+    json.beginObject();
+    json.name("benchmark").value(throughput.name);
+    json.name("threads").value(throughput.threads());
+    json.name("singleRunsPerSec").value(throughput.singleRunsPerSec);
+    json.name("threadRunsPerSec").beginArray();
+    for(final double runs : throughput.threadRunsPerSec) {
+      json.value(runs);
+    }
+    json.endArray();
+    json.name("aggregateRunsPerSec").value(throughput.aggregateRunsPerSec());
+    json.name("efficiency").value(throughput.efficiency());
+    json.name("contended").value(throughput.isContended());
+    json.name("imbalanced").value(throughput.isImbalanced());
+    json.endObject();
+    json.flush();
+  }
+
+  @Override
+  public void end() {
+    closeSection();
+    json.endObject();
+    json.flush();
+  }
+
+  private void closeSection() {
+    if (inResults || inThroughput) {
+      json.endArray();
+      inResults = false;
+      inThroughput = false;
+    }
+  }
+}
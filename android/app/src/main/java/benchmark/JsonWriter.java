@@ -0,0 +1,144 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.io.PrintStream;
+
+// Minimal streaming JSON writer. Values are written straight to the
+// stream, nothing is buffered beyond the nesting state.
+final class JsonWriter {
+  private static final int MAX_DEPTH = 32;
+
+  @NonNull
+  private final PrintStream out;
+
+  // Whether the container at each depth already has an element.
+  @NonNull
+  private final boolean[] nonEmpty = new boolean[MAX_DEPTH];
+
+  private int depth = 0;
+  private boolean afterName = false;
+
+  JsonWriter(@NonNull final PrintStream out) {
+    this.out = out;
+  }
+
+  @NonNull
+  JsonWriter beginObject() {
+    return open('{');
+  }
+
+  @NonNull
+  JsonWriter endObject() {
+    return close('}');
+  }
+
+  @NonNull
+  JsonWriter beginArray() {
+    return open('[');
+  }
+
+  @NonNull
+  JsonWriter endArray() {
+    return close(']');
+  }
+
+  @NonNull
+  JsonWriter name(@NonNull final String name) {
+    separate();
+    string(name);
+    out.print(':');
+    afterName = true;
+    return this;
+  }
+
+  @NonNull
+  JsonWriter value(@Nullable final String value) {
+    separate();
+    if (value == null) {
+      out.print("null");
+    } else {
+      string(value);
+    }
+    return this;
+  }
+
+  // NaN and infinities have no JSON representation and are written as null.
+  @NonNull
+  JsonWriter value(final double value) {
+    separate();
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      out.print("null");
+    } else {
+      out.print(value);
+    }
+    return this;
+  }
+
+  @NonNull
+  JsonWriter value(final long value) {
+    separate();
+    out.print(value);
+    return this;
+  }
+
+  @NonNull
+  JsonWriter value(final boolean value) {
+    separate();
+    out.print(value);
+    return this;
+  }
+
+  void flush() {
+    out.flush();
+  }
+
+  @NonNull
+  private JsonWriter open(final char c) {
+    separate();
+    out.print(c);
+    nonEmpty[++depth] = false;
+    return this;
+  }
+
+  @NonNull
+  private JsonWriter close(final char c) {
+    depth--;
+    out.print(c);
+    return this;
+  }
+
+  private void separate() {
+    if (afterName) {
+      afterName = false;
+      return;
+    }
+    if (depth > 0) {
+      if (nonEmpty[depth]) {
+        out.print(',');
+      }
+      nonEmpty[depth] = true;
+    }
+  }
+
+  private void string(@NonNull final String s) {
+    out.print('"');
+    for(int i = 0; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      switch(c) {
+        case '"': out.print("\\\""); break;
+        case '\\': out.print("\\\\"); break;
+        case '\n': out.print("\\n"); break;
+        case '\r': out.print("\\r"); break;
+        case '\t': out.print("\\t"); break;
+        default:
+          if (c < 0x20) {
+            out.print(String.format("\\u%04x", (int)c));
+          } else {
+            out.print(c);
+          }
+      }
+    }
+    out.print('"');
+  }
+}
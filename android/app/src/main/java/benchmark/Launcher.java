@@ -0,0 +1,353 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import defrac.benchmark.tracer.Canvas;
+import defrac.benchmark.tracer.PpmWriter;
+import defrac.benchmark.tracer.RenderMode;
+import defrac.benchmark.tracer.RenderScene;
+import defrac.benchmark.tracer.SceneDescription;
+import defrac.benchmark.tracer.Workload;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Command line entry point for running the suite on a plain JVM.
+public final class Launcher {
+  private static final String USAGE =
+      "Usage: Launcher [options]\n"+
+      "  -b, --benchmarks NAMES  comma separated benchmarks to run (default: all)\n"+
+      "                          "+join(AllBenchmarks.NAMES)+"\n"+
+      "                          variants: "+join(AllBenchmarks.VARIANTS)+"\n"+
+      "  -n, --iterations N      repetitions of the measurement per benchmark (default: 10)\n"+
+      "  -w, --warmup MS         warmup time per repetition in ms (default: 100)\n"+
+      "  -m, --measure MS        measurement time per repetition in ms (default: 2000)\n"+
+      "      --no-latency        skip measuring the latency of single operations\n"+
+      "      --memory            also measure bytes allocated and GCs per operation\n"+
+      "  -t, --threads N         run N instances of every benchmark concurrently and\n"+
+      "                          report their throughput; not with --baseline\n"+
+      "      --parallel          same as --threads with the number of cores ("+ParallelRunner.defaultThreads()+")\n"+
+      "  -f, --format FORMAT     "+join(Reporter.FORMATS)+" (default: text)\n"+
+      "  -o, --output FILE       write the report to FILE instead of the console\n"+
+      "      --baseline DIR      compare the results against the baselines in DIR and\n"+
+      "                          exit with status 1 if a benchmark regressed\n"+
+      "      --save-baseline     store the results as the new baselines in DIR\n"+
+      "      --threshold PCT     slowdown that counts as a regression (default: 5)\n"+
+      "      --adaptive          warm up until the timings are steady and repeat the\n"+
+      "                          measurement until the error is below --target-error;\n"+
+      "                          --warmup then is the minimum warmup and repetitions\n"+
+      "                          last a tenth of --measure, longer if needed\n"+
+      "      --max-warmup MS     longest adaptive warmup per benchmark (default: 20000)\n"+
+      "      --steady-cv PCT     variation below which the warmup is steady (default: 5)\n"+
+      "      --target-error PCT  error of the mean to reach (default: 1)\n"+
+      "      --max-iterations N  most adaptive repetitions (default: 50)\n"+
+      "      --render FILE       write a "+TracerFrame.WIDTH+"x"+TracerFrame.HEIGHT+" frame of the tracer to FILE as a\n"+
+      "                          PPM image instead of running benchmarks\n"+
+      "      --scene SCENE       what --render renders: a scene description file or\n"+
+      "                          one of "+join(Workload.values())+"\n"+
+      "  -h, --help              print this message\n";
+
+  // Havlak's loop finder recurses once per basic block, which needs more
+  // than the default thread stack of desktop JVMs; Android's main thread
+  // has 8MB, but other threads there get far less.
+  public static final long STACK_SIZE = 8L << 20;
+
+  @NonNull
+  private static final String[] VALUE_OPTIONS = {
+      "-b", "--benchmarks",
+      "-n", "--iterations",
+      "-w", "--warmup",
+      "-m", "--measure",
+      "-t", "--threads",
+      "-f", "--format",
+      "-o", "--output",
+      "--baseline",
+      "--threshold",
+      "--max-warmup",
+      "--steady-cv",
+      "--target-error",
+      "--max-iterations",
+      "--render",
+      "--scene",
+  };
+
+  private Launcher() {}
+
+  public static void main(final String[] args) {
+    final Options options;
+    try {
+      options = parse(args);
+    } catch(IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.print(USAGE);
+      System.exit(2);
+      return;
+    }
+    if (options == null) {
+      System.out.print(USAGE);
+      return;
+    }
+    if (options.render != null) {
+      render(options.render, options.scene);
+      return;
+    }
+    final boolean[] passed = new boolean[1];
+    final Thread thread = new Thread(null, new Runnable() {
+      @Override
+      public void run() {
+        passed[0] = AllBenchmarks.run(options, System.out);
+      }
+    }, "benchmark", STACK_SIZE);
+    thread.start();
+    try {
+      thread.join();
+    } catch(InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (!passed[0]) {
+      System.exit(1);
+    }
+  }
+
+  private static void render(@NonNull final String file, @Nullable final String scene) {
+    final Canvas canvas;
+    try {
+      if (scene == null) {
+        canvas = new Canvas(TracerFrame.WIDTH, TracerFrame.HEIGHT);
+        RenderScene.render(canvas, RenderMode.SCRATCH);
+      } else {
+        final SceneDescription description = describe(scene);
+        canvas = new Canvas(description.getWidth(), description.getHeight());
+        description.render(canvas, RenderMode.SCRATCH);
+      }
+    } catch(IOException | IllegalArgumentException e) {
+      System.err.println("Failed to read " + scene + ": " + e.getMessage());
+      System.exit(1);
+      return;
+    }
+    try {
+      final OutputStream out = new FileOutputStream(file);
+      try {
+        PpmWriter.write(canvas, out);
+      } finally {
+        out.close();
+      }
+    } catch(IOException e) {
+      System.err.println("Failed to write " + file + ": " + e.getMessage());
+      System.exit(1);
+    }
+  }
+
+  // A workload by name, or else a scene description file.
+  @NonNull
+  private static SceneDescription describe(@NonNull final String scene) throws IOException {
+    for(final Workload workload : Workload.values()) {
+      if (workload.name().equalsIgnoreCase(scene)) {
+        return workload.describe();
+      }
+    }
+    final Reader reader = new InputStreamReader(new FileInputStream(scene), "UTF-8");
+    try {
+      return SceneDescription.parse(reader);
+    } finally {
+      reader.close();
+    }
+  }
+
+  // Returns null if only the usage was asked for.
+  static Options parse(@NonNull final String[] args) {
+    final Options options = new Options();
+    boolean threshold = false;
+
+    for(int i = 0; i < args.length; ++i) {
+      String arg = args[i];
+      String value = null;
+      final int eq = arg.indexOf('=');
+      if (arg.startsWith("--") && eq > 0) {
+        value = arg.substring(eq + 1);
+        arg = arg.substring(0, eq);
+      }
+
+      switch(arg) {
+        case "-h":
+        case "--help":
+          return null;
+        case "--no-latency":
+          options.latency = false;
+          continue;
+        case "--memory":
+          options.memory = true;
+          continue;
+        case "--save-baseline":
+          options.saveBaseline = true;
+          continue;
+        case "--parallel":
+          options.threads = ParallelRunner.defaultThreads();
+          continue;
+        case "--adaptive":
+          options.adaptive = true;
+          continue;
+        default:
+          break;
+      }
+
+      if (!Arrays.asList(VALUE_OPTIONS).contains(arg)) {
+        throw new IllegalArgumentException("Unknown option: " + arg);
+      }
+      if (value == null) {
+        if (i + 1 >= args.length) {
+          throw new IllegalArgumentException("Missing value for " + arg);
+        }
+        value = args[++i];
+      }
+
+      switch(arg) {
+        case "-b":
+        case "--benchmarks":
+          options.benchmarks = parseBenchmarks(value);
+          break;
+        case "-n":
+        case "--iterations":
+          options.iterations = parsePositive(arg, value);
+          break;
+        case "-w":
+        case "--warmup":
+          options.warmupMillis = parsePositive(arg, value);
+          break;
+        case "-m":
+        case "--measure":
+          options.measureMillis = parsePositive(arg, value);
+          break;
+        case "-t":
+        case "--threads":
+          options.threads = parsePositive(arg, value);
+          break;
+        case "-f":
+        case "--format":
+          if (!Arrays.asList(Reporter.FORMATS).contains(value)) {
+            throw new IllegalArgumentException("Unknown output format: " + value);
+          }
+          options.format = value;
+          break;
+        case "-o":
+        case "--output":
+          options.output = value;
+          break;
+        case "--baseline":
+          options.baseline = value;
+          break;
+        case "--threshold":
+          options.threshold = parsePercent(arg, value);
+          threshold = true;
+          break;
+        case "--max-warmup":
+          options.maxWarmupMillis = parsePositive(arg, value);
+          break;
+        case "--steady-cv":
+          options.steadyThreshold = parsePercent(arg, value);
+          break;
+        case "--target-error":
+          options.targetError = parsePercent(arg, value);
+          break;
+        case "--max-iterations":
+          options.maxIterations = parsePositive(arg, value);
+          break;
+        case "--render":
+          options.render = value;
+          break;
+        case "--scene":
+          options.scene = value;
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option: " + arg);
+      }
+    }
+
+    if (options.saveBaseline && options.baseline == null) {
+      throw new IllegalArgumentException("--save-baseline requires --baseline");
+    }
+    // Throughput runs report operations per second of several threads,
+    // which baselines of single threaded timings say nothing about.
+    if (options.threads > 0 && (options.baseline != null || threshold)) {
+      throw new IllegalArgumentException("--threads and --parallel cannot be combined with --baseline or --threshold");
+    }
+    if (options.scene != null && options.render == null) {
+      throw new IllegalArgumentException("--scene requires --render");
+    }
+
+    return options;
+  }
+
+  @NonNull
+  private static String[] parseBenchmarks(@NonNull final String value) {
+    final List<String> names = new ArrayList<String>();
+    for(final String part : value.split(",")) {
+      final String name = part.trim();
+      if (name.isEmpty()) {
+        continue;
+      }
+      final String known = find(name);
+      if (known == null) {
+        throw new IllegalArgumentException("Unknown benchmark: " + name);
+      }
+      names.add(known);
+    }
+    if (names.isEmpty()) {
+      throw new IllegalArgumentException("No benchmarks selected");
+    }
+    return names.toArray(new String[names.size()]);
+  }
+
+  // Benchmark names are matched case-insensitively.
+  private static String find(@NonNull final String name) {
+    for(final String known : AllBenchmarks.NAMES) {
+      if (known.equalsIgnoreCase(name)) {
+        return known;
+      }
+    }
+    for(final String known : AllBenchmarks.VARIANTS) {
+      if (known.equalsIgnoreCase(name)) {
+        return known;
+      }
+    }
+    return null;
+  }
+
+  private static int parsePositive(@NonNull final String option, @NonNull final String value) {
+    final int result;
+    try {
+      result = Integer.parseInt(value);
+    } catch(NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+    }
+    if (result <= 0) {
+      throw new IllegalArgumentException("Value for " + option + " must be positive: " + value);
+    }
+    return result;
+  }
+
+  private static double parsePercent(@NonNull final String option, @NonNull final String value) {
+    final double result;
+    try {
+      result = Double.parseDouble(value);
+    } catch(NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+    }
+    if (!(result >= 0.0)) {
+      throw new IllegalArgumentException("Value for " + option + " must not be negative: " + value);
+    }
+    return result / 100.0;
+  }
+
+  @NonNull
+  private static String join(@NonNull final Object[] values) {
+    final String list = Arrays.toString(values);
+    return list.substring(1, list.length() - 1);
+  }
+}
@@ -0,0 +1,51 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.lang.reflect.InvocationTargetException;
+
+// Reads the allocation and garbage collection counters of the running VM.
+// Every counter is cumulative; -1 means the VM does not provide it.
+public abstract class MemoryProbe {
+  // Implementation for HotSpot and other desktop JVMs. It lives in the jvm
+  // module because java.lang.management is not available on Android.
+  @NonNull
+  private static final String JVM_PROBE = "defrac.benchmark.JvmMemoryProbe";
+
+  @Nullable
+  private static MemoryProbe defaultProbe;
+
+  private static boolean lookedUp;
+
+  // Installs the probe for this VM, e.g. one reading Debug's counters on
+  // Android.
+  public static synchronized void setDefault(@NonNull final MemoryProbe probe) {
+    defaultProbe = probe;
+    lookedUp = true;
+  }
+
+  // Returns the installed probe, falling back to the desktop JVM one if it
+  // is on the class path, or null if allocations cannot be measured.
+  @Nullable
+  public static synchronized MemoryProbe getDefault() {
+    if (!lookedUp) {
+      lookedUp = true;
+      // The reflective exceptions are caught one by one: their common
+      // superclass ReflectiveOperationException needs API level 19.
+      try {
+        defaultProbe = (MemoryProbe)Class.forName(JVM_PROBE).getDeclaredConstructor().newInstance();
+      } catch(ClassNotFoundException | NoSuchMethodException | InstantiationException | IllegalAccessException |
+              InvocationTargetException | LinkageError e) {
+        defaultProbe = null;
+      }
+    }
+    return defaultProbe;
+  }
+
+  // Bytes allocated so far, by the calling thread if the VM can tell.
+  public abstract long allocatedBytes();
+
+  public abstract long gcCount();
+
+  public abstract long gcTimeMillis();
+}
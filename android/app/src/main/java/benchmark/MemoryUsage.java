@@ -0,0 +1,25 @@
+package defrac.benchmark;
+
+// Allocations and garbage collections while a benchmark ran operations.
+// Counts are -1 if the probe could not provide them.
+public final class MemoryUsage {
+  public final long operations;
+  public final long allocatedBytes;
+  public final long gcCount;
+  public final long gcTimeMillis;
+
+  MemoryUsage(final long operations, final long allocatedBytes, final long gcCount, final long gcTimeMillis) {
+    this.operations = operations;
+    this.allocatedBytes = allocatedBytes;
+    this.gcCount = gcCount;
+    this.gcTimeMillis = gcTimeMillis;
+  }
+
+  public double bytesPerOperation() {
+    return allocatedBytes < 0L ? Double.NaN : (double)allocatedBytes / operations;
+  }
+
+  static long delta(final long before, final long after) {
+    return (before < 0L || after < 0L) ? -1L : after - before;
+  }
+}
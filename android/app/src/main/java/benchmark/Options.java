@@ -0,0 +1,75 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+// What AllBenchmarks runs and how. The defaults match the Dart harness.
+public final class Options {
+  @NonNull
+  public String[] benchmarks = AllBenchmarks.NAMES;
+
+  // Repetitions of measure() per benchmark.
+  public int iterations = 10;
+
+  public int warmupMillis = BenchmarkBase.WARMUP_MILLIS;
+
+  public int measureMillis = BenchmarkBase.MEASURE_MILLIS;
+
+  // Whether to additionally record the latency of single operations.
+  public boolean latency = true;
+
+  // Whether to additionally measure allocations and collections per
+  // operation, if MemoryProbe.getDefault() supports this VM.
+  public boolean memory = false;
+
+  // When positive, runs that many instances of every benchmark concurrently
+  // and reports their throughput instead of the single threaded scores.
+  public int threads = 0;
+
+  @NonNull
+  public String format = Reporter.FORMAT_TEXT;
+
+  // File the report is written to instead of the console.
+  @Nullable
+  public String output = null;
+
+  // Directory of baseline files to compare the results against.
+  @Nullable
+  public String baseline = null;
+
+  // Whether to replace the baselines with the results of this run.
+  public boolean saveBaseline = false;
+
+  // Relative slowdown that counts as a regression, e.g. 0.05 for 5%.
+  public double threshold = RegressionDetector.DEFAULT_THRESHOLD;
+
+  // Warm up until the JIT reached a steady state and repeat the measurement
+  // until the confidence interval is narrow enough, instead of using the
+  // fixed warmup and number of iterations. The repetitions follow the warmup
+  // without one of their own and last between a tenth of measureMillis and
+  // all of it.
+  public boolean adaptive = false;
+
+  // Longest adaptive warmup per benchmark.
+  public int maxWarmupMillis = 20000;
+
+  // Coefficient of variation below which warmup timings count as steady.
+  public double steadyThreshold = SteadyStateDetector.DEFAULT_THRESHOLD;
+
+  // Adaptive repetitions stop once the 95% confidence interval is within
+  // this fraction of the mean, e.g. 0.01 for 1%...
+  public double targetError = 0.01;
+
+  // ...or after this many repetitions.
+  public int maxIterations = 50;
+
+  // File a frame of the tracer is written to, as a PPM image, instead of
+  // running any benchmark.
+  @Nullable
+  public String render = null;
+
+  // Workload name or scene description file --render renders instead of
+  // the benchmark scene.
+  @Nullable
+  public String scene = null;
+}
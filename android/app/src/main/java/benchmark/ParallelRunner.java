@@ -0,0 +1,146 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+// Runs independent instances of a benchmark on a thread pool, one per
+// thread, to see how the workload scales with the number of cores.
+final class ParallelRunner {
+  // Creates the instances by name, AllBenchmarks.create() unless a test
+  // needs benchmarks that are not in the suite.
+  interface Factory {
+    @NonNull
+    BenchmarkBase create(@NonNull String name);
+  }
+
+  @NonNull
+  private static final Factory SUITE = new Factory() {
+    @Override
+    @NonNull
+    public BenchmarkBase create(@NonNull final String name) {
+      return AllBenchmarks.create(name);
+    }
+  };
+
+  @NonNull
+  private final ExecutorService pool;
+
+  @NonNull
+  private final Factory factory;
+
+  private final int threads;
+  private final int warmupMillis;
+  private final int measureMillis;
+
+  ParallelRunner(final int threads, final int warmupMillis, final int measureMillis) {
+    this(threads, warmupMillis, measureMillis, SUITE);
+  }
+
+  ParallelRunner(final int threads, final int warmupMillis, final int measureMillis,
+                 @NonNull final Factory factory) {
+    this.threads = threads;
+    this.factory = factory;
+    this.warmupMillis = warmupMillis;
+    this.measureMillis = measureMillis;
+    this.pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+      private int count = 0;
+
+      @Override
+      public Thread newThread(@NonNull final Runnable r) {
+        // Daemon threads, so that a stuck instance cannot keep the VM alive.
+        final Thread thread = new Thread(null, r, "benchmark-" + (++count), Launcher.STACK_SIZE);
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
+  static int defaultThreads() {
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  @NonNull
+  Throughput measure(@NonNull final String name) {
+    final double single = run(name, 1)[0];
+    final double[] concurrent = run(name, threads);
+    return new Throughput(name, single, concurrent);
+  }
+
+  void shutdown() {
+    pool.shutdownNow();
+  }
+
+  // Runs the given number of instances at the same time and returns the
+  // operations per second each of them achieved. If any instance fails,
+  // the others are cancelled: those waiting for the start are interrupted,
+  // which breaks the barrier for the ones that have yet to reach it.
+  @NonNull
+  private double[] run(@NonNull final String name, final int instances) {
+    final CyclicBarrier start = new CyclicBarrier(instances);
+    final CompletionService<Double> completion = new ExecutorCompletionService<Double>(pool);
+    final List<Future<Double>> futures = new ArrayList<Future<Double>>(instances);
+
+    for(int i = 0; i < instances; ++i) {
+      futures.add(completion.submit(new Callable<Double>() {
+        @Override
+        public Double call() throws InterruptedException, BrokenBarrierException {
+          final BenchmarkBase benchmark = factory.create(name);
+          benchmark.setup();
+          BenchmarkBase.measureFor(new Runnable() {
+            @Override
+            public void run() {
+              benchmark.warmup();
+            }
+          }, warmupMillis);
+
+          // Every instance is warmed up before any of them is measured.
+          start.await();
+          final double elapsedUs = BenchmarkBase.measureFor(new Runnable() {
+            @Override
+            public void run() {
+              benchmark.operation();
+            }
+          }, measureMillis);
+          benchmark.teardown();
+
+          return 1.0e6 / elapsedUs;
+        }
+      }));
+    }
+
+    // Instances are collected in the order they finish, so the first failure
+    // is seen at once rather than behind an instance stuck at the barrier.
+    final double[] runsPerSec = new double[instances];
+    try {
+      for(int i = 0; i < instances; ++i) {
+        runsPerSec[i] = completion.take().get();
+      }
+    } catch(InterruptedException e) {
+      cancel(futures);
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Interrupted while running " + name);
+    } catch(ExecutionException e) {
+      cancel(futures);
+      throw new RuntimeException("Failed to run " + name, e.getCause());
+    }
+    return runsPerSec;
+  }
+
+  private static void cancel(@NonNull final List<Future<Double>> futures) {
+    for(final Future<Double> future : futures) {
+      future.cancel(true);
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package defrac.benchmark;
+
+// How long the progressive renders of a benchmark took until the first
+// complete preview and until the image converged, averaged over the
+// renders of the last repetition.
+public final class ProgressiveTimes {
+  public final int renders;
+
+  public final long firstPreviewNanos;
+
+  // -1 if the renders stopped at the preview.
+  public final long convergedNanos;
+
+  // renderFor() calls per render.
+  public final double slices;
+
+  ProgressiveTimes(final int renders, final long firstPreviewNanos, final long convergedNanos, final double slices) {
+    this.renders = renders;
+    this.firstPreviewNanos = firstPreviewNanos;
+    this.convergedNanos = convergedNanos;
+    this.slices = slices;
+  }
+}
@@ -0,0 +1,55 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+import java.io.PrintStream;
+import java.text.DecimalFormat;
+
+// Decides whether a benchmark got slower than its baseline. A change only
+// counts if it is both larger than the threshold and statistically
+// significant according to a one-sided Mann-Whitney U test, which makes no
+// assumption about the distribution of the samples.
+final class RegressionDetector {
+  static final double DEFAULT_THRESHOLD = 0.05;
+  static final double ALPHA = 0.05;
+
+  @NonNull
+  private static final DecimalFormat PERCENT = new DecimalFormat("+0.00;-0.00");
+
+  @NonNull
+  private static final DecimalFormat TIME = new DecimalFormat("0.00");
+
+  @NonNull
+  private static final DecimalFormat P_VALUE = new DecimalFormat("0.0000");
+
+  // Relative slowdown of the median beyond which a significant change is a
+  // regression, e.g. 0.05 for 5%.
+  private final double threshold;
+
+  RegressionDetector(final double threshold) {
+    this.threshold = threshold;
+  }
+
+  @NonNull
+  Comparison compare(@NonNull final String name, @NonNull final double[] baseline, @NonNull final double[] current) {
+    final double baselineMedian = Statistics.computeMedian(baseline);
+    final double currentMedian = Statistics.computeMedian(current);
+    final double change = currentMedian / baselineMedian - 1.0;
+    final double pSlower = Statistics.computeMannWhitneyP(current, baseline);
+    final double pFaster = Statistics.computeMannWhitneyP(baseline, current);
+
+    return new Comparison(name, baselineMedian, currentMedian, pSlower, pFaster,
+        pSlower < ALPHA && change > threshold,
+        pFaster < ALPHA && -change > threshold);
+  }
+
+  void print(@NonNull final Comparison comparison, @NonNull final PrintStream out) {
+    final String verdict = comparison.regressed ? "REGRESSION"
+        : comparison.improved ? "improvement"
+        : "no significant change";
+    out.println("[benchmark] Java - " + comparison.name + ":(vs baseline)\t" +
+        PERCENT.format(comparison.change() * 100.0) + "%\t" +
+        "median us:\t" + TIME.format(comparison.baselineMedian) + " -> " + TIME.format(comparison.currentMedian) + "\t" +
+        "p:\t" + P_VALUE.format(Math.min(comparison.pSlower, comparison.pFaster)) + "\t" +
+        verdict);
+  }
+}
@@ -0,0 +1,42 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+import java.io.PrintStream;
+
+// Receives results as they are measured and writes them somewhere. Results
+// are handed over one at a time so that reporters can stream them out.
+public abstract class Reporter {
+  public static final String FORMAT_TEXT = "text";
+  public static final String FORMAT_TSV = "tsv";
+  public static final String FORMAT_JSON = "json";
+  public static final String FORMAT_CSV = "csv";
+
+  @NonNull
+  static final String[] FORMATS = { FORMAT_TEXT, FORMAT_TSV, FORMAT_JSON, FORMAT_CSV };
+
+  @NonNull
+  public static Reporter create(@NonNull final String format, @NonNull final PrintStream out) {
+    if (FORMAT_TEXT.equals(format)) {
+      return new TextReporter(out);
+    } else if (FORMAT_TSV.equals(format)) {
+      return new TsvReporter(out);
+    } else if (FORMAT_JSON.equals(format)) {
+      return new JsonReporter(out);
+    } else if (FORMAT_CSV.equals(format)) {
+      return new CsvReporter(out);
+    }
+    throw new IllegalArgumentException("Unknown output format: " + format);
+  }
+
+  public void begin(@NonNull final RunMetadata metadata) {
+
+  }
+
+  public abstract void report(@NonNull Result result);
+
+  public abstract void reportThroughput(@NonNull Throughput throughput);
+
+  public void end() {
+
+  }
+}
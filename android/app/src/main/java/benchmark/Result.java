@@ -0,0 +1,51 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+// Everything measured for one benchmark.
+public final class Result {
+  @NonNull
+  public final String name;
+
+  // Microseconds per exercise() of every repetition of measure().
+  @NonNull
+  public final double[] elapsedUs;
+
+  // Latency of single operations in nanoseconds, if it was measured.
+  @Nullable
+  public final Histogram latency;
+
+  // Allocations and collections per operation, if they were measured.
+  @Nullable
+  public final MemoryUsage memory;
+
+  // How the adaptive warmup ended, if one was made.
+  @Nullable
+  public final Warmup warmup;
+
+  // Preview and convergence times, for benchmarks that render progressively.
+  @Nullable
+  public final ProgressiveTimes progressive;
+
+  Result(@NonNull final String name, @NonNull final double[] elapsedUs,
+         @Nullable final Histogram latency, @Nullable final MemoryUsage memory,
+         @Nullable final Warmup warmup, @Nullable final ProgressiveTimes progressive) {
+    this.name = name;
+    this.elapsedUs = elapsedUs;
+    this.latency = latency;
+    this.memory = memory;
+    this.warmup = warmup;
+    this.progressive = progressive;
+  }
+
+  // Exercises per second of every repetition.
+  @NonNull
+  public double[] scores() {
+    final double[] scores = new double[elapsedUs.length];
+    for(int i = 0; i < scores.length; ++i) {
+      scores[i] = 1.0e6 / elapsedUs[i];
+    }
+    return scores;
+  }
+}
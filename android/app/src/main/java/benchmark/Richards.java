@@ -75,6 +75,11 @@ public final class Richards extends BenchmarkBase {
   public static final int KIND_WORK = 1;
 
 
+  @Override
+  public void operation() {
+    run();
+  }
+
   @Override
   public void run() {
     Scheduler scheduler = new Scheduler();
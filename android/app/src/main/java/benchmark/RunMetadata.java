@@ -0,0 +1,83 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+// Describes the machine and runtime a set of results was measured on.
+public final class RunMetadata {
+  @NonNull
+  private static final String GOVERNOR = "/sys/devices/system/cpu/cpu0/cpufreq/scaling_governor";
+
+  // Milliseconds since the epoch at which the run started.
+  public final long timestamp;
+
+  @Nullable public final String vmName;
+  @Nullable public final String vmVersion;
+  @Nullable public final String vmVendor;
+  @Nullable public final String javaVersion;
+  @Nullable public final String osName;
+  @Nullable public final String osVersion;
+  @Nullable public final String osArch;
+
+  public final int cores;
+
+  // Scaling governor of the first CPU, if the kernel exposes it.
+  @Nullable
+  public final String governor;
+
+  @NonNull
+  public final ClockCalibration clock;
+
+  private RunMetadata() {
+    timestamp = System.currentTimeMillis();
+    vmName = System.getProperty("java.vm.name");
+    vmVersion = System.getProperty("java.vm.version");
+    vmVendor = System.getProperty("java.vm.vendor");
+    javaVersion = System.getProperty("java.version");
+    osName = System.getProperty("os.name");
+    osVersion = System.getProperty("os.version");
+    osArch = System.getProperty("os.arch");
+    cores = Runtime.getRuntime().availableProcessors();
+    governor = readLine(GOVERNOR);
+    clock = ClockCalibration.forClock(Stopwatch.defaultClock());
+  }
+
+  @NonNull
+  public static RunMetadata collect() {
+    return new RunMetadata();
+  }
+
+  // The timestamp in ISO 8601 format, UTC.
+  @NonNull
+  public String formatTimestamp() {
+    final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+    format.setTimeZone(TimeZone.getTimeZone("UTC"));
+    return format.format(new Date(timestamp));
+  }
+
+  @Nullable
+  private static String readLine(@NonNull final String path) {
+    BufferedReader reader = null;
+    try {
+      reader = new BufferedReader(new FileReader(path));
+      final String line = reader.readLine();
+      return line == null ? null : line.trim();
+    } catch(IOException | SecurityException e) {
+      return null;
+    } finally {
+      if (reader != null) {
+        try {
+          reader.close();
+        } catch(IOException ignored) {
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+import java.util.Arrays;
+import java.util.Comparator;
+
+// Summary statistics shared by the reporters.
+final class Statistics {
+  @NonNull
+  private static final double[] TABLE = {
+      Double.NaN, Double.NaN, 12.71,
+      4.30, 3.18, 2.78, 2.57, 2.45, 2.36, 2.31, 2.26, 2.23, 2.20, 2.18, 2.16,
+      2.14, 2.13, 2.12, 2.11, 2.10, 2.09, 2.09, 2.08, 2.07, 2.07, 2.06, 2.06,
+      2.06, 2.05, 2.05, 2.05, 2.04, 2.04, 2.04, 2.03, 2.03, 2.03, 2.03, 2.03,
+      2.02, 2.02, 2.02, 2.02, 2.02, 2.02, 2.02, 2.01, 2.01, 2.01, 2.01, 2.01,
+      2.01, 2.01, 2.01, 2.01, 2.00, 2.00, 2.00, 2.00, 2.00, 2.00, 2.00, 2.00,
+      2.00, 2.00, 2.00, 2.00, 2.00, 2.00, 2.00, 1.99, 1.99, 1.99, 1.99, 1.99,
+      1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99,
+      1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99, 1.99 };
+
+  private Statistics() {}
+
+  static double computeBest(double[] scores) {
+    double best = scores[0];
+    for(int i = 1; i < scores.length; i++) {
+      best = Math.max(best, scores[i]);
+    }
+    return best;
+  }
+
+  static double computeMean(double[] scores) {
+    double sum = 0.0;
+    for(double score : scores) {
+      sum += score;
+    }
+    return sum / scores.length;
+  }
+
+  static double computeStandardDeviation(double[] scores, double mean) {
+    double deltaSquaredSum = 0.0;
+    for(double score : scores) {
+      double delta = score - mean;
+      deltaSquaredSum += delta * delta;
+    }
+    double variance = deltaSquaredSum / (scores.length - 1);
+    return Math.sqrt(variance);
+  }
+
+  static double computeTDistribution(int n) {
+    if (n >= 474) return 1.96;
+    else if (n >= 160) return 1.97;
+    else if (n >= TABLE.length) return 1.98;
+    else return TABLE[n];
+  }
+
+  // Half-width of the 95% confidence interval of the mean.
+  static double computeConfidence(double[] values) {
+    final int n = values.length;
+    if (n < 2) {
+      return Double.NaN;
+    }
+    final double standardError = computeStandardDeviation(values, computeMean(values)) / Math.sqrt(n);
+    return computeTDistribution(n) * standardError;
+  }
+
+  // Half-width of the 95% confidence interval of the mean, as a percentage
+  // of the mean.
+  static double computeErrorPercent(double[] scores) {
+    return (computeConfidence(scores) / computeMean(scores)) * 100.0;
+  }
+
+  static double computeMedian(double[] values) {
+    if (values.length == 0) {
+      throw new IllegalArgumentException("Median of no values");
+    }
+    final double[] sorted = values.clone();
+    Arrays.sort(sorted);
+    final int n = sorted.length;
+    return (n % 2 == 1) ? sorted[n / 2] : 0.5 * (sorted[n / 2 - 1] + sorted[n / 2]);
+  }
+
+  // One-sided p-value of the Mann-Whitney U test for values in a tending to
+  // be larger than those in b. Uses the normal approximation with tie and
+  // continuity correction, which is adequate from about 8 samples per side.
+  static double computeMannWhitneyP(double[] a, double[] b) {
+    final int n1 = a.length;
+    final int n2 = b.length;
+    final int n = n1 + n2;
+
+    // Sort all values, remembering which side each one came from.
+    final double[] values = new double[n];
+    final boolean[] fromA = new boolean[n];
+    final Integer[] order = new Integer[n];
+    for(int i = 0; i < n; i++) {
+      values[i] = i < n1 ? a[i] : b[i - n1];
+      fromA[i] = i < n1;
+      order[i] = i;
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer x, Integer y) {
+        return Double.compare(values[x], values[y]);
+      }
+    });
+
+    // Sum of the ranks of a, ties get the average of their ranks.
+    double rankSumA = 0.0;
+    double tieCorrection = 0.0;
+    int i = 0;
+    while(i < n) {
+      int j = i;
+      while(j + 1 < n && values[order[j + 1]] == values[order[i]]) {
+        j++;
+      }
+      final double rank = 0.5 * (i + j) + 1.0;
+      for(int k = i; k <= j; k++) {
+        if (fromA[order[k]]) {
+          rankSumA += rank;
+        }
+      }
+      final double t = j - i + 1;
+      tieCorrection += t * t * t - t;
+      i = j + 1;
+    }
+
+    final double u = rankSumA - n1 * (n1 + 1) / 2.0;
+    final double mean = n1 * (double)n2 / 2.0;
+    final double variance = n1 * (double)n2 / 12.0 * ((n + 1) - tieCorrection / (n * (double)(n - 1)));
+    if (variance <= 0.0) {
+      return 1.0;
+    }
+    final double z = (u - mean - 0.5) / Math.sqrt(variance);
+    return 1.0 - computeNormalCdf(z);
+  }
+
+  // Standard normal distribution function, accurate to about 1e-7.
+  static double computeNormalCdf(double z) {
+    final double x = Math.abs(z) / Math.sqrt(2.0);
+    final double t = 1.0 / (1.0 + 0.3275911 * x);
+    final double erf = 1.0 - (((((1.061405429 * t - 1.453152027) * t) + 1.421413741) * t - 0.284496736) * t + 0.254829592) * t * Math.exp(-x * x);
+    return z >= 0.0 ? 0.5 * (1.0 + erf) : 0.5 * (1.0 - erf);
+  }
+}
@@ -0,0 +1,120 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+import java.util.Arrays;
+
+// Watches a sliding window of timings during warmup and tells when they
+// have settled. The window is steady when its coefficient of variation is
+// below the threshold and its older and newer halves agree, i.e. the JIT is
+// no longer making it faster.
+//
+// Some workloads alternate between two compiled states (e.g. OSR and
+// normal entry) and never settle into a single mode. Their window splits
+// into two clusters that are each tight on their own, which is reported as
+// bimodal and ends the warmup as well.
+final class SteadyStateDetector {
+  static final int DEFAULT_WINDOW = 20;
+  static final double DEFAULT_THRESHOLD = 0.05;
+
+  // Smallest share of the window each cluster needs to count as a mode.
+  private static final double MIN_MODE_SHARE = 0.2;
+
+  @NonNull
+  private final double[] window;
+
+  @NonNull
+  private final double[] sorted;
+
+  private final double threshold;
+
+  private int count = 0;
+
+  SteadyStateDetector(final int size, final double threshold) {
+    this.window = new double[size];
+    this.sorted = new double[size];
+    this.threshold = threshold;
+  }
+
+  void add(final double sample) {
+    window[count % window.length] = sample;
+    count++;
+  }
+
+  int count() {
+    return count;
+  }
+
+  boolean isFull() {
+    return count >= window.length;
+  }
+
+  boolean isSteady() {
+    return isFull() && coefficientOfVariation() < threshold && !isTrending();
+  }
+
+  boolean isBimodal() {
+    if (!isFull()) {
+      return false;
+    }
+    System.arraycopy(window, 0, sorted, 0, window.length);
+    Arrays.sort(sorted);
+
+    // Split at the largest gap between neighbouring values.
+    int split = 1;
+    double gap = 0.0;
+    for(int i = 1; i < sorted.length; i++) {
+      final double g = sorted[i] - sorted[i - 1];
+      if (g > gap) {
+        gap = g;
+        split = i;
+      }
+    }
+
+    final int minMode = (int)Math.ceil(MIN_MODE_SHARE * sorted.length);
+    return split >= minMode && sorted.length - split >= minMode &&
+        coefficientOfVariation(sorted, 0, split) < threshold &&
+        coefficientOfVariation(sorted, split, sorted.length) < threshold;
+  }
+
+  double coefficientOfVariation() {
+    return coefficientOfVariation(window, 0, Math.min(count, window.length));
+  }
+
+  // Whether the newer half of the window is still faster than the older
+  // half by more than the threshold.
+  private boolean isTrending() {
+    final int half = window.length / 2;
+    double older = 0.0;
+    double newer = 0.0;
+    for(int i = 0; i < window.length; i++) {
+      // count % length is the oldest sample in the ring.
+      final double sample = window[(count + i) % window.length];
+      if (i < half) {
+        older += sample;
+      } else {
+        newer += sample;
+      }
+    }
+    older /= half;
+    newer /= window.length - half;
+    return (older - newer) / older > threshold;
+  }
+
+  private static double coefficientOfVariation(@NonNull final double[] values, final int from, final int to) {
+    final int n = to - from;
+    if (n < 2) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double sum = 0.0;
+    for(int i = from; i < to; i++) {
+      sum += values[i];
+    }
+    final double mean = sum / n;
+    double deltaSquaredSum = 0.0;
+    for(int i = from; i < to; i++) {
+      final double delta = values[i] - mean;
+      deltaSquaredSum += delta * delta;
+    }
+    return Math.sqrt(deltaSquaredSum / (n - 1)) / mean;
+  }
+}
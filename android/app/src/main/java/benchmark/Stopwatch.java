@@ -1,17 +1,52 @@
 package defrac.benchmark;
 
+import android.support.annotation.NonNull;
+
 public final class Stopwatch {
+  @NonNull
+  private static volatile Clock defaultClock = Clock.SYSTEM;
+
+  // Replaces the clock used by every Stopwatch created afterwards, e.g. with
+  // one backed by SystemClock.elapsedRealtimeNanos() on Android.
+  public static void setDefaultClock(@NonNull final Clock clock) {
+    defaultClock = clock;
+  }
+
+  @NonNull
+  public static Clock defaultClock() {
+    return defaultClock;
+  }
+
+  @NonNull
+  private final Clock clock;
+
   private long startTime;
 
+  public Stopwatch() {
+    this(defaultClock);
+  }
+
+  public Stopwatch(@NonNull final Clock clock) {
+    this.clock = clock;
+  }
+
   public void start() {
     startTime = currentTime();
   }
 
   private long currentTime() {
-    return System.currentTimeMillis();
+    return clock.nanoTime();
+  }
+
+  public long elapsedNanoseconds() {
+    return currentTime() - startTime;
+  }
+
+  public long elapsedMicroseconds() {
+    return elapsedNanoseconds() / 1000L;
   }
 
   public int elapsedMilliseconds() {
-    return (int)(currentTime() - startTime);
+    return (int)(elapsedNanoseconds() / 1000000L);
   }
 }
@@ -0,0 +1,144 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+import java.io.PrintStream;
+import java.text.DecimalFormat;
+
+// The human readable "[benchmark] Java - " log lines.
+final class TextReporter extends Reporter {
+  @NonNull
+  private static final DecimalFormat PERCENT = new DecimalFormat("##0.00");
+
+  @NonNull
+  private static final DecimalFormat ERROR = new DecimalFormat("0.0");
+
+  @NonNull
+  private static final DecimalFormat SCORE = new DecimalFormat("########.00");
+
+  @NonNull
+  private static final DecimalFormat LATENCY = new DecimalFormat("0.000");
+
+  @NonNull
+  private static final DecimalFormat PERCENTILE = new DecimalFormat("0.#");
+
+  @NonNull
+  static final double[] PERCENTILES = { 50.0, 90.0, 99.0, 99.9 };
+
+  @NonNull
+  private final PrintStream out;
+
+  TextReporter(@NonNull final PrintStream out) {
+    this.out = out;
+  }
+
+  @Override
+  public void begin(@NonNull final RunMetadata metadata) {
+    out.println("[benchmark] Java - " + metadata.clock);
+  }
+
+  @Override
+  public void report(@NonNull final Result result) {
+    final double mean = Statistics.computeMean(result.elapsedUs);
+    out.println("[benchmark] Java - " +result.name+ ":(runs/sec)\t" +format(result.scores(), "\t") + "\tavg us:\t" + mean);
+    if (result.latency != null) {
+      out.println("[benchmark] Java - " +result.name+ ":(latency us)\t" +formatPercentiles(result.latency));
+    }
+    if (result.memory != null) {
+      out.println("[benchmark] Java - " +result.name+ ":(memory)\t" +formatMemory(result.memory));
+    }
+    if (result.warmup != null) {
+      out.println("[benchmark] Java - " +result.name+ ":(warmup)\t" +formatWarmup(result.warmup, result.elapsedUs.length));
+    }
+    if (result.progressive != null) {
+      out.println("[benchmark] Java - " +result.name+ ":(progressive)\t" +formatProgressive(result.progressive));
+    }
+    out.flush();
+  }
+
+  private static String format(@NonNull final double[] scores, @NonNull final String metric) {
+    final double mean = Statistics.computeMean(scores);
+    final double best = Statistics.computeBest(scores);
+    final String score = SCORE.format(best);
+    if(scores.length == 1) {
+      return score+" "+metric;
+    } else {
+      final String error = ERROR.format(Statistics.computeErrorPercent(scores));
+      return score+" "+metric+" ("+PERCENT.format(mean)+"±"+error+"%)";
+    }
+  }
+
+  @Override
+  public void reportThroughput(@NonNull final Throughput throughput) {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("[benchmark] Java - ").append(throughput.name).append(":(threads)\t").append(throughput.threads());
+    sb.append("\tsingle runs/sec:\t").append(SCORE.format(throughput.singleRunsPerSec));
+    sb.append("\taggregate runs/sec:\t").append(SCORE.format(throughput.aggregateRunsPerSec()));
+    sb.append("\tefficiency:\t").append(PERCENT.format(throughput.efficiency() * 100.0)).append('%');
+    sb.append("\tper thread:\t").append(SCORE.format(throughput.slowestThread()));
+    sb.append('-').append(SCORE.format(throughput.fastestThread()));
+    if (throughput.isContended()) {
+      sb.append("\tCONTENDED");
+    }
+    if (throughput.isImbalanced()) {
+      sb.append("\tIMBALANCED");
+    }
+    out.println(sb);
+    out.flush();
+  }
+
+  // "p50", "p99.9", ...
+  @NonNull
+  static String label(final double percentile) {
+    return "p" + PERCENTILE.format(percentile);
+  }
+
+  // "steady", "bimodal" or "unsettled" when the warmup hit its time limit.
+  @NonNull
+  static String state(@NonNull final Warmup warmup) {
+    return warmup.steady ? "steady" : warmup.bimodal ? "bimodal" : "unsettled";
+  }
+
+  private static String formatWarmup(@NonNull final Warmup warmup, final int iterations) {
+    final StringBuilder sb = new StringBuilder();
+    sb.append(state(warmup));
+    sb.append("\tms=").append(warmup.elapsedMillis);
+    sb.append("\tsamples=").append(warmup.samples);
+    sb.append("\tcv=").append(PERCENT.format(warmup.coefficientOfVariation * 100.0)).append('%');
+    sb.append("\titerations=").append(iterations);
+    return sb.toString();
+  }
+
+  private static String formatProgressive(@NonNull final ProgressiveTimes progressive) {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("preview ms=").append(LATENCY.format(progressive.firstPreviewNanos / 1.0e6));
+    if (progressive.convergedNanos >= 0L) {
+      sb.append("\tconverged ms=").append(LATENCY.format(progressive.convergedNanos / 1.0e6));
+    }
+    sb.append("\tslices=").append(PERCENT.format(progressive.slices));
+    sb.append("\trenders=").append(progressive.renders);
+    return sb.toString();
+  }
+
+  private static String formatMemory(@NonNull final MemoryUsage memory) {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("bytes/op=").append(SCORE.format(memory.bytesPerOperation()));
+    sb.append("\tgc count=").append(memory.gcCount);
+    sb.append("\tgc ms=").append(memory.gcTimeMillis);
+    sb.append("\tops=").append(memory.operations);
+    return sb.toString();
+  }
+
+  // Formats the percentile table of a latency histogram recorded in
+  // nanoseconds as microseconds.
+  private static String formatPercentiles(@NonNull final Histogram histogram) {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("n=").append(histogram.count());
+    sb.append("\tmean=").append(LATENCY.format(histogram.mean() / 1000.0));
+    for(final double percentile : PERCENTILES) {
+      sb.append('\t').append(label(percentile)).append('=');
+      sb.append(LATENCY.format(histogram.valueAtPercentile(percentile) / 1000.0));
+    }
+    sb.append("\tmax=").append(LATENCY.format(histogram.max() / 1000.0));
+    return sb.toString();
+  }
+}
@@ -0,0 +1,71 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+
+// Result of running several instances of a benchmark concurrently.
+public final class Throughput {
+  // Below this fraction of linear scaling the run is flagged as contended.
+  static final double CONTENTION_THRESHOLD = 0.8;
+
+  @NonNull
+  public final String name;
+
+  // Operations per second of a single instance running alone.
+  public final double singleRunsPerSec;
+
+  // Operations per second of every thread while all of them were running.
+  @NonNull
+  public final double[] threadRunsPerSec;
+
+  Throughput(@NonNull final String name, final double singleRunsPerSec, @NonNull final double[] threadRunsPerSec) {
+    this.name = name;
+    this.singleRunsPerSec = singleRunsPerSec;
+    this.threadRunsPerSec = threadRunsPerSec;
+  }
+
+  public int threads() {
+    return threadRunsPerSec.length;
+  }
+
+  public double aggregateRunsPerSec() {
+    double sum = 0.0;
+    for(final double runs : threadRunsPerSec) {
+      sum += runs;
+    }
+    return sum;
+  }
+
+  // Aggregate throughput relative to perfectly linear scaling of the
+  // single instance, 1.0 being ideal.
+  public double efficiency() {
+    return aggregateRunsPerSec() / (threads() * singleRunsPerSec);
+  }
+
+  public double slowestThread() {
+    double min = threadRunsPerSec[0];
+    for(final double runs : threadRunsPerSec) {
+      min = Math.min(min, runs);
+    }
+    return min;
+  }
+
+  public double fastestThread() {
+    double max = threadRunsPerSec[0];
+    for(final double runs : threadRunsPerSec) {
+      max = Math.max(max, runs);
+    }
+    return max;
+  }
+
+  // The instances slowed each other down, e.g. through shared caches,
+  // memory bandwidth, the allocator or the GC.
+  public boolean isContended() {
+    return efficiency() < CONTENTION_THRESHOLD;
+  }
+
+  // Some threads ran much slower than others, e.g. on the LITTLE cores of
+  // a big.LITTLE CPU.
+  public boolean isImbalanced() {
+    return slowestThread() < CONTENTION_THRESHOLD * fastestThread();
+  }
+}
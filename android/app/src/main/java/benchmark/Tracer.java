@@ -8,6 +8,7 @@
 // Translated from Dart's ton80 benchmark suite to Java
 package defrac.benchmark;
 
+import defrac.benchmark.tracer.RenderMode;
 import defrac.benchmark.tracer.RenderScene;
 
 public final class Tracer extends BenchmarkBase {
@@ -15,17 +16,24 @@ public final class Tracer extends BenchmarkBase {
     new Tracer().report();
   }
 
+  private final RenderMode mode;
+
   public Tracer() {
-    super("Tracer");
+    this("Tracer", RenderMode.REFERENCE);
+  }
+
+  public Tracer(final String name, final RenderMode mode) {
+    super(name);
+    this.mode = mode;
   }
 
   @Override
   public void warmup() {
-    RenderScene.apply(null);
+    RenderScene.apply(null, mode);
   }
 
   @Override
   public void exercise() {
-    RenderScene.apply(null);
+    RenderScene.apply(null, mode);
   }
 }
@@ -0,0 +1,52 @@
+package defrac.benchmark;
+
+import defrac.benchmark.tracer.CachedRenderer;
+import defrac.benchmark.tracer.Canvas;
+import defrac.benchmark.tracer.RenderMode;
+import defrac.benchmark.tracer.SceneDescription;
+import defrac.benchmark.tracer.Workload;
+
+// Renders a VGA frame of the tracer through a shading cache large enough
+// for all of its pixels. A cold frame starts from an empty cache and pays
+// for tracing and caching every pixel; a warm one re-renders the unchanged
+// scene from the cache. That is not free: every pixel still costs a cache
+// lookup, an update of the recency list and a fill, about a tenth of the
+// time of a cold frame. Both must match an uncached render.
+public final class TracerCache extends BenchmarkBase {
+  private final boolean warm;
+  private Canvas canvas;
+  private CachedRenderer renderer;
+  private int expected;
+
+  public TracerCache(final String name, final boolean warm) {
+    super(name);
+    this.warm = warm;
+  }
+
+  @Override
+  public void setup() {
+    final SceneDescription description = Workload.VGA.describe();
+    canvas = new Canvas(description.getWidth(), description.getHeight());
+    renderer = new CachedRenderer(description, canvas.width * canvas.height);
+    expected = description.render(canvas, RenderMode.SCRATCH);
+    if (warm) {
+      renderer.render(canvas);
+    }
+  }
+
+  @Override
+  public void warmup() {
+    exercise();
+  }
+
+  @Override
+  public void exercise() {
+    if (!warm) {
+      renderer.clear();
+    }
+    final int checkNumber = renderer.render(canvas);
+    if (checkNumber != expected) {
+      throw new RuntimeException("Scene rendered incorrectly - expected <"+expected+">, but was <"+checkNumber+">");
+    }
+  }
+}
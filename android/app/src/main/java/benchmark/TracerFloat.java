@@ -0,0 +1,58 @@
+package defrac.benchmark;
+
+import defrac.benchmark.tracer.Canvas;
+import defrac.benchmark.tracer.ImageComparison;
+import defrac.benchmark.tracer.RenderMode;
+import defrac.benchmark.tracer.SceneDescription;
+import defrac.benchmark.tracer.Workload;
+
+// Renders one of the canned tracer workloads in single precision. The
+// first frame must be close to the double precision one, see
+// ImageComparison; every frame must come out the same as the first one.
+public final class TracerFloat extends BenchmarkBase {
+  // At most this share of the pixels may differ from the double precision
+  // image, by at most this overall error.
+  private static final double MAX_DIFFERING = 0.01;
+  private static final double MIN_PSNR = 40.0;
+
+  private final Workload workload;
+  private SceneDescription description;
+  private Canvas canvas;
+  private int expected;
+
+  public TracerFloat(final String name, final Workload workload) {
+    super(name);
+    this.workload = workload;
+  }
+
+  @Override
+  public void setup() {
+    description = workload.describe();
+    final Canvas reference = new Canvas(description.getWidth(), description.getHeight());
+    description.render(reference, RenderMode.SCRATCH);
+    canvas = new Canvas(description.getWidth(), description.getHeight());
+    expected = description.render(canvas, RenderMode.FLOAT);
+    final ImageComparison comparison = ImageComparison.compare(reference, canvas);
+    if (!comparison.isWithin(MAX_DIFFERING, MIN_PSNR)) {
+      throw new RuntimeException("Scene rendered inaccurately - " + comparison);
+    }
+  }
+
+  @Override
+  public void teardown() {
+    canvas = null;
+  }
+
+  @Override
+  public void warmup() {
+    exercise();
+  }
+
+  @Override
+  public void exercise() {
+    final int checkNumber = description.render(canvas, RenderMode.FLOAT);
+    if (checkNumber != expected) {
+      throw new RuntimeException("Scene rendered incorrectly - expected <"+expected+">, but was <"+checkNumber+">");
+    }
+  }
+}
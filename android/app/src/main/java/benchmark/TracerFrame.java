@@ -0,0 +1,42 @@
+package defrac.benchmark;
+
+import defrac.benchmark.tracer.Canvas;
+import defrac.benchmark.tracer.RenderMode;
+import defrac.benchmark.tracer.RenderScene;
+
+// Renders the tracer scene one ray per pixel into a full-size framebuffer,
+// so that writing pixels is part of the measured work, not just tracing
+// them. The canvas is either an int[] or a direct ByteBuffer, the latter
+// being what a Bitmap is filled from without conversion.
+public final class TracerFrame extends BenchmarkBase {
+  static final int WIDTH = 640;
+  static final int HEIGHT = 480;
+
+  private final boolean direct;
+  private Canvas canvas;
+  private int expected;
+
+  public TracerFrame(final String name, final boolean direct) {
+    super(name);
+    this.direct = direct;
+  }
+
+  @Override
+  public void setup() {
+    canvas = direct ? Canvas.allocateDirect(WIDTH, HEIGHT) : new Canvas(WIDTH, HEIGHT);
+    expected = RenderScene.render(new Canvas(WIDTH, HEIGHT), RenderMode.REFERENCE);
+  }
+
+  @Override
+  public void warmup() {
+    exercise();
+  }
+
+  @Override
+  public void exercise() {
+    final int checkNumber = RenderScene.render(canvas, RenderMode.SCRATCH);
+    if (checkNumber != expected) {
+      throw new RuntimeException("Scene rendered incorrectly - expected <"+expected+">, but was <"+checkNumber+">");
+    }
+  }
+}
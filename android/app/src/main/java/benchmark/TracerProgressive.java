@@ -0,0 +1,87 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import defrac.benchmark.tracer.Canvas;
+import defrac.benchmark.tracer.ProgressiveRenderer;
+import defrac.benchmark.tracer.RenderMode;
+import defrac.benchmark.tracer.SceneDescription;
+import defrac.benchmark.tracer.Workload;
+
+// Renders a VGA frame of the tracer progressively in slices of a 60 fps
+// frame budget, the way an interactive view would. Measures either the
+// time to the first complete preview or to the converged image, which
+// must equal a full render. The renderer's own preview and convergence
+// times of the measured renders are reported along with the result.
+public final class TracerProgressive extends BenchmarkBase {
+  static final long FRAME_BUDGET_NANOS = 16000000L;
+
+  private final boolean untilPreview;
+  private SceneDescription description;
+  private Canvas canvas;
+  private int expected;
+
+  // Sums over the renders of exercise() since setup().
+  private int renders;
+  private long firstPreviewNanos;
+  private long convergedNanos;
+  private long slices;
+
+  public TracerProgressive(final String name, final boolean untilPreview) {
+    super(name);
+    this.untilPreview = untilPreview;
+  }
+
+  @Override
+  public void setup() {
+    description = Workload.VGA.describe();
+    canvas = new Canvas(description.getWidth(), description.getHeight());
+    expected = description.render(canvas, RenderMode.SCRATCH);
+    renders = 0;
+    firstPreviewNanos = 0L;
+    convergedNanos = 0L;
+    slices = 0L;
+  }
+
+  @Override
+  public void warmup() {
+    render();
+  }
+
+  @Override
+  public void exercise() {
+    final ProgressiveRenderer renderer = render();
+    renders++;
+    firstPreviewNanos += renderer.getFirstPreviewNanos();
+    convergedNanos += renderer.getConvergedNanos();
+    slices += renderer.getSlices();
+  }
+
+  // The averages of the renders since setup(), or null if there were none.
+  @Nullable
+  ProgressiveTimes times() {
+    if (renders == 0) {
+      return null;
+    }
+    return new ProgressiveTimes(renders, firstPreviewNanos / renders,
+        untilPreview ? -1L : convergedNanos / renders, (double)slices / renders);
+  }
+
+  @NonNull
+  private ProgressiveRenderer render() {
+    final ProgressiveRenderer renderer = new ProgressiveRenderer(description, canvas, Stopwatch.defaultClock());
+    if (untilPreview) {
+      while(!renderer.hasPreview()) {
+        renderer.renderFor(FRAME_BUDGET_NANOS);
+      }
+      return renderer;
+    }
+    while(!renderer.renderFor(FRAME_BUDGET_NANOS)) {
+    }
+    final int checkNumber = renderer.getCheckNumber();
+    if (checkNumber != expected) {
+      throw new RuntimeException("Scene rendered incorrectly - expected <"+expected+">, but was <"+checkNumber+">");
+    }
+    return renderer;
+  }
+}
@@ -0,0 +1,42 @@
+package defrac.benchmark;
+
+import defrac.benchmark.tracer.SphereScene;
+
+// Renders a generated scene of many spheres, either testing every sphere
+// for every ray, traversing a bounding volume hierarchy or finding primary
+// hits for packets of rays. All must render the same image, which is
+// checked against a plain render.
+public final class TracerSpheres extends BenchmarkBase {
+  static final int SPHERES = 2000;
+  private static final long SEED = 42L;
+
+  private final boolean bvh;
+  private final boolean packets;
+  private SphereScene scene;
+  private int expected;
+
+  public TracerSpheres(final String name, final boolean bvh, final boolean packets) {
+    super(name);
+    this.bvh = bvh;
+    this.packets = packets;
+  }
+
+  @Override
+  public void setup() {
+    scene = new SphereScene(SPHERES, SEED, bvh, packets);
+    expected = bvh || packets ? new SphereScene(SPHERES, SEED, false).render() : scene.render();
+  }
+
+  @Override
+  public void warmup() {
+    exercise();
+  }
+
+  @Override
+  public void exercise() {
+    final int checkNumber = scene.render();
+    if (checkNumber != expected) {
+      throw new RuntimeException("Scene rendered incorrectly - expected <"+expected+">, but was <"+checkNumber+">");
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package defrac.benchmark;
+
+import defrac.benchmark.tracer.Canvas;
+import defrac.benchmark.tracer.RenderMode;
+import defrac.benchmark.tracer.SceneDescription;
+import defrac.benchmark.tracer.Workload;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Renders one of the canned tracer workloads into a framebuffer of its
+// size, optionally without compiling the scene first. Every frame must have
+// the checksum of the reference mode, see SceneDescription.referenceMode(),
+// but with FLOAT, which only matches approximately; its frames must all be
+// the same as the first one.
+public final class TracerWorkload extends BenchmarkBase {
+  // Checksums of the reference mode by workload. Each is rendered once per
+  // process, the large workloads take seconds in the original Engine.
+  // Compiling the scene does not change the image.
+  private static final Map<Workload, Integer> REFERENCE_CHECKSUMS = new EnumMap<Workload, Integer>(Workload.class);
+
+  private final Workload workload;
+  private final RenderMode mode;
+  private final boolean compile;
+  private SceneDescription description;
+  private Canvas canvas;
+  private int expected;
+
+  public TracerWorkload(final String name, final Workload workload, final RenderMode mode) {
+    this(name, workload, mode, true);
+  }
+
+  public TracerWorkload(final String name, final Workload workload, final RenderMode mode, final boolean compile) {
+    super(name);
+    this.workload = workload;
+    this.mode = mode;
+    this.compile = compile;
+  }
+
+  @Override
+  public void setup() {
+    description = workload.describe().compile(compile);
+    canvas = new Canvas(description.getWidth(), description.getHeight());
+    expected = (mode == RenderMode.FLOAT)
+        ? description.render(canvas, mode)
+        : referenceChecksum(workload, description, canvas);
+  }
+
+  private static synchronized int referenceChecksum(final Workload workload, final SceneDescription description,
+                                                    final Canvas canvas) {
+    Integer checksum = REFERENCE_CHECKSUMS.get(workload);
+    if (checksum == null) {
+      checksum = description.render(canvas, description.referenceMode());
+      REFERENCE_CHECKSUMS.put(workload, checksum);
+    }
+    return checksum;
+  }
+
+  @Override
+  public void teardown() {
+    // Large workloads keep tens of megabytes of pixels.
+    canvas = null;
+  }
+
+  @Override
+  public void warmup() {
+    exercise();
+  }
+
+  @Override
+  public void exercise() {
+    final int checkNumber = description.render(canvas, mode);
+    if (checkNumber != expected) {
+      throw new RuntimeException("Scene rendered incorrectly - expected <"+expected+">, but was <"+checkNumber+">");
+    }
+  }
+}
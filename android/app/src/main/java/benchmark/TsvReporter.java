@@ -0,0 +1,89 @@
+package defrac.benchmark;
+
+import android.support.annotation.NonNull;
+import java.io.PrintStream;
+
+// One tab separated row per benchmark, preceded by a header row.
+final class TsvReporter extends Reporter {
+  @NonNull
+  private final PrintStream out;
+
+  private boolean scoreHeader;
+  private boolean throughputHeader;
+
+  TsvReporter(@NonNull final PrintStream out) {
+    this.out = out;
+  }
+
+  @Override
+  public void report(@NonNull final Result result) {
+    if (!scoreHeader) {
+      out.println("benchmark\tbest runs/sec\tmean runs/sec\terror %\tmean us\t"+
+          "p50 us\tp90 us\tp99 us\tp99.9 us\tmax us\tbytes/op\tgc count\tgc ms\t"+
+          "iterations\twarmup ms\twarmup cv\twarmup state\tpreview ms\tconverged ms");
+      scoreHeader = true;
+    }
+    final double[] scores = result.scores();
+    final StringBuilder sb = new StringBuilder(result.name);
+    sb.append('\t').append(Statistics.computeBest(scores));
+    sb.append('\t').append(Statistics.computeMean(scores));
+    sb.append('\t').append(Statistics.computeErrorPercent(scores));
+    sb.append('\t').append(Statistics.computeMean(result.elapsedUs));
+    for(final double percentile : TextReporter.PERCENTILES) {
+      sb.append('\t');
+      if (result.latency != null) {
+        sb.append(result.latency.valueAtPercentile(percentile) / 1000.0);
+      }
+    }
+    sb.append('\t');
+    if (result.latency != null) {
+      sb.append(result.latency.max() / 1000.0);
+    }
+    sb.append('\t');
+    if (result.memory != null) {
+      sb.append(result.memory.bytesPerOperation()).append('\t');
+      sb.append(result.memory.gcCount).append('\t');
+      sb.append(result.memory.gcTimeMillis);
+    } else {
+      sb.append("\t");
+    }
+    sb.append('\t').append(result.elapsedUs.length);
+    sb.append('\t');
+    if (result.warmup != null) {
+      sb.append(result.warmup.elapsedMillis).append('\t');
+      sb.append(result.warmup.coefficientOfVariation).append('\t');
+      sb.append(TextReporter.state(result.warmup));
+    } else {
+      sb.append("\t");
+    }
+    sb.append('\t');
+    if (result.progressive != null) {
+      sb.append(result.progressive.firstPreviewNanos / 1.0e6).append('\t');
+      if (result.progressive.convergedNanos >= 0L) {
+        sb.append(result.progressive.convergedNanos / 1.0e6);
+      }
+    } else {
+      sb.append("\t");
+    }
+    out.println(sb);
+    out.flush();
+  }
+
+  @Override
+  public void reportThroughput(@NonNull final Throughput throughput) {
+    if (!throughputHeader) {
+      out.println("benchmark\tthreads\tsingle runs/sec\taggregate runs/sec\tefficiency\t"+
+          "slowest thread runs/sec\tfastest thread runs/sec\tcontended\timbalanced");
+      throughputHeader = true;
+    }
+    out.println(throughput.name+"\t"+throughput.threads()+
+        "\t"+throughput.singleRunsPerSec+
+        "\t"+throughput.aggregateRunsPerSec()+
+        "\t"+throughput.efficiency()+
+        "\t"+throughput.slowestThread()+
+        "\t"+throughput.fastestThread()+
+        "\t"+throughput.isContended()+
+        "\t"+throughput.isImbalanced());
+    out.flush();
+  }
+}
@@ -0,0 +1,26 @@
+package defrac.benchmark;
+
+// How an adaptive warmup ended.
+public final class Warmup {
+  public final long elapsedMillis;
+
+  // Number of warmup() calls.
+  public final int samples;
+
+  // Coefficient of variation of the last window of warmup() times.
+  public final double coefficientOfVariation;
+
+  public final boolean steady;
+
+  // The timings settled into two distinct modes rather than one.
+  public final boolean bimodal;
+
+  Warmup(final long elapsedMillis, final int samples, final double coefficientOfVariation,
+         final boolean steady, final boolean bimodal) {
+    this.elapsedMillis = elapsedMillis;
+    this.samples = samples;
+    this.coefficientOfVariation = coefficientOfVariation;
+    this.steady = steady;
+    this.bimodal = bimodal;
+  }
+}
@@ -34,8 +34,9 @@ public abstract class BinaryConstraint extends Constraint {
 
   int direction = NONE;
 
-  BinaryConstraint(@NonNull final Variable v1, @NonNull final Variable v2, @NonNull final Strength strength) {
-    super(strength);
+  BinaryConstraint(@NonNull final Planner planner, @NonNull final Variable v1, @NonNull final Variable v2,
+                   @NonNull final Strength strength) {
+    super(planner, strength);
     this.v1 = v1;
     this.v2 = v2;
   }
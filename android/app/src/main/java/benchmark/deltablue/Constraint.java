@@ -26,10 +26,16 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 public abstract class Constraint {
+  // The planner this constraint adds itself to. Each DeltaBlue instance
+  // has its own, so that independent instances can run concurrently.
+  @NonNull
+  final Planner planner;
+
   @NonNull
   public final Strength strength;
 
-  Constraint(@NonNull final Strength strength) {
+  Constraint(@NonNull final Planner planner, @NonNull final Strength strength) {
+    this.planner = planner;
     this.strength = strength;
   }
 
@@ -46,7 +52,7 @@ public abstract class Constraint {
 
   void addConstraint() {
     addToGraph();
-    Planner.INSTANCE.incrementalAdd(this);
+    planner.incrementalAdd(this);
   }
 
   @Nullable
@@ -70,7 +76,7 @@ public abstract class Constraint {
 
     out.determinedBy = this;
 
-    if (!Planner.INSTANCE.addPropagate(this, mark)) {
+    if (!planner.addPropagate(this, mark)) {
       System.out.println("Cycle encountered");
     }
 
@@ -80,7 +86,7 @@ public abstract class Constraint {
 
   public void destroyConstraint() {
     if(isSatisfied()) {
-      Planner.INSTANCE.incrementalRemove(this);
+      planner.incrementalRemove(this);
     }
 
     removeFromGraph();
@@ -25,8 +25,8 @@ package defrac.benchmark.deltablue;
 import android.support.annotation.NonNull;
 
 public final class EditConstraint extends UnaryConstraint {
-  public EditConstraint(final Variable variable, @NonNull final Strength strength) {
-    super(variable, strength);
+  public EditConstraint(@NonNull final Planner planner, final Variable variable, @NonNull final Strength strength) {
+    super(planner, variable, strength);
   }
 
   @Override
@@ -25,8 +25,9 @@ package defrac.benchmark.deltablue;
 import android.support.annotation.NonNull;
 
 public final class EqualityConstraint extends BinaryConstraint {
-  public EqualityConstraint(@NonNull Variable v1, @NonNull Variable v2, @NonNull Strength strength) {
-    super(v1, v2, strength);
+  public EqualityConstraint(@NonNull Planner planner, @NonNull Variable v1, @NonNull Variable v2,
+                            @NonNull Strength strength) {
+    super(planner, v1, v2, strength);
     addConstraint();
   }
 
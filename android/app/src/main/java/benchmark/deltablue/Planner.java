@@ -32,8 +32,6 @@ import java.util.LinkedList;
 // see https://github.com/dart-lang/ton80/blob/c1ac5e2180747b0a9c438748e96d1543831ebabf/lib/src/DeltaBlue/dart/DeltaBlue.dart
 @SuppressWarnings("ForLoopReplaceableByForEach")
 public final class Planner {
-  public static Planner INSTANCE;
-
   private int currentMark = 0;
 
   public void incrementalAdd(@NonNull final Constraint c) {
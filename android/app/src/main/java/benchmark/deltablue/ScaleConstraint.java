@@ -31,9 +31,10 @@ public final class ScaleConstraint extends BinaryConstraint {
   @NonNull
   private final Variable offset;
 
-  public ScaleConstraint(@NonNull final Variable src, @NonNull final Variable scale, @NonNull final Variable offset,
-                         @NonNull final Variable dest, @NonNull final Strength strength) {
-    super(src, dest, strength);
+  public ScaleConstraint(@NonNull final Planner planner, @NonNull final Variable src, @NonNull final Variable scale,
+                         @NonNull final Variable offset, @NonNull final Variable dest,
+                         @NonNull final Strength strength) {
+    super(planner, src, dest, strength);
     this.scale = scale;
     this.offset = offset;
     addConstraint();
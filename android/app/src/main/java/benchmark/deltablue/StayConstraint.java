@@ -25,8 +25,8 @@ package defrac.benchmark.deltablue;
 import android.support.annotation.NonNull;
 
 public final class StayConstraint extends UnaryConstraint {
-  public StayConstraint(final Variable variable, @NonNull final Strength strength) {
-    super(variable, strength);
+  public StayConstraint(@NonNull final Planner planner, final Variable variable, @NonNull final Strength strength) {
+    super(planner, variable, strength);
   }
 
   @Override
@@ -29,8 +29,8 @@ public abstract class UnaryConstraint  extends Constraint {
 
   private boolean satisfied;
 
-  UnaryConstraint(final Variable myOutput, @NonNull final Strength strength) {
-    super(strength);
+  UnaryConstraint(@NonNull final Planner planner, final Variable myOutput, @NonNull final Strength strength) {
+    super(planner, strength);
     this.myOutput = myOutput;
     addConstraint();
   }
@@ -31,8 +31,39 @@ package defrac.benchmark.fluidMotion;
 
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.annotation.RequiresApi;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public final class FluidField {
+  // How lin_solve() and lin_solve2() relax the grid.
+  public enum Solver {
+    // The original sweep in place, row by row, where every cell uses its
+    // just updated left and upper neighbours. Inherently serial.
+    GAUSS_SEIDEL,
+
+    // Checkerboard order: first all cells with an even i + j, which only
+    // read odd neighbours, then all odd ones; x of lin_solve2() is colored
+    // by column, see sweep(). Each half can be updated in any order, so in
+    // bands of rows on the pool given to setPool(), and the result does not
+    // depend on the bands. Converges to the same solution: for a diffusion
+    // system (a = 1, c = 5) both agree within 1e-3 of the largest value
+    // after 20 iterations and to rounding after 200. The pressure solve of
+    // project() (c = 4) converges far slower; after the benchmark's 20
+    // iterations the solvers differ by up to 10% of the largest pressure,
+    // and the simulation amplifies that, so validate() needs other sums.
+    // FluidFieldTest checks these tolerances.
+    RED_BLACK,
+  }
+
+  // On a pool, red-black sweeps split into two bands of rows per worker,
+  // so that a worker that falls behind can be helped, but no smaller
+  // than this. Half a sweep of the 128 x 128 benchmark field takes about
+  // 20 microseconds, so a band of 16 rows costs less than waking up the
+  // worker that takes it.
+  private static final int MIN_BAND_ROWS = 32;
+
+
   @Nullable
   private final Object canvas;
   private final int iterations;
@@ -48,14 +79,18 @@ public final class FluidField {
   private final int rowSize;
 //  private Procedure<Field> displayFunc;
   private ProcedureCallback displayFunc;
+  @NonNull
+  private Solver solver = Solver.GAUSS_SEIDEL;
+  @Nullable
+  private ForkJoinPool pool;
+  // Rows of a band of the pool's sweeps, or 0 to sweep on the calling
+  // thread.
+  private int bandRows;
 
   public interface ProcedureCallback {
     void apply(Field field);
   }
 
-  @Nullable
-  private static FluidField _lastCreated;
-
   private static boolean notApproxEquals(final double a, final double b) {
     return Math.abs(a - b) >= 0.000001;
   }
@@ -73,22 +108,20 @@ public final class FluidField {
     if (notApproxEquals(sumDens, expectedDens) ||
         notApproxEquals(sumU, expectedU) ||
         notApproxEquals(sumV, expectedV)) {
-      throw new RuntimeException("Incorrect result");
+      throw new RuntimeException("Incorrect result - expected <"+expectedDens+", "+expectedU+", "+expectedV+
+          ">, but was <"+sumDens+", "+sumU+", "+sumV+">");
     }
   }
 
-  // Allocates a new FluidField or return previously allocated field if the
-  // size is too large.
+  // Allocates a new FluidField, of 64 x 64 cells if the size is too large.
+  // The original returned the previously allocated field then; every
+  // caller now keeps its own field, so nothing is shared between threads.
   public static FluidField create(@Nullable final Object canvas, final int hRes, final int wRes, final int iterations) {
     final int res = wRes * hRes;
     if ((res > 0) && (res < 1000000)) {
-      _lastCreated = new FluidField(canvas, hRes, wRes, iterations);
-    } else if (_lastCreated == null) {
-      _lastCreated = new FluidField(canvas, 64, 64, iterations);
+      return new FluidField(canvas, hRes, wRes, iterations);
     }
-    assert((canvas == _lastCreated.canvas) &&
-        (iterations == _lastCreated.iterations));
-    return _lastCreated;
+    return new FluidField(canvas, 64, 64, iterations);
   }
 
   private FluidField(@Nullable Object canvas, final int hRes, final int wRes, final int iterations) {
@@ -101,6 +134,21 @@ public final class FluidField {
     reset();
   }
 
+  public void setSolver(@NonNull final Solver solver) {
+    this.solver = solver;
+  }
+
+  // Pool the RED_BLACK solver sweeps on, or null to sweep on the calling
+  // thread. A pool with a single worker, or a field too small for two
+  // bands, is not used either.
+  @RequiresApi(21)
+  public void setPool(@Nullable final ForkJoinPool pool) {
+    this.pool = pool;
+    final int workers = (pool == null) ? 1 : pool.getParallelism();
+    final int bands = Math.min(2 * workers, height / MIN_BAND_ROWS);
+    bandRows = (workers > 1 && bands > 1) ? (height + bands - 1) / bands : 0;
+  }
+
   void reset() {
     // All double[] elements are initialized to 0.0.
     dens = new double[size];
@@ -167,6 +215,13 @@ public final class FluidField {
         }
       }
       set_bnd(b, x);
+    } else if (solver == Solver.RED_BLACK) {
+      double invC = 1.0 / (double)c;
+      for (int k=0 ; k<iterations; k++) {
+        relax(x, x0, null, null, a, invC, 0);
+        relax(x, x0, null, null, a, invC, 1);
+        set_bnd(b, x);
+      }
     } else {
       double invC = 1.0 / (double)c;
       for (int k=0 ; k<iterations; k++) {
@@ -204,6 +259,14 @@ public final class FluidField {
       }
       set_bnd(1, x);
       set_bnd(2, y);
+    } else if (solver == Solver.RED_BLACK) {
+      double invC = 1.0/(double)c;
+      for (int k=0 ; k<iterations; k++) {
+        relax(x, x0, y, y0, a, invC, 0);
+        relax(x, x0, y, y0, a, invC, 1);
+        set_bnd(1, x);
+        set_bnd(2, y);
+      }
     } else {
       double invC = 1.0/(double)c;
       for (int k=0 ; k<iterations; k++) {
@@ -227,6 +290,89 @@ public final class FluidField {
     }
   }
 
+  // Updates the cells with (i + j) % 2 == parity of x, and of y unless it
+  // is null, from their neighbours of the other parity. With y, the cells
+  // of x with (i + 1) % 2 == parity instead, see sweep().
+  private void relax(@NonNull final double[] x, @NonNull final double[] x0,
+                     @Nullable final double[] y, @Nullable final double[] y0,
+                     final int a, final double invC, final int parity) {
+    if (pool != null && bandRows > 0) {
+      pool.invoke(new Sweep(x, x0, y, y0, a, invC, parity, 1, height + 1));
+    } else {
+      sweep(x, x0, y, y0, a, invC, parity, 1, height + 1);
+    }
+  }
+
+  // relax() for the rows from <= j < to.
+  private void sweep(@NonNull final double[] x, @NonNull final double[] x0,
+                     @Nullable final double[] y, @Nullable final double[] y0,
+                     final int a, final double invC, final int parity, final int from, final int to) {
+    for (int j = from; j < to; j++) {
+      // The first cell of the row with the parity.
+      final int first = j * rowSize + 1 + ((j + 1 + parity) & 1);
+      final int last = j * rowSize + width;
+      if (y == null) {
+        for (int pos = first; pos <= last; pos += 2)
+          x[pos] = (x0[pos] +
+              a*(x[pos - 1]+x[pos + 1]+x[pos - rowSize]+x[pos + rowSize])) * invC;
+      } else {
+        // The serial sweep of lin_solve2() reads x before advancing its
+        // indexes: the cell itself and the left, upper left and lower left
+        // neighbours, all but itself in the column to the left. So x is
+        // colored by column instead, odd columns first, and relaxes the
+        // same system as the serial sweep.
+        for (int pos = j * rowSize + 1 + parity; pos <= last; pos += 2)
+          x[pos] = (x0[pos] + a *
+              (x[pos - 1] + x[pos] + x[pos - 1 - rowSize] + x[pos - 1 + rowSize])) * invC;
+        for (int pos = first; pos <= last; pos += 2)
+          y[pos] = (y0[pos] + a *
+              (y[pos - 1] + y[pos + 1] + y[pos - rowSize] + y[pos + rowSize])) * invC;
+      }
+    }
+  }
+
+  // A band of rows of relax(), halved until at most bandRows are left.
+  // Cells of one parity never read each other, so bands need no locking.
+  @RequiresApi(21)
+  private final class Sweep extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    @NonNull
+    private final double[] x, x0;
+    @Nullable
+    private final double[] y, y0;
+    private final int a;
+    private final double invC;
+    private final int parity;
+    private final int from;
+    private final int to;
+
+    Sweep(@NonNull final double[] x, @NonNull final double[] x0,
+          @Nullable final double[] y, @Nullable final double[] y0,
+          final int a, final double invC, final int parity, final int from, final int to) {
+      this.x = x;
+      this.x0 = x0;
+      this.y = y;
+      this.y0 = y0;
+      this.a = a;
+      this.invC = invC;
+      this.parity = parity;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > bandRows) {
+        final int middle = (from + to) >>> 1;
+        invokeAll(new Sweep(x, x0, y, y0, a, invC, parity, from, middle),
+            new Sweep(x, x0, y, y0, a, invC, parity, middle, to));
+        return;
+      }
+      sweep(x, x0, y, y0, a, invC, parity, from, to);
+    }
+  }
+
   void diffuse2(@NonNull final double[] x, @NonNull final double[] x0, @NonNull final double[] y,
                 @NonNull final double[] y0) {
     int a = 0;
@@ -24,6 +24,26 @@ abstract class BaseShape {
 
   abstract IntersectionInfo intersect(Ray ray);
 
+  // Distance along the ray at which intersect() would report a hit, or NaN
+  // for a miss. Allocates nothing.
+  abstract double intersectDistance(@NonNull MutableVector origin, @NonNull MutableVector direction);
+
+  // Whether the shape blocks the ray at a distance of at least 0 and less
+  // than maxDistance. Computes no shading data.
+  boolean occludes(@NonNull MutableVector origin, @NonNull MutableVector direction, double maxDistance) {
+    final double distance = intersectDistance(origin, direction);
+    return distance >= 0 && distance < maxDistance;
+  }
+
+  // Writes the axis-aligned bounding box as min x, y, z, max x, y, z to
+  // bounds at offset and returns true, or returns false if the shape is
+  // unbounded.
+  abstract boolean getBounds(@NonNull double[] bounds, int offset);
+
+  // Fills in the position, normal and color of the hit at hit.distance
+  // along the ray, as intersect() would.
+  abstract void shade(@NonNull Hit hit, @NonNull MutableVector origin, @NonNull MutableVector direction);
+
   @Override
   public String toString() {
     return "BaseShape";
@@ -0,0 +1,476 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Bounding volume hierarchy over the bounded shapes of a scene, built with
+// the binned surface area heuristic and flattened into arrays in depth
+// first order: the left child of an interior node directly follows it.
+// Unbounded shapes such as planes are kept in a separate list and tested
+// one by one. The hierarchy is immutable once built and can be traversed
+// by several threads, each with its own stack.
+final class Bvh {
+  // Deepest hierarchy built.
+  private static final int MAX_DEPTH = 64;
+
+  // A traversal stack of this size never overflows.
+  static final int STACK_SIZE = MAX_DEPTH + 1;
+
+  // Leaves hold at most this many shapes, even if splitting is expensive.
+  private static final int MAX_LEAF_SIZE = 8;
+
+  private static final int BINS = 16;
+
+  // Relative costs of stepping into a node and of intersecting a shape.
+  private static final double TRAVERSAL_COST = 1.0;
+  private static final double INTERSECTION_COST = 2.0;
+
+  // Boxes are grown by this much so that rounding in the shapes' own
+  // intersection code never misses a hit on the surface of a box.
+  private static final double PADDING = 1e-6;
+
+  // Min x, y, z and max x, y, z of every node.
+  @NonNull
+  private final double[] nodeBounds;
+
+  // Leaves: index of their first shape. Interior nodes: index of the right
+  // child.
+  @NonNull
+  private final int[] nodeIndex;
+
+  // Leaves: number of shapes. Interior nodes: 0.
+  @NonNull
+  private final int[] nodeCount;
+
+  // Interior nodes: axis they are split along.
+  @NonNull
+  private final byte[] nodeAxis;
+
+  private int nodes;
+
+  // Bounded shapes in leaf order.
+  @NonNull
+  private final BaseShape[] bounded;
+
+  @NonNull
+  private final BaseShape[] unbounded;
+
+  // Indices of the bounded and unbounded shapes in the list the hierarchy
+  // was built of.
+  @NonNull
+  private final int[] boundedIndex;
+
+  @NonNull
+  private final int[] unboundedIndex;
+
+  // Scratch data of the build.
+  private double[] shapeBounds;
+  private double[] centroids;
+  private int[] order;
+
+  Bvh(@NonNull final List<BaseShape> shapes) {
+    final List<BaseShape> withBounds = new ArrayList<BaseShape>();
+    final List<BaseShape> withoutBounds = new ArrayList<BaseShape>();
+    final int[] withBoundsIndex = new int[shapes.size()];
+    final int[] withoutBoundsIndex = new int[shapes.size()];
+    final double[] box = new double[6];
+    final double[] allBounds = new double[6 * shapes.size()];
+    for(int i = 0; i < shapes.size(); i++) {
+      final BaseShape shape = shapes.get(i);
+      if (shape.getBounds(box, 0)) {
+        System.arraycopy(box, 0, allBounds, 6 * withBounds.size(), 6);
+        withBoundsIndex[withBounds.size()] = i;
+        withBounds.add(shape);
+      } else {
+        withoutBoundsIndex[withoutBounds.size()] = i;
+        withoutBounds.add(shape);
+      }
+    }
+
+    final int n = withBounds.size();
+    unbounded = withoutBounds.toArray(new BaseShape[withoutBounds.size()]);
+    unboundedIndex = Arrays.copyOf(withoutBoundsIndex, withoutBounds.size());
+    bounded = new BaseShape[n];
+    boundedIndex = new int[n];
+    nodeBounds = new double[6 * Math.max(2 * n - 1, 0)];
+    nodeIndex = new int[Math.max(2 * n - 1, 0)];
+    nodeCount = new int[nodeIndex.length];
+    nodeAxis = new byte[nodeIndex.length];
+
+    if (n > 0) {
+      shapeBounds = allBounds;
+      centroids = new double[3 * n];
+      order = new int[n];
+      for(int i = 0; i < n; i++) {
+        order[i] = i;
+        for(int axis = 0; axis < 3; axis++) {
+          centroids[3 * i + axis] = 0.5 * (allBounds[6 * i + axis] + allBounds[6 * i + 3 + axis]);
+        }
+      }
+      build(0, n, 1);
+      for(int i = 0; i < n; i++) {
+        bounded[i] = withBounds.get(order[i]);
+        boundedIndex[i] = withBoundsIndex[order[i]];
+      }
+      shapeBounds = null;
+      centroids = null;
+      order = null;
+    }
+  }
+
+  int nodeCount() {
+    return nodes;
+  }
+
+  // Returns the closest shape hit within hit.distance, which the caller
+  // initializes to the farthest distance of interest, and stores it, its
+  // index and its distance in hit. Shapes are accepted like in
+  // Engine.testIntersection().
+  @Nullable
+  BaseShape closest(@NonNull final MutableVector origin, @NonNull final MutableVector direction,
+                    @Nullable final BaseShape exclude, @NonNull final Hit hit, @NonNull final int[] stack) {
+    BaseShape best = null;
+    int bestIndex = -1;
+    double bestDistance = hit.distance;
+
+    for(int i = 0; i < unbounded.length; i++) {
+      final BaseShape shape = unbounded[i];
+      if (shape != exclude) {
+        final double distance = shape.intersectDistance(origin, direction);
+        if (distance >= 0 && distance < bestDistance) {
+          best = shape;
+          bestIndex = unboundedIndex[i];
+          bestDistance = distance;
+        }
+      }
+    }
+
+    if (nodes > 0) {
+      final double ox = origin.x, oy = origin.y, oz = origin.z;
+      final double ix = 1.0 / direction.x, iy = 1.0 / direction.y, iz = 1.0 / direction.z;
+      int top = 0;
+      stack[top++] = 0;
+
+      while(top > 0) {
+        final int node = stack[--top];
+        if (!intersectsBox(node, ox, oy, oz, ix, iy, iz, bestDistance)) {
+          continue;
+        }
+
+        final int count = nodeCount[node];
+        if (count > 0) {
+          final int first = nodeIndex[node];
+          for(int i = first; i < first + count; i++) {
+            final BaseShape shape = bounded[i];
+            if (shape != exclude) {
+              final double distance = shape.intersectDistance(origin, direction);
+              if (distance >= 0 && distance < bestDistance) {
+                best = shape;
+                bestIndex = boundedIndex[i];
+                bestDistance = distance;
+              }
+            }
+          }
+        } else {
+          // Visit the child on the side the ray comes from first.
+          final int axis = nodeAxis[node];
+          final double d = axis == 0 ? direction.x : axis == 1 ? direction.y : direction.z;
+          if (d < 0) {
+            stack[top++] = node + 1;
+            stack[top++] = nodeIndex[node];
+          } else {
+            stack[top++] = nodeIndex[node];
+            stack[top++] = node + 1;
+          }
+        }
+      }
+    }
+
+    hit.shape = best;
+    hit.index = bestIndex;
+    hit.distance = bestDistance;
+    return best;
+  }
+
+  // Returns any shape blocking the ray within maxDistance, or null. Stops
+  // at the first one found.
+  @Nullable
+  BaseShape any(@NonNull final MutableVector origin, @NonNull final MutableVector direction,
+                @Nullable final BaseShape exclude, final double maxDistance, @NonNull final int[] stack) {
+    for(final BaseShape shape : unbounded) {
+      if (shape != exclude && shape.occludes(origin, direction, maxDistance)) {
+        return shape;
+      }
+    }
+
+    if (nodes > 0) {
+      final double ox = origin.x, oy = origin.y, oz = origin.z;
+      final double ix = 1.0 / direction.x, iy = 1.0 / direction.y, iz = 1.0 / direction.z;
+      int top = 0;
+      stack[top++] = 0;
+
+      while(top > 0) {
+        final int node = stack[--top];
+        if (!intersectsBox(node, ox, oy, oz, ix, iy, iz, maxDistance)) {
+          continue;
+        }
+
+        final int count = nodeCount[node];
+        if (count > 0) {
+          final int first = nodeIndex[node];
+          for(int i = first; i < first + count; i++) {
+            final BaseShape shape = bounded[i];
+            if (shape != exclude && shape.occludes(origin, direction, maxDistance)) {
+              return shape;
+            }
+          }
+        } else {
+          stack[top++] = nodeIndex[node];
+          stack[top++] = node + 1;
+        }
+      }
+    }
+
+    return null;
+  }
+
+  // Slab test against [0, maxDistance). Comparisons are written so that NaN
+  // from 0 * infinity leaves the interval unchanged.
+  private boolean intersectsBox(final int node,
+                                final double ox, final double oy, final double oz,
+                                final double ix, final double iy, final double iz,
+                                final double maxDistance) {
+    final int b = 6 * node;
+    double near = 0.0;
+    double far = maxDistance;
+
+    double t0 = (nodeBounds[b] - ox) * ix;
+    double t1 = (nodeBounds[b + 3] - ox) * ix;
+    if (t0 > t1) { final double t = t0; t0 = t1; t1 = t; }
+    if (t0 > near) near = t0;
+    if (t1 < far) far = t1;
+
+    t0 = (nodeBounds[b + 1] - oy) * iy;
+    t1 = (nodeBounds[b + 4] - oy) * iy;
+    if (t0 > t1) { final double t = t0; t0 = t1; t1 = t; }
+    if (t0 > near) near = t0;
+    if (t1 < far) far = t1;
+
+    t0 = (nodeBounds[b + 2] - oz) * iz;
+    t1 = (nodeBounds[b + 5] - oz) * iz;
+    if (t0 > t1) { final double t = t0; t0 = t1; t1 = t; }
+    if (t0 > near) near = t0;
+    if (t1 < far) far = t1;
+
+    return near <= far;
+  }
+
+  // Builds the node for order[start, end) and returns its index.
+  private int build(final int start, final int end, final int depth) {
+    final int node = nodes++;
+    final int b = 6 * node;
+    for(int axis = 0; axis < 3; axis++) {
+      nodeBounds[b + axis] = Double.POSITIVE_INFINITY;
+      nodeBounds[b + 3 + axis] = Double.NEGATIVE_INFINITY;
+    }
+    final double[] centroidBounds = {
+        Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+        Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
+    };
+    for(int i = start; i < end; i++) {
+      grow(nodeBounds, b, shapeBounds, 6 * order[i]);
+      for(int axis = 0; axis < 3; axis++) {
+        final double c = centroids[3 * order[i] + axis];
+        centroidBounds[axis] = Math.min(centroidBounds[axis], c);
+        centroidBounds[3 + axis] = Math.max(centroidBounds[3 + axis], c);
+      }
+    }
+    for(int axis = 0; axis < 3; axis++) {
+      nodeBounds[b + axis] -= PADDING;
+      nodeBounds[b + 3 + axis] += PADDING;
+    }
+
+    final int count = end - start;
+    final int split = count > 1 && depth < MAX_DEPTH ? split(start, end, b, centroidBounds) : -1;
+    if (split < 0) {
+      nodeIndex[node] = start;
+      nodeCount[node] = count;
+      return node;
+    }
+
+    nodeAxis[node] = (byte)(split >>> 24);
+    final int middle = split & 0xffffff;
+    build(start, middle, depth + 1);
+    nodeIndex[node] = build(middle, end, depth + 1);
+    nodeCount[node] = 0;
+    return node;
+  }
+
+  // Partitions order[start, end) along the cheapest binned SAH split and
+  // returns the axis in the top byte and the first index of the right half
+  // in the lower ones, or -1 if a leaf is cheaper.
+  private int split(final int start, final int end, final int nodeOffset, @NonNull final double[] centroidBounds) {
+    final int count = end - start;
+    final double parentArea = area(nodeBounds, nodeOffset);
+    final int[] binCounts = new int[BINS];
+    final double[] binBounds = new double[6 * BINS];
+    final double[] rightArea = new double[BINS];
+    final double[] box = new double[6];
+
+    double bestCost = INTERSECTION_COST * count;
+    int bestAxis = -1;
+    int bestBin = -1;
+
+    for(int axis = 0; axis < 3; axis++) {
+      final double min = centroidBounds[axis];
+      final double extent = centroidBounds[3 + axis] - min;
+      if (!(extent > 0.0)) {
+        continue;
+      }
+
+      Arrays.fill(binCounts, 0);
+      for(int i = 0; i < BINS; i++) {
+        reset(binBounds, 6 * i);
+      }
+      for(int i = start; i < end; i++) {
+        final int bin = bin(centroids[3 * order[i] + axis], min, extent);
+        binCounts[bin]++;
+        grow(binBounds, 6 * bin, shapeBounds, 6 * order[i]);
+      }
+
+      // Sweep from the right for the areas right of every split...
+      reset(box, 0);
+      for(int i = BINS - 1; i > 0; i--) {
+        grow(box, 0, binBounds, 6 * i);
+        rightArea[i] = area(box, 0);
+      }
+      // ...and from the left for the total cost.
+      reset(box, 0);
+      int left = 0;
+      for(int i = 1; i < BINS; i++) {
+        grow(box, 0, binBounds, 6 * (i - 1));
+        left += binCounts[i - 1];
+        final int right = count - left;
+        if (left == 0 || right == 0) {
+          continue;
+        }
+        final double cost = TRAVERSAL_COST +
+            INTERSECTION_COST * (area(box, 0) * left + rightArea[i] * right) / parentArea;
+        if (cost < bestCost) {
+          bestCost = cost;
+          bestAxis = axis;
+          bestBin = i;
+        }
+      }
+    }
+
+    if (bestAxis < 0) {
+      if (count <= MAX_LEAF_SIZE) {
+        return -1;
+      }
+      // No split is worth it but the leaf would be too large: split the
+      // widest axis at the median.
+      bestAxis = widest(centroidBounds);
+      final double extent = centroidBounds[3 + bestAxis] - centroidBounds[bestAxis];
+      if (!(extent > 0.0)) {
+        return -1;
+      }
+      final int middle = (start + end) >>> 1;
+      select(start, end, middle, bestAxis);
+      return (bestAxis << 24) | middle;
+    }
+
+    final double min = centroidBounds[bestAxis];
+    final double extent = centroidBounds[3 + bestAxis] - min;
+    int i = start;
+    int j = end - 1;
+    while(i <= j) {
+      if (bin(centroids[3 * order[i] + bestAxis], min, extent) < bestBin) {
+        i++;
+      } else {
+        final int t = order[i];
+        order[i] = order[j];
+        order[j--] = t;
+      }
+    }
+    if (i == start || i == end) {
+      i = (start + end) >>> 1;
+    }
+    return (bestAxis << 24) | i;
+  }
+
+  // Reorders order[start, end) so that order[k] has the centroid it would
+  // have if sorted along axis, with no larger centroid before and no
+  // smaller one after it.
+  private void select(int start, int end, final int k, final int axis) {
+    while(end - start > 1) {
+      final double pivot = centroids[3 * order[(start + end) >>> 1] + axis];
+      int i = start;
+      int j = end - 1;
+      while(i <= j) {
+        while(centroids[3 * order[i] + axis] < pivot) i++;
+        while(centroids[3 * order[j] + axis] > pivot) j--;
+        if (i <= j) {
+          final int t = order[i];
+          order[i++] = order[j];
+          order[j--] = t;
+        }
+      }
+      if (k <= j) {
+        end = j + 1;
+      } else if (k >= i) {
+        start = i;
+      } else {
+        return;
+      }
+    }
+  }
+
+  private static int bin(final double centroid, final double min, final double extent) {
+    final int bin = (int)((centroid - min) / extent * BINS);
+    return bin < BINS ? bin : BINS - 1;
+  }
+
+  private static int widest(@NonNull final double[] bounds) {
+    final double x = bounds[3] - bounds[0];
+    final double y = bounds[4] - bounds[1];
+    final double z = bounds[5] - bounds[2];
+    return x >= y && x >= z ? 0 : y >= z ? 1 : 2;
+  }
+
+  private static void reset(@NonNull final double[] bounds, final int offset) {
+    for(int axis = 0; axis < 3; axis++) {
+      bounds[offset + axis] = Double.POSITIVE_INFINITY;
+      bounds[offset + 3 + axis] = Double.NEGATIVE_INFINITY;
+    }
+  }
+
+  private static void grow(@NonNull final double[] bounds, final int offset,
+                           @NonNull final double[] other, final int otherOffset) {
+    for(int axis = 0; axis < 3; axis++) {
+      bounds[offset + axis] = Math.min(bounds[offset + axis], other[otherOffset + axis]);
+      bounds[offset + 3 + axis] = Math.max(bounds[offset + 3 + axis], other[otherOffset + 3 + axis]);
+    }
+  }
+
+  private static double area(@NonNull final double[] bounds, final int offset) {
+    final double x = bounds[offset + 3] - bounds[offset];
+    final double y = bounds[offset + 4] - bounds[offset + 1];
+    final double z = bounds[offset + 5] - bounds[offset + 2];
+    if (!(x >= 0.0)) {
+      return 0.0;
+    }
+    return 2.0 * (x * y + y * z + z * x);
+  }
+}
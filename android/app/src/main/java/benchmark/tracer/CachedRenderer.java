@@ -0,0 +1,97 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import android.support.annotation.NonNull;
+
+// Renders a SceneDescription with ScratchEngine, remembering the color of
+// every traced pixel in a ShadingCache. Rendering the same version of the
+// scene again traces nothing, but still looks up and relinks the cache
+// entry of every pixel before filling it in; for the VGA workload that is
+// about a tenth of a cold render. Any change to the description invalidates
+// the cached pixels. An instance must only be used by one thread at a time.
+public final class CachedRenderer {
+  @NonNull
+  private final SceneDescription description;
+
+  @NonNull
+  private final ShadingCache cache;
+
+  @NonNull
+  private final MutableColor color = new MutableColor();
+
+  // The engine for the description's version engineVersion.
+  private ScratchEngine engine;
+  private int engineVersion;
+
+  // Capacity should be at least the number of traced pixels, the canvas
+  // size divided by the square of the pixel size; see ShadingCache.
+  public CachedRenderer(@NonNull final SceneDescription description, final int capacity) {
+    this.description = description;
+    this.cache = new ShadingCache(capacity);
+  }
+
+  // Renders onto a canvas of the description's size and returns the sum of
+  // the brightness of all pixels, the same as an uncached render.
+  public int render(@NonNull final Canvas canvas) {
+    description.checkCanvas(canvas);
+    final Scene scene = description.scene();
+    final int version = description.getVersion();
+    if (engine == null || engineVersion != version) {
+      engine = description.createEngine();
+      engine.prepare(scene);
+      engineVersion = version;
+    }
+
+    final int width = engine.getCanvasWidth();
+    final int height = engine.getCanvasHeight();
+    final int pixelWidth = engine.getPixelWidth();
+    final int pixelHeight = engine.getPixelHeight();
+    int checkNumber = 0;
+
+    for(int y = 0; y < height; y++){
+      for(int x = 0; x < width; x++){
+        final int pixel = y * width + x;
+        final int entry = cache.find(pixel, version);
+        final int argb;
+        if (entry >= 0) {
+          argb = cache.valueAt(entry);
+        } else {
+          engine.tracePixel(x, y, scene, color);
+          argb = color.toArgb();
+          cache.put(pixel, version, argb);
+        }
+        canvas.fillRect(x * pixelWidth, y * pixelHeight, pixelWidth, pixelHeight, argb);
+        checkNumber += Color.brightness(argb);
+      }
+    }
+    return checkNumber;
+  }
+
+  // Forgets every cached pixel and resets the hit, miss and eviction counts.
+  public void clear() {
+    cache.clear();
+  }
+
+  public int getCachedPixels() {
+    return cache.size();
+  }
+
+  public long getHits() {
+    return cache.getHits();
+  }
+
+  public long getMisses() {
+    return cache.getMisses();
+  }
+
+  public long getEvictions() {
+    return cache.getEvictions();
+  }
+}
@@ -16,9 +16,11 @@ final class Camera {
   @NonNull
   private final Vector lookAt;
   @NonNull
-  private final Vector up;
-  private final Vector equator;
-  private final Vector screen;
+  final Vector up;
+  @NonNull
+  final Vector equator;
+  @NonNull
+  final Vector screen;
 
   Camera(@NonNull final Vector position, @NonNull final Vector lookAt, @NonNull final Vector up) {
     this.position = position;
@@ -35,6 +37,42 @@ final class Camera {
     return new Ray(pos, dir.normalize());
   }
 
+  // Same as getRay() but writes the ray into the given vectors.
+  void getRay(double vx, double vy, @NonNull final MutableVector origin, @NonNull final MutableVector direction) {
+    origin.set(screen.x - (equator.x * vx - up.x * vy),
+        -(screen.y - (equator.y * vx - up.y * vy)),
+        screen.z - (equator.z * vx - up.z * vy));
+    direction.set(origin).sub(position).normalize();
+  }
+
+  // Writes equator * vx for the vx of every column of a canvas width pixels
+  // wide, three doubles per column, and up * vy for the vy of every row of
+  // a canvas height pixels high, for getRay(columns, x, rows, y, ...).
+  void fillTerms(@NonNull final double[] columns, final int width,
+                 @NonNull final double[] rows, final int height) {
+    for(int x = 0; x < width; x++) {
+      final double vx = (double)x / (double)width * 2.0 - 1.0;
+      columns[3 * x] = equator.x * vx;
+      columns[3 * x + 1] = equator.y * vx;
+      columns[3 * x + 2] = equator.z * vx;
+    }
+    for(int y = 0; y < height; y++) {
+      final double vy = (double)y / (double)height * 2.0 - 1.0;
+      rows[3 * y] = up.x * vy;
+      rows[3 * y + 1] = up.y * vy;
+      rows[3 * y + 2] = up.z * vy;
+    }
+  }
+
+  // Same as getRay() for the pixel x, y with the terms of fillTerms().
+  void getRay(@NonNull final double[] columns, final int x, @NonNull final double[] rows, final int y,
+              @NonNull final MutableVector origin, @NonNull final MutableVector direction) {
+    origin.set(screen.x - (columns[3 * x] - rows[3 * y]),
+        -(screen.y - (columns[3 * x + 1] - rows[3 * y + 1])),
+        screen.z - (columns[3 * x + 2] - rows[3 * y + 2]));
+    direction.set(origin).sub(position).normalize();
+  }
+
   @NonNull
   @Override
   public String toString() {
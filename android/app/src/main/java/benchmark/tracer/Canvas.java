@@ -8,14 +8,92 @@
 // Translated from Dart's ton80 benchmark suite to Java
 package defrac.benchmark.tracer;
 
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.nio.ByteBuffer;
+
+// Framebuffer the tracer draws into. Pixels are packed 0xAARRGGBB ints,
+// stored either in an int[] or, for handing the frame to native code
+// without copying, in a direct ByteBuffer as R, G, B, A bytes, the layout
+// Android's Bitmap.copyPixelsFromBuffer() expects for ARGB_8888.
+//
+// Renderers only write pixels of their own tiles, so disjoint regions can
+// be drawn from several threads at once.
 public final class Canvas {
-  public String fillStyle;
+  public final int width;
+  public final int height;
+
+  @Nullable
+  private final int[] pixels;
 
-  public void fillRect(int x, int y, int w, int h) {
+  @Nullable
+  private final ByteBuffer buffer;
+
+  public Canvas(final int width, final int height) {
+    this(width, height, new int[width * height], null);
+  }
+
+  private Canvas(final int width, final int height, @Nullable final int[] pixels, @Nullable final ByteBuffer buffer) {
+    this.width = width;
+    this.height = height;
+    this.pixels = pixels;
+    this.buffer = buffer;
+  }
+
+  // A canvas backed by a direct ByteBuffer of width * height * 4 bytes.
+  @NonNull
+  public static Canvas allocateDirect(final int width, final int height) {
+    return new Canvas(width, height, null, ByteBuffer.allocateDirect(width * height * 4));
+  }
+
+  // The pixels of a heap canvas, row by row, or null for a direct one.
+  @Nullable
+  public int[] pixels() {
+    return pixels;
+  }
+
+  // The pixels of a direct canvas, or null for a heap one.
+  @Nullable
+  public ByteBuffer buffer() {
+    return buffer;
+  }
+
+  public int getPixel(final int x, final int y) {
+    final int i = y * width + x;
+    if (pixels != null) {
+      return pixels[i];
+    }
+    final int rgba = buffer.getInt(4 * i);
+    return (rgba >>> 8) | (rgba << 24);
+  }
+
+  public void setPixel(final int x, final int y, final int argb) {
+    final int i = y * width + x;
+    if (pixels != null) {
+      pixels[i] = argb;
+    } else {
+      // Absolute puts leave the buffer's position alone.
+      buffer.putInt(4 * i, (argb << 8) | (argb >>> 24));
+    }
+  }
 
+  // Fills the rectangle, clipped to the canvas, with an 0xAARRGGBB color.
+  public void fillRect(int x, int y, int w, int h, final int argb) {
+    final int x1 = Math.min(x + w, width);
+    final int y1 = Math.min(y + h, height);
+    x = Math.max(x, 0);
+    y = Math.max(y, 0);
+    for(int row = y; row < y1; row++) {
+      for(int column = x; column < x1; column++) {
+        setPixel(column, row, argb);
+      }
+    }
   }
 
+  // Kept from the JavaScript original, where the canvas element hands out a
+  // separate drawing context.
+  @NonNull
   public Canvas getContext(String s) {
-    return null;
+    return this;
   }
 }
@@ -11,9 +11,9 @@ package defrac.benchmark.tracer;
 import android.support.annotation.NonNull;
 
 final class Color {
-  private final double red;
-  private final double green;
-  private final double blue;
+  final double red;
+  final double green;
+  final double blue;
 
   public Color(final double red, final double green, final double blue) {
     this.red = red;
@@ -57,15 +57,43 @@ final class Color {
   }
 
   int brightness() {
+    return brightness(red, green, blue);
+  }
+
+  static int brightness(final double red, final double green, final double blue) {
     int r = (int)(red * 255);
     int g = (int)(green * 255);
     int b = (int)(blue * 255);
     return (r * 77 + g * 150 + b * 29) >> 8;
   }
 
+  // The brightness of a pixel packed by toArgb(), the same as of the color
+  // it was packed from.
+  static int brightness(final int argb) {
+    return (((argb >> 16) & 0xff) * 77 + ((argb >> 8) & 0xff) * 150 + (argb & 0xff) * 29) >> 8;
+  }
+
+  int toArgb() {
+    return toArgb(red, green, blue);
+  }
+
+  // Packs the color as an opaque 0xAARRGGBB pixel, with the same rounding
+  // as toString().
+  static int toArgb(final double red, final double green, final double blue) {
+    int r = (int)(red * 255);
+    int g = (int)(green * 255);
+    int b = (int)(blue * 255);
+    return 0xff000000 | (r << 16) | (g << 8) | b;
+  }
+
   @Override
   @NonNull
   public String toString() {
+    return toString(red, green, blue);
+  }
+
+  @NonNull
+  static String toString(final double red, final double green, final double blue) {
     int r = (int)(red * 255);
     int g = (int)(green * 255);
     int b = (int)(blue * 255);
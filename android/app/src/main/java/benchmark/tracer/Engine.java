@@ -50,15 +50,14 @@ final class Engine {
     pxH = pixelHeight;
 
     if (canvas != null) {
-      canvas.fillStyle = color.toString();
-      canvas.fillRect(x * pxW, y * pxH, pxW, pxH);
-    } else {
-      checkNumber += color.brightness();
+      canvas.fillRect(x * pxW, y * pxH, pxW, pxH, color.toArgb());
     }
+    checkNumber += color.brightness();
   }
 
-  // 'canvas' can be null if raytracer runs as benchmark
-  void renderScene(Scene scene, Canvas canvas) {
+  // 'canvas' can be null if raytracer runs as benchmark. Returns the sum of
+  // the brightness of all pixels.
+  int renderScene(Scene scene, Canvas canvas) {
     checkNumber = 0;
     /* Get canvas */
     this.canvas = (canvas == null) ? null : canvas.getContext("2d");
@@ -79,6 +78,7 @@ final class Engine {
       // Used for benchmarking.
       throw new RuntimeException("Scene rendered incorrectly - expected <55545>, but was <"+checkNumber+">");
     }
+    return checkNumber;
   }
 
   Color getPixelColor(Ray ray, Scene scene){
@@ -90,6 +90,23 @@ final class Engine {
   }
 
   IntersectionInfo testIntersection(Ray ray, Scene scene, BaseShape exclude) {
+    if (scene.bvh != null) {
+      // Find the closest shape through the hierarchy and only compute the
+      // full intersection for it.
+      final MutableVector origin = new MutableVector().set(ray.position);
+      final MutableVector direction = new MutableVector().set(ray.direction);
+      final BaseShape shape = scene.testIntersection(origin, direction, exclude, 2000.0,
+          new Hit(), new int[Bvh.STACK_SIZE]);
+      if (shape != null) {
+        final IntersectionInfo info = shape.intersect(ray);
+        info.hitCount = 1;
+        return info;
+      }
+      final IntersectionInfo miss = new IntersectionInfo();
+      miss.distance = 2000.0;
+      return miss;
+    }
+
     int hits = 0;
     IntersectionInfo best = new IntersectionInfo();
     best.distance = 2000.0;
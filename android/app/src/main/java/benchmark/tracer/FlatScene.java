@@ -0,0 +1,87 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import android.support.annotation.NonNull;
+
+// Structure-of-arrays copy of the geometry of a Scene: one flat array per
+// field instead of one object per shape, so that intersection loops read
+// memory sequentially and need no virtual calls. The shapes themselves and
+// their indices in Scene.shapes are kept alongside for shading.
+final class FlatScene {
+  final int sphereCount;
+  @NonNull final double[] sphereX;
+  @NonNull final double[] sphereY;
+  @NonNull final double[] sphereZ;
+  // radius * radius
+  @NonNull final double[] sphereRadius2;
+  @NonNull final Sphere[] spheres;
+  @NonNull final int[] sphereIndex;
+
+  final int planeCount;
+  @NonNull final double[] planeX;
+  @NonNull final double[] planeY;
+  @NonNull final double[] planeZ;
+  @NonNull final double[] planeD;
+  @NonNull final Plane[] planes;
+  @NonNull final int[] planeIndex;
+
+  FlatScene(@NonNull final Scene scene) {
+    int sphereCount = 0;
+    int planeCount = 0;
+    for(final BaseShape shape : scene.shapes) {
+      if (shape instanceof Sphere) {
+        sphereCount++;
+      } else if (shape instanceof Plane) {
+        planeCount++;
+      } else {
+        throw new IllegalArgumentException("Unsupported shape: " + shape);
+      }
+    }
+
+    this.sphereCount = sphereCount;
+    sphereX = new double[sphereCount];
+    sphereY = new double[sphereCount];
+    sphereZ = new double[sphereCount];
+    sphereRadius2 = new double[sphereCount];
+    spheres = new Sphere[sphereCount];
+    sphereIndex = new int[sphereCount];
+
+    this.planeCount = planeCount;
+    planeX = new double[planeCount];
+    planeY = new double[planeCount];
+    planeZ = new double[planeCount];
+    planeD = new double[planeCount];
+    planes = new Plane[planeCount];
+    planeIndex = new int[planeCount];
+
+    int s = 0;
+    int p = 0;
+    for(int i = 0; i < scene.shapes.size(); i++) {
+      final BaseShape shape = scene.shapes.get(i);
+      if (shape instanceof Sphere) {
+        final Sphere sphere = (Sphere)shape;
+        sphereX[s] = sphere.position.x;
+        sphereY[s] = sphere.position.y;
+        sphereZ[s] = sphere.position.z;
+        sphereRadius2[s] = sphere.radius * sphere.radius;
+        sphereIndex[s] = i;
+        spheres[s++] = sphere;
+      } else {
+        final Plane plane = (Plane)shape;
+        planeX[p] = plane.position.x;
+        planeY[p] = plane.position.y;
+        planeZ[p] = plane.position.z;
+        planeD[p] = plane.d;
+        planeIndex[p] = i;
+        planes[p++] = plane;
+      }
+    }
+  }
+}
@@ -0,0 +1,362 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+// Renders like ScratchEngine, but in single precision throughout: the
+// scene is rounded to a FloatScene once, and rays, hits and colors are
+// floats kept in per-level register arrays. That halves the memory the
+// tracer touches and doubles the lanes a vectorizing compiler can use, at
+// the price of an image that differs slightly from the double precision
+// one, so checkNumber is not validated; compare the images with
+// ImageComparison instead.
+//
+// Every shape is tested, ignoring the scene's Bvh. Several samples per
+// pixel and area lights are not supported. An instance must only be used
+// by one thread at a time.
+final class FloatEngine {
+  // Hits at this distance or farther are ignored, as in Engine.
+  private static final float MAX_DISTANCE = 2000.0f;
+
+  @NonNull
+  private final FloatScene scene;
+
+  private final int canvasWidth;
+  private final int canvasHeight;
+  private final int pixelWidth;
+  private final int pixelHeight;
+  private final boolean renderDiffuse;
+  private final boolean renderShadows;
+  private final boolean renderHighlights;
+  private final boolean renderReflections;
+  private final int rayDepth;
+
+  // Registers of the camera ray, at 0, and its reflections, as in
+  // ScratchEngine's frames: the ray, the shape hit or -1, the hit and its
+  // color, whether the ray below is reflected, and the resulting color.
+  @NonNull private final float[] originX, originY, originZ;
+  @NonNull private final float[] directionX, directionY, directionZ;
+  @NonNull private final int[] shape;
+  @NonNull private final float[] positionX, positionY, positionZ;
+  @NonNull private final float[] normalX, normalY, normalZ;
+  @NonNull private final float[] hitRed, hitGreen, hitBlue;
+  @NonNull private final boolean[] reflects;
+  @NonNull private final float[] red, green, blue;
+
+  // Distance of the last hit found by closest().
+  private float distance;
+
+  FloatEngine(@NonNull final Scene scene,
+              final int canvasWidth, final int canvasHeight,
+              final int pixelWidth, final int pixelHeight,
+              final boolean renderDiffuse, final boolean renderShadows,
+              final boolean renderHighlights, final boolean renderReflections,
+              final int rayDepth) {
+    if (scene.hasAreaLights()) {
+      throw new IllegalArgumentException("Cannot render area lights");
+    }
+    this.scene = new FloatScene(scene);
+    this.canvasWidth = canvasWidth / pixelWidth;
+    this.canvasHeight = canvasHeight / pixelHeight;
+    this.pixelWidth = pixelWidth;
+    this.pixelHeight = pixelHeight;
+    this.renderDiffuse = renderDiffuse;
+    this.renderShadows = renderShadows;
+    this.renderHighlights = renderHighlights;
+    this.renderReflections = renderReflections;
+    this.rayDepth = rayDepth;
+
+    final int levels = rayDepth + 2;
+    originX = new float[levels];
+    originY = new float[levels];
+    originZ = new float[levels];
+    directionX = new float[levels];
+    directionY = new float[levels];
+    directionZ = new float[levels];
+    shape = new int[levels];
+    positionX = new float[levels];
+    positionY = new float[levels];
+    positionZ = new float[levels];
+    normalX = new float[levels];
+    normalY = new float[levels];
+    normalZ = new float[levels];
+    hitRed = new float[levels];
+    hitGreen = new float[levels];
+    hitBlue = new float[levels];
+    reflects = new boolean[levels];
+    red = new float[levels];
+    green = new float[levels];
+    blue = new float[levels];
+  }
+
+  // Renders onto canvas unless it is null and returns the sum of the
+  // brightness of all pixels, which is close to but need not be the one of
+  // the double precision engines.
+  int renderScene(@Nullable final Canvas canvas) {
+    int checkNumber = 0;
+    for(int y = 0; y < canvasHeight; y++){
+      final float yp = (float)y / (float)canvasHeight * 2.0f - 1.0f;
+      for(int x = 0; x < canvasWidth; x++){
+        final float xp = (float)x / (float)canvasWidth * 2.0f - 1.0f;
+        tracePixel(xp, yp);
+        if (canvas != null) {
+          canvas.fillRect(x * pixelWidth, y * pixelHeight, pixelWidth, pixelHeight,
+              Color.toArgb(red[0], green[0], blue[0]));
+        }
+        checkNumber += Color.brightness(red[0], green[0], blue[0]);
+      }
+    }
+    return checkNumber;
+  }
+
+  // Colors the camera ray through xp, yp into level 0.
+  private void tracePixel(final float xp, final float yp) {
+    final FloatScene s = scene;
+    final float ox = s.screenX - (s.equatorX * xp - s.upX * yp);
+    final float oy = -(s.screenY - (s.equatorY * xp - s.upY * yp));
+    final float oz = s.screenZ - (s.equatorZ * xp - s.upZ * yp);
+    float dx = ox - s.cameraX;
+    float dy = oy - s.cameraY;
+    float dz = oz - s.cameraZ;
+    final float m = (float)Math.sqrt(dx * dx + dy * dy + dz * dz);
+    originX[0] = ox;
+    originY[0] = oy;
+    originZ[0] = oz;
+    directionX[0] = dx / m;
+    directionY[0] = dy / m;
+    directionZ[0] = dz / m;
+
+    // Follow the reflections down, then light the levels from the deepest
+    // up, like ScratchEngine.rayTrace().
+    int top = 0;
+    while(true) {
+      final int exclude = (top == 0) ? -1 : shape[top - 1];
+      final int hit = closest(originX[top], originY[top], originZ[top],
+          directionX[top], directionY[top], directionZ[top], exclude);
+      if (hit < 0 || (top > 0 && distance <= 0.0f)) {
+        shape[top] = -1;
+        break;
+      }
+      shade(top, hit);
+      reflects[top] = renderReflections && s.reflection[hit] > 0.0f && top <= rayDepth && s.lightCount > 0;
+      if (!reflects[top]) {
+        break;
+      }
+      final float nx = normalX[top];
+      final float ny = normalY[top];
+      final float nz = normalZ[top];
+      final float vx = directionX[top];
+      final float vy = directionY[top];
+      final float vz = directionZ[top];
+      final float c1 = -(nx * vx + ny * vy + nz * vz);
+      originX[top + 1] = positionX[top];
+      originY[top + 1] = positionY[top];
+      originZ[top + 1] = positionZ[top];
+      directionX[top + 1] = nx * (2*c1) + vx;
+      directionY[top + 1] = ny * (2*c1) + vy;
+      directionZ[top + 1] = nz * (2*c1) + vz;
+      ++top;
+    }
+    for(int level = top; level >= 0; level--){
+      illuminate(level);
+    }
+  }
+
+  // The closest shape other than exclude that the ray hits at a distance of
+  // at least 0 and less than MAX_DISTANCE, or -1. Stores the distance.
+  private int closest(final float ox, final float oy, final float oz,
+                      final float dx, final float dy, final float dz, final int exclude) {
+    int best = -1;
+    float bestDistance = MAX_DISTANCE;
+    for(int i = 0; i < scene.shapeCount; i++){
+      if (i != exclude) {
+        final float d = intersect(i, ox, oy, oz, dx, dy, dz);
+        if (d >= 0.0f && d < bestDistance) {
+          best = i;
+          bestDistance = d;
+        }
+      }
+    }
+    distance = bestDistance;
+    return best;
+  }
+
+  // A shape other than exclude between the origin and MAX_DISTANCE, or -1.
+  // Any one if all shapes are equally transparent, else the closest, as in
+  // ScratchEngine.
+  private int occluder(final float ox, final float oy, final float oz,
+                       final float dx, final float dy, final float dz, final int exclude) {
+    if (!scene.uniformTransparency) {
+      return closest(ox, oy, oz, dx, dy, dz, exclude);
+    }
+    for(int i = 0; i < scene.shapeCount; i++){
+      if (i != exclude) {
+        final float d = intersect(i, ox, oy, oz, dx, dy, dz);
+        if (d >= 0.0f && d < MAX_DISTANCE) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  // Distance along the ray to shape i, or NaN, like the intersectDistance()
+  // of Sphere and Plane.
+  private float intersect(final int i, final float ox, final float oy, final float oz,
+                          final float dx, final float dy, final float dz) {
+    final FloatScene s = scene;
+    if (s.kind[i] == FloatScene.SPHERE) {
+      final float px = ox - s.x[i];
+      final float py = oy - s.y[i];
+      final float pz = oz - s.z[i];
+      final float B = px * dx + py * dy + pz * dz;
+      final float C = (px * px + py * py + pz * pz) - s.size[i];
+      final float D = (B * B) - C;
+      return D > 0.0f ? (-B) - (float)Math.sqrt(D) : Float.NaN;
+    }
+    final float Vd = dx * s.x[i] + dy * s.y[i] + dz * s.z[i];
+    if (Vd == 0.0f) return Float.NaN; // no intersection
+    final float t = -((ox * s.x[i] + oy * s.y[i] + oz * s.z[i]) + s.size[i]) / Vd;
+    return t <= 0.0f ? Float.NaN : t;
+  }
+
+  // Position, normal and color of the hit of level's ray with shape i at
+  // distance.
+  private void shade(final int level, final int i) {
+    final FloatScene s = scene;
+    final float px = originX[level] + directionX[level] * distance;
+    final float py = originY[level] + directionY[level] * distance;
+    final float pz = originZ[level] + directionZ[level] * distance;
+    shape[level] = i;
+    positionX[level] = px;
+    positionY[level] = py;
+    positionZ[level] = pz;
+
+    if (s.kind[i] == FloatScene.SPHERE) {
+      final float nx = px - s.x[i];
+      final float ny = py - s.y[i];
+      final float nz = pz - s.z[i];
+      final float m = (float)Math.sqrt(nx * nx + ny * ny + nz * nz);
+      normalX[level] = nx / m;
+      normalY[level] = ny / m;
+      normalZ[level] = nz / m;
+    } else {
+      normalX[level] = s.x[i];
+      normalY[level] = s.y[i];
+      normalZ[level] = s.z[i];
+    }
+
+    boolean even = true;
+    if (s.hasTexture[i]) {
+      final float u = px * s.uX[i] + py * s.uY[i] + pz * s.uZ[i];
+      final float v = px * s.vX[i] + py * s.vY[i] + pz * s.vZ[i];
+      even = wrapUp(u * s.density[i]) * wrapUp(v * s.density[i]) < 0.0f;
+    }
+    hitRed[level] = even ? s.evenRed[i] : s.oddRed[i];
+    hitGreen[level] = even ? s.evenGreen[i] : s.oddGreen[i];
+    hitBlue[level] = even ? s.evenBlue[i] : s.oddBlue[i];
+  }
+
+  private static float wrapUp(float t) {
+    t = t % 2.0f;
+    if (t < -1) t += 2.0f;
+    if (t >= 1) t -= 2.0f;
+    return t;
+  }
+
+  // Colors level's ray, blending in the color of the level below if it is
+  // reflected, like ScratchEngine.illuminate().
+  private void illuminate(final int level) {
+    final FloatScene s = scene;
+    final int i = shape[level];
+    if (i < 0) {
+      red[level] = s.backgroundRed;
+      green[level] = s.backgroundGreen;
+      blue[level] = s.backgroundBlue;
+      return;
+    }
+    final float px = positionX[level];
+    final float py = positionY[level];
+    final float pz = positionZ[level];
+    final float nx = normalX[level];
+    final float ny = normalY[level];
+    final float nz = normalZ[level];
+    final float cr = hitRed[level];
+    final float cg = hitGreen[level];
+    final float cb = hitBlue[level];
+    final float reflection = s.reflection[i];
+
+    // Calc ambient
+    float r = cr * s.ambience;
+    float g = cg * s.ambience;
+    float b = cb * s.ambience;
+
+    for(int l = 0; l < s.lightCount; l++){
+      // Calc diffuse lighting
+      float vx = s.lightX[l] - px;
+      float vy = s.lightY[l] - py;
+      float vz = s.lightZ[l] - pz;
+      final float m = (float)Math.sqrt(vx * vx + vy * vy + vz * vz);
+      vx /= m;
+      vy /= m;
+      vz /= m;
+
+      if (renderDiffuse) {
+        final float L = vx * nx + vy * ny + vz * nz;
+        if (L > 0.0f) {
+          r += cr * (s.lightRed[l] * L);
+          g += cg * (s.lightGreen[l] * L);
+          b += cb * (s.lightBlue[l] * L);
+        }
+      }
+
+      // Reflection, the color of the level below
+      if (reflects[level]) {
+        final float keep = 1.0f - reflection;
+        r = r * keep + red[level + 1] * reflection;
+        g = g * keep + green[level + 1] * reflection;
+        b = b * keep + blue[level + 1] * reflection;
+      }
+
+      boolean shadowed = false;
+
+      if (renderShadows) {
+        final int blocker = occluder(px, py, pz, vx, vy, vz, i);
+        if (blocker >= 0) {
+          shadowed = true;
+          r = r * 0.5f + s.shadow[blocker];
+          g = g * 0.5f + s.shadow[blocker];
+          b = b * 0.5f + s.shadow[blocker];
+        }
+      }
+      // Phong specular highlights
+      if (renderHighlights &&
+          !shadowed &&
+          (s.gloss[i] > 0.0f)) {
+        final int h = i * s.lightCount + l;
+        final float dot = nx * s.halfX[h] + ny * s.halfY[h] + nz * s.halfZ[h];
+        final float glossWeight = (float)Math.pow(Math.max(dot, 0.0f), s.shininess[i]);
+        r += s.lightRed[l] * glossWeight;
+        g += s.lightGreen[l] * glossWeight;
+        b += s.lightBlue[l] * glossWeight;
+      }
+    }
+    red[level] = (r > 0.0f) ? ((r > 1.0f) ? 1.0f : r) : 0.0f;
+    green[level] = (g > 0.0f) ? ((g > 1.0f) ? 1.0f : g) : 0.0f;
+    blue[level] = (b > 0.0f) ? ((b > 1.0f) ? 1.0f : b) : 0.0f;
+  }
+
+  @Override
+  @NonNull
+  public String toString() {
+    return "FloatEngine [canvasWidth: "+canvasWidth+", canvasHeight: "+canvasHeight+"]";
+  }
+}
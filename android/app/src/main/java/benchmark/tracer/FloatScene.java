@@ -0,0 +1,198 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import android.support.annotation.NonNull;
+
+// Single precision structure-of-arrays copy of a Scene for FloatEngine:
+// one float array per field of the shapes, their materials, the lights and
+// the camera, rounded once when the copy is made. Shapes keep their order,
+// so ties between equally distant hits go the same way as in Scene.
+final class FloatScene {
+  static final int SPHERE = 0;
+  static final int PLANE = 1;
+
+  final int shapeCount;
+  @NonNull final int[] kind;
+
+  // Center of a sphere or normal of a plane.
+  @NonNull final float[] x, y, z;
+
+  // radius * radius of a sphere, d of a plane.
+  @NonNull final float[] size;
+
+  // Texture axes of a plane with a chessboard material.
+  @NonNull final float[] uX, uY, uZ;
+  @NonNull final float[] vX, vY, vZ;
+
+  // Materials. Solid ones have the same even and odd color.
+  @NonNull final boolean[] hasTexture;
+  @NonNull final float[] evenRed, evenGreen, evenBlue;
+  @NonNull final float[] oddRed, oddGreen, oddBlue;
+  @NonNull final float[] density;
+  @NonNull final float[] reflection;
+  @NonNull final float[] gloss;
+  @NonNull final float[] shininess;
+
+  // What a blocker adds to the halved color in its shadow.
+  @NonNull final float[] shadow;
+
+  final int lightCount;
+  @NonNull final float[] lightX, lightY, lightZ;
+  @NonNull final float[] lightRed, lightGreen, lightBlue;
+
+  // Highlight half vector of shape i and light l at i * lightCount + l, see
+  // ShapeRecord.
+  @NonNull final float[] halfX, halfY, halfZ;
+
+  final float backgroundRed, backgroundGreen, backgroundBlue;
+  final float ambience;
+
+  // Camera position, screen center and axes.
+  final float cameraX, cameraY, cameraZ;
+  final float screenX, screenY, screenZ;
+  final float equatorX, equatorY, equatorZ;
+  final float upX, upY, upZ;
+
+  // Whether all shapes are equally transparent, see
+  // Scene.hasUniformTransparency().
+  final boolean uniformTransparency;
+
+  FloatScene(@NonNull final Scene scene) {
+    final int n = scene.shapes.size();
+    shapeCount = n;
+    kind = new int[n];
+    x = new float[n];
+    y = new float[n];
+    z = new float[n];
+    size = new float[n];
+    uX = new float[n];
+    uY = new float[n];
+    uZ = new float[n];
+    vX = new float[n];
+    vY = new float[n];
+    vZ = new float[n];
+    hasTexture = new boolean[n];
+    evenRed = new float[n];
+    evenGreen = new float[n];
+    evenBlue = new float[n];
+    oddRed = new float[n];
+    oddGreen = new float[n];
+    oddBlue = new float[n];
+    density = new float[n];
+    reflection = new float[n];
+    gloss = new float[n];
+    shininess = new float[n];
+    shadow = new float[n];
+
+    for(int i = 0; i < n; i++){
+      final BaseShape shape = scene.shapes.get(i);
+      x[i] = (float)shape.position.x;
+      y[i] = (float)shape.position.y;
+      z[i] = (float)shape.position.z;
+      if (shape instanceof Sphere) {
+        final Sphere sphere = (Sphere)shape;
+        kind[i] = SPHERE;
+        size[i] = (float)(sphere.radius * sphere.radius);
+      } else if (shape instanceof Plane) {
+        final Plane plane = (Plane)shape;
+        kind[i] = PLANE;
+        size[i] = (float)plane.d;
+        uX[i] = (float)plane.uX;
+        uY[i] = (float)plane.uY;
+        uZ[i] = (float)plane.uZ;
+        vX[i] = (float)plane.vX;
+        vY[i] = (float)plane.vY;
+        vZ[i] = (float)plane.vZ;
+      } else {
+        throw new IllegalArgumentException("Unsupported shape: " + shape);
+      }
+
+      final Materials material = shape.material;
+      if (material instanceof Materials.Chessboard) {
+        final Materials.Chessboard chessboard = (Materials.Chessboard)material;
+        setColors(i, chessboard.colorEven, chessboard.colorOdd);
+        density[i] = (float)chessboard.density;
+      } else {
+        final Color color = material.getColor(0, 0);
+        setColors(i, color, color);
+      }
+      hasTexture[i] = material.hasTexture;
+      reflection[i] = (float)material.reflection;
+      gloss[i] = (float)material.gloss;
+      shininess[i] = (float)Math.pow(10.0, material.gloss + 1.0);
+      shadow[i] = (float)(0.5 * Math.pow(material.transparency, 0.5));
+    }
+
+    lightCount = scene.lights.size();
+    lightX = new float[lightCount];
+    lightY = new float[lightCount];
+    lightZ = new float[lightCount];
+    lightRed = new float[lightCount];
+    lightGreen = new float[lightCount];
+    lightBlue = new float[lightCount];
+    for(int i = 0; i < lightCount; i++){
+      final Light light = scene.lights.get(i);
+      lightX[i] = (float)light.position.x;
+      lightY[i] = (float)light.position.y;
+      lightZ[i] = (float)light.position.z;
+      lightRed[i] = (float)light.color.red;
+      lightGreen[i] = (float)light.color.green;
+      lightBlue[i] = (float)light.color.blue;
+    }
+
+    halfX = new float[n * lightCount];
+    halfY = new float[n * lightCount];
+    halfZ = new float[n * lightCount];
+    final MutableVector Lv = new MutableVector();
+    final MutableVector E = new MutableVector();
+    for(int i = 0; i < n; i++){
+      final BaseShape shape = scene.shapes.get(i);
+      for(int l = 0; l < lightCount; l++){
+        Lv.set(shape.position).sub(scene.lights.get(l).position).normalize();
+        E.set(scene.camera.position).sub(shape.position).normalize();
+        final MutableVector H = E.sub(Lv).normalize();
+        halfX[i * lightCount + l] = (float)H.x;
+        halfY[i * lightCount + l] = (float)H.y;
+        halfZ[i * lightCount + l] = (float)H.z;
+      }
+    }
+
+    final Color background = scene.background.color;
+    backgroundRed = (float)background.red;
+    backgroundGreen = (float)background.green;
+    backgroundBlue = (float)background.blue;
+    ambience = (float)scene.background.ambience;
+
+    final Camera camera = scene.camera;
+    cameraX = (float)camera.position.x;
+    cameraY = (float)camera.position.y;
+    cameraZ = (float)camera.position.z;
+    screenX = (float)camera.screen.x;
+    screenY = (float)camera.screen.y;
+    screenZ = (float)camera.screen.z;
+    equatorX = (float)camera.equator.x;
+    equatorY = (float)camera.equator.y;
+    equatorZ = (float)camera.equator.z;
+    upX = (float)camera.up.x;
+    upY = (float)camera.up.y;
+    upZ = (float)camera.up.z;
+
+    uniformTransparency = scene.hasUniformTransparency();
+  }
+
+  private void setColors(final int i, @NonNull final Color even, @NonNull final Color odd) {
+    evenRed[i] = (float)even.red;
+    evenGreen[i] = (float)even.green;
+    evenBlue[i] = (float)even.blue;
+    oddRed[i] = (float)odd.red;
+    oddGreen[i] = (float)odd.green;
+    oddBlue[i] = (float)odd.blue;
+  }
+}
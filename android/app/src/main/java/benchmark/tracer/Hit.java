@@ -0,0 +1,31 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import android.support.annotation.NonNull;
+
+// The closest intersection of a ray, filled in place by ScratchEngine and
+// BaseShape.shade() instead of allocating an IntersectionInfo per shape.
+final class Hit {
+  BaseShape shape;
+  // Index of shape in Scene.shapes.
+  int index;
+  double distance;
+  @NonNull
+  final MutableVector position = new MutableVector();
+  @NonNull
+  final MutableVector normal = new MutableVector();
+  Color color;
+
+  @NonNull
+  @Override
+  public String toString() {
+    return "Hit ["+position+"]";
+  }
+}
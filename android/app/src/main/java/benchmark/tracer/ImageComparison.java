@@ -0,0 +1,86 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import android.support.annotation.NonNull;
+
+// How far an image is from a reference image of the same size, per color
+// channel of 0..255. For renderers that cannot match the reference exactly,
+// like FloatEngine, where checkNumber is no use: a single pixel rounding
+// the other way changes it. Few pixels should differ, but those may differ
+// a lot, e.g. where a chessboard square flips color at its edge, so the
+// tolerance is on the share of differing pixels and on the overall error.
+public final class ImageComparison {
+  public final int pixels;
+
+  // Pixels of which any channel differs.
+  public final int differingPixels;
+
+  // Largest difference of any channel of any pixel.
+  public final int maxDelta;
+
+  // Mean absolute difference over all channels of all pixels.
+  public final double meanDelta;
+
+  // Peak signal to noise ratio in dB, infinite for identical images.
+  public final double psnr;
+
+  private ImageComparison(final int pixels, final int differingPixels, final int maxDelta,
+                          final long sumDelta, final long sumSquares) {
+    this.pixels = pixels;
+    this.differingPixels = differingPixels;
+    this.maxDelta = maxDelta;
+    this.meanDelta = (double)sumDelta / (3.0 * pixels);
+    this.psnr = (sumSquares == 0L)
+        ? Double.POSITIVE_INFINITY
+        : 10.0 * Math.log10(255.0 * 255.0 / ((double)sumSquares / (3.0 * pixels)));
+  }
+
+  @NonNull
+  public static ImageComparison compare(@NonNull final Canvas reference, @NonNull final Canvas image) {
+    if (reference.width != image.width || reference.height != image.height) {
+      throw new IllegalArgumentException("Images differ in size: " + reference.width + "x" + reference.height +
+          " and " + image.width + "x" + image.height);
+    }
+    int differingPixels = 0;
+    int maxDelta = 0;
+    long sumDelta = 0L;
+    long sumSquares = 0L;
+    for(int y = 0; y < reference.height; y++){
+      for(int x = 0; x < reference.width; x++){
+        final int a = reference.getPixel(x, y);
+        final int b = image.getPixel(x, y);
+        if (a == b) {
+          continue;
+        }
+        ++differingPixels;
+        for(int shift = 0; shift < 24; shift += 8){
+          final int delta = Math.abs(((a >> shift) & 0xff) - ((b >> shift) & 0xff));
+          maxDelta = Math.max(maxDelta, delta);
+          sumDelta += delta;
+          sumSquares += delta * delta;
+        }
+      }
+    }
+    return new ImageComparison(reference.width * reference.height, differingPixels, maxDelta, sumDelta, sumSquares);
+  }
+
+  // Whether at most the fraction maxDiffering of the pixels differ and the
+  // PSNR is at least minPsnr.
+  public boolean isWithin(final double maxDiffering, final double minPsnr) {
+    return differingPixels <= maxDiffering * pixels && psnr >= minPsnr;
+  }
+
+  @Override
+  @NonNull
+  public String toString() {
+    return "ImageComparison [differing pixels: "+differingPixels+"/"+pixels+", max delta: "+maxDelta+
+        ", mean delta: "+meanDelta+", PSNR: "+psnr+" dB]";
+  }
+}
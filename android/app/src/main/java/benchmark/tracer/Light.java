@@ -19,14 +19,23 @@ final class Light {
 
   private final double intensity;
 
+  // Radius of a spherical area light, 0.0 for a point light. Shadow rays
+  // aim at random points of the sphere, which softens shadow edges.
+  final double radius;
+
   Light(@NonNull final Vector position, @NonNull final Color color) {
     this(position, color, 10.0);
   }
 
   Light(@NonNull final Vector position, @NonNull final Color color, final double intensity) {
+    this(position, color, intensity, 0.0);
+  }
+
+  Light(@NonNull final Vector position, @NonNull final Color color, final double intensity, final double radius) {
     this.position = position;
     this.color = color;
     this.intensity = intensity;
+    this.radius = radius;
   }
 
 }
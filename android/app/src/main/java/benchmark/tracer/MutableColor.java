@@ -0,0 +1,84 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import android.support.annotation.NonNull;
+
+// Color that is updated in place, see MutableVector.
+final class MutableColor {
+  double red, green, blue;
+
+  @NonNull
+  MutableColor set(final double red, final double green, final double blue) {
+    this.red = red;
+    this.green = green;
+    this.blue = blue;
+    return this;
+  }
+
+  @NonNull
+  MutableColor set(@NonNull final Color c) {
+    return set(c.red, c.green, c.blue);
+  }
+
+  @NonNull
+  MutableColor set(@NonNull final MutableColor c) {
+    return set(c.red, c.green, c.blue);
+  }
+
+  @NonNull
+  MutableColor limit() {
+    red = (red > 0.0) ? ((red > 1.0) ? 1.0 : red) : 0.0;
+    green = (green > 0.0) ? ((green > 1.0) ? 1.0 : green) : 0.0;
+    blue = (blue > 0.0) ? ((blue > 1.0) ? 1.0 : blue) : 0.0;
+    return this;
+  }
+
+  @NonNull
+  MutableColor addScalar(final double s) {
+    return set(red + s, green + s, blue + s);
+  }
+
+  // this += c * f, evaluated like c.multiplyScalar(f).add(this).
+  @NonNull
+  MutableColor addScaled(@NonNull final Color c, final double f) {
+    return set(red + c.red * f, green + c.green * f, blue + c.blue * f);
+  }
+
+  // this += a * (b * f), evaluated like a.multiply(b.multiplyScalar(f)).
+  @NonNull
+  MutableColor addProduct(@NonNull final Color a, @NonNull final Color b, final double f) {
+    return set(red + a.red * (b.red * f), green + a.green * (b.green * f), blue + a.blue * (b.blue * f));
+  }
+
+  @NonNull
+  MutableColor multiplyScalar(final double f) {
+    return set(red * f, green * f, blue * f);
+  }
+
+  @NonNull
+  MutableColor blend(final double r, final double g, final double b, final double w) {
+    final double keep = 1.0 - w;
+    return set(red * keep + r * w, green * keep + g * w, blue * keep + b * w);
+  }
+
+  int brightness() {
+    return Color.brightness(red, green, blue);
+  }
+
+  int toArgb() {
+    return Color.toArgb(red, green, blue);
+  }
+
+  @Override
+  @NonNull
+  public String toString() {
+    return Color.toString(red, green, blue);
+  }
+}
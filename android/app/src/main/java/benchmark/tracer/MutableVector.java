@@ -0,0 +1,77 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import android.support.annotation.NonNull;
+
+// Vector that is updated in place, so that ScratchEngine can keep a fixed
+// set of registers instead of allocating a Vector per operation. The
+// operations evaluate in the same order as the ones of Vector, which keeps
+// the results bit-identical.
+final class MutableVector {
+  double x, y, z;
+
+  @NonNull
+  MutableVector set(final double x, final double y, final double z) {
+    this.x = x;
+    this.y = y;
+    this.z = z;
+    return this;
+  }
+
+  @NonNull
+  MutableVector set(@NonNull final Vector v) {
+    return set(v.x, v.y, v.z);
+  }
+
+  @NonNull
+  MutableVector set(@NonNull final MutableVector v) {
+    return set(v.x, v.y, v.z);
+  }
+
+  @NonNull
+  MutableVector normalize() {
+    final double m = magnitude();
+    return set(x / m, y / m, z / m);
+  }
+
+  double magnitude() {
+    return Math.sqrt((x * x) + (y * y) + (z * z));
+  }
+
+  double dot(@NonNull final MutableVector w) {
+    return x * w.x + y * w.y + z * w.z;
+  }
+
+  double dot(@NonNull final Vector w) {
+    return x * w.x + y * w.y + z * w.z;
+  }
+
+  @NonNull
+  MutableVector sub(@NonNull final MutableVector w) {
+    return set(x - w.x, y - w.y, z - w.z);
+  }
+
+  @NonNull
+  MutableVector sub(@NonNull final Vector w) {
+    return set(x - w.x, y - w.y, z - w.z);
+  }
+
+  // this = p + d * t, the point at distance t along a ray.
+  @NonNull
+  MutableVector setPointAt(@NonNull final MutableVector p, @NonNull final MutableVector d, final double t) {
+    return set(p.x + d.x * t, p.y + d.y * t, p.z + d.z * t);
+  }
+
+  @NonNull
+  @Override
+  public String toString() {
+    return "MutableVector ["+x+", "+y+", "+z+"]";
+  }
+}
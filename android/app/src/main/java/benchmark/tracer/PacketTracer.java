@@ -0,0 +1,179 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+// Finds the primary hits of PACKET_SIZE neighbouring camera rays at once by
+// testing every shape of a FlatScene against all rays of the packet in a
+// tight loop over primitive arrays, which the JIT can unroll and vectorize.
+// The rays in a packet are coherent, so they agree on most branches.
+// Shading and the incoherent secondary rays go through ScratchEngine, so
+// the image is the same as with the other engines.
+final class PacketTracer {
+  static final int PACKET_SIZE = 8;
+
+  // Hits at this distance or farther are ignored, as in Engine.
+  private static final double MAX_DISTANCE = 2000.0;
+
+  @NonNull
+  private final Scene scene;
+
+  @NonNull
+  private final FlatScene flat;
+
+  @NonNull
+  private final ScratchEngine engine;
+
+  // The rays of the packet.
+  @NonNull private final double[] originX = new double[PACKET_SIZE];
+  @NonNull private final double[] originY = new double[PACKET_SIZE];
+  @NonNull private final double[] originZ = new double[PACKET_SIZE];
+  @NonNull private final double[] directionX = new double[PACKET_SIZE];
+  @NonNull private final double[] directionY = new double[PACKET_SIZE];
+  @NonNull private final double[] directionZ = new double[PACKET_SIZE];
+
+  // Closest hit of every ray so far: its distance and the shape, spheres
+  // first, then planes, or -1.
+  @NonNull private final double[] distance = new double[PACKET_SIZE];
+  @NonNull private final int[] shape = new int[PACKET_SIZE];
+
+  @NonNull private final MutableVector origin = new MutableVector();
+  @NonNull private final MutableVector direction = new MutableVector();
+  @NonNull private final MutableColor color = new MutableColor();
+
+  PacketTracer(@NonNull final Scene scene, @NonNull final ScratchEngine engine) {
+    this.scene = scene;
+    this.flat = new FlatScene(scene);
+    this.engine = engine;
+  }
+
+  // 'canvas' can be null if raytracer runs as benchmark. Returns the sum of
+  // the brightness of all pixels.
+  int renderScene(@Nullable final Canvas canvas) {
+    final int checkNumber = renderTile(canvas, 0, 0, engine.getCanvasWidth(), engine.getCanvasHeight());
+    if ((canvas == null) && (checkNumber != 55545)) {
+      // Used for benchmarking.
+      throw new RuntimeException("Scene rendered incorrectly - expected <55545>, but was <"+checkNumber+">");
+    }
+    return checkNumber;
+  }
+
+  // Renders the pixels x0 <= x < x1, y0 <= y < y1 in packets of horizontal
+  // neighbours, onto canvas unless it is null, and returns the sum of their
+  // brightness.
+  int renderTile(@Nullable final Canvas canvas, final int x0, final int y0, final int x1, final int y1) {
+    engine.prepare(scene);
+    final int canvasWidth = engine.getCanvasWidth();
+    final int canvasHeight = engine.getCanvasHeight();
+    final int pixelWidth = engine.getPixelWidth();
+    final int pixelHeight = engine.getPixelHeight();
+    int sum = 0;
+
+    for(int y = y0; y < y1; y++){
+      final double yp = (double)y / (double)canvasHeight * 2.0 - 1.0;
+      for(int x = x0; x < x1; x += PACKET_SIZE){
+        final int lanes = Math.min(PACKET_SIZE, x1 - x);
+        for(int i = 0; i < lanes; i++) {
+          final double xp = (double)(x + i) / (double)canvasWidth * 2.0 - 1.0;
+          scene.camera.getRay(xp, yp, origin, direction);
+          originX[i] = origin.x;
+          originY[i] = origin.y;
+          originZ[i] = origin.z;
+          directionX[i] = direction.x;
+          directionY[i] = direction.y;
+          directionZ[i] = direction.z;
+          distance[i] = MAX_DISTANCE;
+          shape[i] = -1;
+        }
+
+        intersectSpheres(lanes);
+        intersectPlanes(lanes);
+
+        for(int i = 0; i < lanes; i++) {
+          final int hit = shape[i];
+          if (hit < 0) {
+            color.set(scene.background.color);
+          } else {
+            origin.set(originX[i], originY[i], originZ[i]);
+            direction.set(directionX[i], directionY[i], directionZ[i]);
+            final BaseShape hitShape;
+            final int hitIndex;
+            if (hit < flat.sphereCount) {
+              hitShape = flat.spheres[hit];
+              hitIndex = flat.sphereIndex[hit];
+            } else {
+              hitShape = flat.planes[hit - flat.sphereCount];
+              hitIndex = flat.planeIndex[hit - flat.sphereCount];
+            }
+            engine.shadePrimary(scene, origin, direction, hitShape, hitIndex, distance[i], color);
+          }
+          if (canvas != null) {
+            canvas.fillRect((x + i) * pixelWidth, y * pixelHeight, pixelWidth, pixelHeight, color.toArgb());
+          }
+          sum += color.brightness();
+        }
+      }
+    }
+    return sum;
+  }
+
+  // Same arithmetic as Sphere.intersectDistance().
+  private void intersectSpheres(final int lanes) {
+    final double[] sphereX = flat.sphereX;
+    final double[] sphereY = flat.sphereY;
+    final double[] sphereZ = flat.sphereZ;
+    final double[] sphereRadius2 = flat.sphereRadius2;
+
+    for(int s = 0; s < flat.sphereCount; s++) {
+      final double cx = sphereX[s];
+      final double cy = sphereY[s];
+      final double cz = sphereZ[s];
+      final double r2 = sphereRadius2[s];
+
+      for(int i = 0; i < lanes; i++) {
+        final double dx = originX[i] - cx;
+        final double dy = originY[i] - cy;
+        final double dz = originZ[i] - cz;
+
+        final double B = dx * directionX[i] + dy * directionY[i] + dz * directionZ[i];
+        final double C = (dx * dx + dy * dy + dz * dz) - r2;
+        final double D = (B * B) - C;
+        // NaN if D < 0, which fails every comparison below.
+        final double t = (-B) - Math.sqrt(D);
+
+        final boolean closer = D > 0 && t >= 0 && t < distance[i];
+        distance[i] = closer ? t : distance[i];
+        shape[i] = closer ? s : shape[i];
+      }
+    }
+  }
+
+  // Same arithmetic as Plane.intersectDistance().
+  private void intersectPlanes(final int lanes) {
+    for(int p = 0; p < flat.planeCount; p++) {
+      final double nx = flat.planeX[p];
+      final double ny = flat.planeY[p];
+      final double nz = flat.planeZ[p];
+      final double d = flat.planeD[p];
+      final int index = flat.sphereCount + p;
+
+      for(int i = 0; i < lanes; i++) {
+        final double Vd = directionX[i] * nx + directionY[i] * ny + directionZ[i] * nz;
+        // Infinite or NaN if Vd == 0, which fails the comparisons below.
+        final double t = -((originX[i] * nx + originY[i] * ny + originZ[i] * nz) + d) / Vd;
+
+        final boolean closer = t > 0 && t < distance[i];
+        distance[i] = closer ? t : distance[i];
+        shape[i] = closer ? index : shape[i];
+      }
+    }
+  }
+}
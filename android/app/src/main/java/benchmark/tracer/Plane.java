@@ -11,11 +11,22 @@ package defrac.benchmark.tracer;
 import android.support.annotation.NonNull;
 
 public final class Plane extends BaseShape {
-  private final double d;
+  final double d;
+
+  // Texture axes vU = (position.y, position.z, -position.x) and
+  // vV = vU x position, the same for every hit.
+  final double uX, uY, uZ;
+  final double vX, vY, vZ;
 
   Plane(@NonNull final Vector pos, final double d, @NonNull final Materials material) {
     super(pos, material);
     this.d = d;
+    uX = pos.y;
+    uY = pos.z;
+    uZ = -pos.x;
+    vX = -uZ * pos.y + uY * pos.z;
+    vY = uZ * pos.x - uX * pos.z;
+    vZ = -uY * pos.x + uX * pos.y;
   }
 
   IntersectionInfo intersect(Ray ray) {
@@ -46,6 +57,36 @@ public final class Plane extends BaseShape {
     return info;
   }
 
+  @Override
+  double intersectDistance(@NonNull final MutableVector origin, @NonNull final MutableVector direction) {
+    double Vd = direction.dot(position);
+    if (Vd == 0) return Double.NaN; // no intersection
+
+    double t = -(origin.dot(position) + d) / Vd;
+    return t <= 0 ? Double.NaN : t;
+  }
+
+  @Override
+  boolean getBounds(@NonNull final double[] bounds, final int offset) {
+    return false;
+  }
+
+  @Override
+  void shade(@NonNull final Hit hit, @NonNull final MutableVector origin, @NonNull final MutableVector direction) {
+    hit.shape = this;
+    hit.position.setPointAt(origin, direction, hit.distance);
+    hit.normal.set(position);
+
+    if(material.hasTexture){
+      final MutableVector p = hit.position;
+      double u = p.x * uX + p.y * uY + p.z * uZ;
+      double v = p.x * vX + p.y * vY + p.z * vZ;
+      hit.color = material.getColor(u,v);
+    } else {
+      hit.color = material.getColor(0,0);
+    }
+  }
+
   @Override
   @NonNull
   public String toString() {
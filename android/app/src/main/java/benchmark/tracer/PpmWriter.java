@@ -0,0 +1,39 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import android.support.annotation.NonNull;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+// Writes a Canvas as a binary PPM (P6) image, which needs no image library
+// and is understood by most viewers and converters.
+public final class PpmWriter {
+  private PpmWriter() {}
+
+  public static void write(@NonNull final Canvas canvas, @NonNull final OutputStream out) throws IOException {
+    final BufferedOutputStream buffered = new BufferedOutputStream(out);
+    final String header = "P6\n" + canvas.width + " " + canvas.height + "\n255\n";
+    buffered.write(header.getBytes(Charset.forName("US-ASCII")));
+
+    final byte[] row = new byte[3 * canvas.width];
+    for(int y = 0; y < canvas.height; y++) {
+      for(int x = 0; x < canvas.width; x++) {
+        final int argb = canvas.getPixel(x, y);
+        row[3 * x] = (byte)(argb >> 16);
+        row[3 * x + 1] = (byte)(argb >> 8);
+        row[3 * x + 2] = (byte)argb;
+      }
+      buffered.write(row);
+    }
+    buffered.flush();
+  }
+}
@@ -0,0 +1,237 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import android.support.annotation.NonNull;
+import defrac.benchmark.Clock;
+import defrac.benchmark.Stopwatch;
+
+// Renders a scene in passes of increasing resolution, a time budget at a
+// time, so that an interactive caller gets a coarse preview early and
+// keeps its frame rate. The first pass traces every step-th pixel of every
+// step-th row and fills the blocks around them; each following pass halves
+// the step and traces only the pixels no earlier pass did. Rows of a pass
+// are visited in bit-reversed order, so an unfinished pass is spread over
+// the whole image instead of filling it from the top.
+//
+// Every pixel is traced exactly once, so the converged image and checksum
+// are the same as those of a full render. Budgets and times are measured
+// with the given clock, Stopwatch's default one unless specified. An
+// instance must only be used by one thread at a time.
+public final class ProgressiveRenderer {
+  // Distance of the pixels of the first pass, which is 1/256th of them.
+  public static final int DEFAULT_COARSEST_STEP = 16;
+
+  // The clock is read once per this many pixels.
+  private static final int CLOCK_INTERVAL = 8;
+
+  @NonNull
+  private final Scene scene;
+
+  @NonNull
+  private final ScratchEngine engine;
+
+  @NonNull
+  private final Canvas canvas;
+
+  @NonNull
+  private final MutableColor color = new MutableColor();
+
+  @NonNull
+  private final Clock clock;
+
+  private final int width;
+  private final int height;
+  private final int pixelWidth;
+  private final int pixelHeight;
+  private final int coarsestStep;
+
+  // Distance of the pixels of the current pass, 0 once converged.
+  private int step;
+
+  // The current pass has rows rows, of which the row-th in bit-reversed
+  // order over the next power of two, 1 << bits, is rendered next.
+  private int rows;
+  private int bits;
+  private int row;
+
+  // Next pixel of the current row and the distance to the one after it,
+  // x < 0 until the row is started.
+  private int x;
+  private int stride;
+
+  private int checkNumber;
+  private long traced;
+  private long renderNanos;
+  private long firstPreviewNanos;
+  private long convergedNanos;
+  private int slices;
+
+  // When the current renderFor() call started.
+  private long sliceStart;
+
+  public ProgressiveRenderer(@NonNull final SceneDescription description, @NonNull final Canvas canvas) {
+    this(description, canvas, DEFAULT_COARSEST_STEP, Stopwatch.defaultClock());
+  }
+
+  public ProgressiveRenderer(@NonNull final SceneDescription description, @NonNull final Canvas canvas,
+                             @NonNull final Clock clock) {
+    this(description, canvas, DEFAULT_COARSEST_STEP, clock);
+  }
+
+  // The coarsest step must be a power of two.
+  public ProgressiveRenderer(@NonNull final SceneDescription description, @NonNull final Canvas canvas,
+                             final int coarsestStep, @NonNull final Clock clock) {
+    if (coarsestStep <= 0 || Integer.bitCount(coarsestStep) != 1) {
+      throw new IllegalArgumentException("Coarsest step must be a power of two: " + coarsestStep);
+    }
+    description.checkCanvas(canvas);
+    this.scene = description.scene();
+    this.engine = description.createEngine();
+    this.canvas = canvas;
+    this.width = engine.getCanvasWidth();
+    this.height = engine.getCanvasHeight();
+    this.pixelWidth = engine.getPixelWidth();
+    this.pixelHeight = engine.getPixelHeight();
+    this.coarsestStep = coarsestStep;
+    this.clock = clock;
+    engine.prepare(scene);
+    reset();
+  }
+
+  // Starts over from the first pass, e.g. after the canvas was cleared.
+  public void reset() {
+    checkNumber = 0;
+    traced = 0L;
+    renderNanos = 0L;
+    firstPreviewNanos = -1L;
+    convergedNanos = -1L;
+    slices = 0;
+    step = 0;
+    startPass(coarsestStep);
+  }
+
+  // Renders for about budgetNanos, at least one pixel, and returns whether
+  // the image has converged. Returns early once the first pass is complete,
+  // so that the preview can be shown right away.
+  public boolean renderFor(final long budgetNanos) {
+    if (step == 0) {
+      return true;
+    }
+    sliceStart = clock.nanoTime();
+    final boolean hadPreview = hasPreview();
+    int sinceClock = 0;
+    while(next() && (hadPreview || !hasPreview())) {
+      final int y = reverse(row) * step;
+      engine.tracePixel(x, y, scene, color);
+      canvas.fillRect(x * pixelWidth, y * pixelHeight, step * pixelWidth, step * pixelHeight, color.toArgb());
+      checkNumber += color.brightness();
+      ++traced;
+      x += stride;
+
+      if (++sinceClock == CLOCK_INTERVAL) {
+        sinceClock = 0;
+        if (clock.nanoTime() - sliceStart >= budgetNanos) {
+          break;
+        }
+      }
+    }
+    // Finishes the last pass if the loop stopped right before noticing.
+    next();
+    renderNanos += clock.nanoTime() - sliceStart;
+    ++slices;
+    return step == 0;
+  }
+
+  public boolean isConverged() {
+    return step == 0;
+  }
+
+  // Whether the first pass is complete, so the whole canvas has been drawn.
+  public boolean hasPreview() {
+    return firstPreviewNanos >= 0L;
+  }
+
+  // Fraction of the pixels traced so far.
+  public double getProgress() {
+    return (double)traced / ((double)width * (double)height);
+  }
+
+  // The sum of the brightness of the pixels traced so far.
+  public int getCheckNumber() {
+    return checkNumber;
+  }
+
+  // Time spent in renderFor() since the last reset.
+  public long getRenderNanos() {
+    return renderNanos;
+  }
+
+  // Render time until the first pass was complete, or -1 if it is not yet.
+  public long getFirstPreviewNanos() {
+    return firstPreviewNanos;
+  }
+
+  // Render time until the image converged, or -1 if it has not yet.
+  public long getConvergedNanos() {
+    return convergedNanos;
+  }
+
+  // Number of renderFor() calls that did work since the last reset.
+  public int getSlices() {
+    return slices;
+  }
+
+  // Moves to the next pixel to trace, finishing rows and passes on the way.
+  // Returns false once every pixel has been traced.
+  private boolean next() {
+    while(step > 0) {
+      if (row == (1 << bits)) {
+        startPass(step / 2);
+        continue;
+      }
+      final int r = reverse(row);
+      if (r < rows) {
+        if (x < 0) {
+          // Even rows of a refining pass were rows of the previous pass,
+          // which traced every other of their pixels already.
+          final boolean refining = (step < coarsestStep) && ((r & 1) == 0);
+          x = refining ? step : 0;
+          stride = refining ? 2 * step : step;
+        }
+        if (x < width) {
+          return true;
+        }
+      }
+      ++row;
+      x = -1;
+    }
+    return false;
+  }
+
+  private void startPass(final int step) {
+    if (this.step == coarsestStep && firstPreviewNanos < 0L) {
+      firstPreviewNanos = renderNanos + (clock.nanoTime() - sliceStart);
+    }
+    this.step = step;
+    if (step == 0) {
+      convergedNanos = renderNanos + (clock.nanoTime() - sliceStart);
+      return;
+    }
+    rows = (height + step - 1) / step;
+    bits = 32 - Integer.numberOfLeadingZeros(rows - 1);
+    row = 0;
+    x = -1;
+  }
+
+  // The index'th row of the pass in bit-reversed order.
+  private int reverse(final int index) {
+    return (bits == 0) ? 0 : Integer.reverse(index) >>> (32 - bits);
+  }
+}
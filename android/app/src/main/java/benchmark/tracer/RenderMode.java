@@ -0,0 +1,60 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import defrac.benchmark.ApiLevel;
+
+// Selects the engine RenderScene renders with. All modes but FLOAT produce
+// the same image and therefore pass the same checkNumber validation.
+public enum RenderMode {
+  // The original Engine, allocating vectors and colors for every operation.
+  REFERENCE,
+
+  // ScratchEngine, which allocates nothing per pixel.
+  SCRATCH,
+
+  // TiledRenderer, rendering tiles with ScratchEngine on a ForkJoinPool.
+  // Needs API level 21 on Android.
+  TILED(21),
+
+  // PacketTracer, finding primary hits for packets of camera rays in a
+  // structure-of-arrays copy of the scene.
+  PACKET,
+
+  // WavefrontRenderer, tracing the rays of a wave of pixels stage by stage
+  // on a ForkJoinPool. Needs API level 21 on Android.
+  WAVEFRONT(21),
+
+  // FloatEngine, rendering in single precision. The image is close to the
+  // others but not the same, see ImageComparison, and checkNumber is not
+  // validated.
+  FLOAT;
+
+  // Lowest Android API level that has what the mode renders with.
+  private final int apiLevel;
+
+  RenderMode() {
+    this(1);
+  }
+
+  RenderMode(final int apiLevel) {
+    this.apiLevel = apiLevel;
+  }
+
+  // Whether this VM can render in this mode.
+  public boolean isSupported() {
+    return ApiLevel.isAtLeast(apiLevel);
+  }
+
+  // Whether the mode shades with ScratchEngine, which uses the records of
+  // a compiled scene. Engine and FloatEngine ignore them.
+  boolean usesRecords() {
+    return this != REFERENCE && this != FLOAT;
+  }
+}
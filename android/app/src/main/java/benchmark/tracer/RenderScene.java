@@ -10,7 +10,7 @@ package defrac.benchmark.tracer;
 
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import java.util.Random;
+import defrac.benchmark.ApiLevel;
 
 public final class RenderScene {
   @NonNull private static final Vector POSITION = new Vector(0.0, 0.0, -15.0);
@@ -21,7 +21,6 @@ public final class RenderScene {
   @NonNull private static final Vector SPHERE_POS = new Vector(-1.5, 1.5, 2.0);
   @NonNull private static final Color SPHERE_COLOR = new Color(0.0, 0.5, 0.5);
   @NonNull private static final Materials.Solid SPHERE_MATERIAL = new Materials.Solid(SPHERE_COLOR, 0.3, 0.0, 0.0, 2.0);
-  @NonNull private static final Sphere SPHERE = new Sphere(SPHERE_POS, 1.5, SPHERE_MATERIAL);
   @NonNull private static final Color COLOR_WHITE = new Color(1.0, 1.0, 1.0);
   @NonNull private static final Color COLOR_BLACK = new Color(0.0, 0.0, 0.0);
   @NonNull private static final Materials.Chessboard PLANE_MATERIAL = new Materials.Chessboard(
@@ -33,11 +32,46 @@ public final class RenderScene {
   @NonNull private static final Light LIGHT1 = new Light(LIGHT1_POS, LIGHT_COLOR, 100.0);
 
   public static void apply(@Nullable final Object event) {
+    apply(event, RenderMode.REFERENCE);
+  }
+
+  // Renders the benchmark scene and checks the result if event is null.
+  // Otherwise it must be a SceneDescription or a Workload, which is
+  // rendered onto a canvas of its size.
+  public static void apply(@Nullable final Object event, @NonNull final RenderMode mode) {
+    if (event == null) {
+      render(createScene(mode), null, mode, 100, 100, 5, 2, true, true, true, true, 1, 0L);
+      return;
+    }
+
+    final SceneDescription description;
+    if (event instanceof SceneDescription) {
+      description = (SceneDescription)event;
+    } else if (event instanceof Workload) {
+      description = ((Workload)event).describe();
+    } else {
+      throw new IllegalArgumentException("Cannot render " + event);
+    }
+    description.render(new Canvas(description.getWidth(), description.getHeight()), mode);
+  }
+
+  // Renders the scene at the size of the canvas, one ray per pixel with
+  // every feature enabled, and returns the sum of the brightness of all
+  // pixels.
+  public static int render(@NonNull final Canvas canvas, @NonNull final RenderMode mode) {
+    return render(createScene(mode), canvas, mode, canvas.width, canvas.height, 1, 2,
+        true, true, true, true, 1, 0L);
+  }
+
+  // Compiled only for the modes that use the records.
+  @NonNull
+  static Scene createScene(@NonNull final RenderMode mode) {
     final Scene scene = new Scene();
     scene.camera = new Camera(POSITION, LOOK_AT, UP);
     scene.background = BACKGROUND;
 
-    Sphere sphere = SPHERE;
+    // Not shared between scenes, each compiles its own record for it.
+    Sphere sphere = new Sphere(SPHERE_POS, 1.5, SPHERE_MATERIAL);
     Sphere sphere1 = new Sphere(
         new Vector(1.0, 0.25, 1.0),
         0.5,
@@ -66,37 +100,78 @@ public final class RenderScene {
     scene.lights.add(light);
     scene.lights.add(light1);
 
-    int imageWidth, imageHeight, pixelSize;
-    boolean renderDiffuse, renderShadows, renderHighlights, renderReflections;
-    Canvas canvas;
-    if (event == null) {
-      imageWidth = 100;
-      imageHeight = 100;
-      pixelSize = 5;
-      renderDiffuse = true;
-      renderShadows = true;
-      renderHighlights = true;
-      renderReflections = true;
-      canvas = null;
-    } else {
-      // not supported
-      canvas = new Canvas();
-      final Random r = new Random();
-      imageWidth = r.nextInt();
-      imageHeight = r.nextInt();
-      pixelSize = r.nextInt();
-      renderDiffuse = r.nextBoolean();
-      renderShadows = r.nextBoolean();
-      renderHighlights = r.nextBoolean();
-      renderReflections = r.nextBoolean();
+    if (mode.usesRecords()) {
+      scene.compile();
+    }
+    return scene;
+  }
+
+  // Returns the sum of the brightness of all pixels. Without a canvas the
+  // engines but FloatEngine check it against the one of the benchmark
+  // scene. Several samples per pixel and area lights need ScratchEngine, so
+  // the SCRATCH or TILED mode. Modes the VM does not support are rejected
+  // before any of their classes is loaded.
+  static int render(@NonNull final Scene scene, @Nullable final Canvas canvas,
+                    @NonNull final RenderMode mode,
+                    final int imageWidth, final int imageHeight, final int pixelSize, final int rayDepth,
+                    final boolean renderDiffuse, final boolean renderShadows,
+                    final boolean renderHighlights, final boolean renderReflections,
+                    final int samples, final long seed) {
+    if (!mode.isSupported()) {
+      throw new IllegalArgumentException("Cannot render in " + mode + " mode on API level " + ApiLevel.current());
+    }
+    if ((samples > 1 || scene.hasAreaLights()) && mode != RenderMode.SCRATCH && mode != RenderMode.TILED) {
+      throw new IllegalArgumentException("Cannot render several samples per pixel or area lights in " + mode + " mode");
     }
 
-    int rayDepth = 2;
+    switch(mode) {
+      case SCRATCH: {
+        ScratchEngine raytracer = new ScratchEngine(imageWidth, imageHeight,
+            pixelSize, pixelSize, renderDiffuse, renderShadows, renderHighlights, renderReflections,
+            rayDepth);
+        raytracer.setSampling(samples, seed);
 
-    Engine raytracer = new Engine(imageWidth, imageHeight,
-        pixelSize, pixelSize, renderDiffuse, renderShadows, renderHighlights, renderReflections,
-        rayDepth);
+        return raytracer.renderScene(scene, canvas);
+      }
+      case TILED: {
+        ScratchEngine engine = new ScratchEngine(imageWidth, imageHeight,
+            pixelSize, pixelSize, renderDiffuse, renderShadows, renderHighlights, renderReflections,
+            rayDepth);
+        engine.setSampling(samples, seed);
+        TiledRenderer raytracer = new TiledRenderer(TiledRenderer.defaultPool(), engine,
+            TiledRenderer.DEFAULT_TILE_SIZE);
 
-    raytracer.renderScene(scene, canvas);
+        return raytracer.renderScene(scene, canvas);
+      }
+      case PACKET: {
+        ScratchEngine engine = new ScratchEngine(imageWidth, imageHeight,
+            pixelSize, pixelSize, renderDiffuse, renderShadows, renderHighlights, renderReflections,
+            rayDepth);
+        PacketTracer raytracer = new PacketTracer(scene, engine);
+
+        return raytracer.renderScene(canvas);
+      }
+      case WAVEFRONT: {
+        WavefrontRenderer raytracer = new WavefrontRenderer(TiledRenderer.defaultPool(), imageWidth, imageHeight,
+            pixelSize, pixelSize, renderDiffuse, renderShadows, renderHighlights, renderReflections,
+            rayDepth);
+
+        return raytracer.renderScene(scene, canvas);
+      }
+      case FLOAT: {
+        FloatEngine raytracer = new FloatEngine(scene, imageWidth, imageHeight,
+            pixelSize, pixelSize, renderDiffuse, renderShadows, renderHighlights, renderReflections,
+            rayDepth);
+
+        return raytracer.renderScene(canvas);
+      }
+      default: {
+        Engine raytracer = new Engine(imageWidth, imageHeight,
+            pixelSize, pixelSize, renderDiffuse, renderShadows, renderHighlights, renderReflections,
+            rayDepth);
+
+        return raytracer.renderScene(scene, canvas);
+      }
+    }
   }
 }
@@ -0,0 +1,58 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+// xoroshiro128** by Blackman and Vigna, seeded through SplitMix64. Much
+// faster than java.util.Random, which updates an AtomicLong, and
+// allocation free. Reseeding is cheap, so that the samples of every pixel
+// can come from their own stream, split off the seed by the pixel's index.
+// The image then does not depend on the order in which pixels are
+// rendered, or on which thread renders them. An instance must only be
+// used by one thread at a time.
+final class Rng {
+  private long s0;
+  private long s1;
+
+  Rng(final long seed) {
+    seed(seed);
+  }
+
+  void seed(final long seed) {
+    long z = seed;
+    s0 = mix(z += 0x9e3779b97f4a7c15L);
+    s1 = mix(z + 0x9e3779b97f4a7c15L);
+  }
+
+  // Seeds the stream of the stream-th pixel, independent of all others.
+  void seed(final long seed, final long stream) {
+    seed(mix(seed ^ mix(stream)));
+  }
+
+  long nextLong() {
+    final long s0 = this.s0;
+    long s1 = this.s1;
+    final long result = Long.rotateLeft(s0 * 5, 7) * 9;
+    s1 ^= s0;
+    this.s0 = Long.rotateLeft(s0, 24) ^ s1 ^ (s1 << 16);
+    this.s1 = Long.rotateLeft(s1, 37);
+    return result;
+  }
+
+  // Uniform in [0, 1).
+  double nextDouble() {
+    return (nextLong() >>> 11) * 0x1.0p-53;
+  }
+
+  // SplitMix64's finalizer.
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+}
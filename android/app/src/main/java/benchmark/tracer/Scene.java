@@ -9,6 +9,7 @@
 package defrac.benchmark.tracer;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -32,10 +33,123 @@ final class Scene {
   final List<Light> lights;
   @NonNull
   Background background;
+
+  // Built by buildBvh(), after which shapes must not change anymore.
+  @Nullable
+  Bvh bvh;
+
+  // Records of the current shapes, lights and camera, indexed like shapes,
+  // which ScratchEngine then uses. Baked by compile(), null until then.
+  @Nullable
+  ShapeRecord[] records;
+
   Scene() {
     camera = new Camera(POSITION, LOOK_AT, UP);
     shapes = new ArrayList();
     lights = new ArrayList();
     background = BACKGROUND;
   }
+
+  // Builds the hierarchy that testIntersection() uses instead of testing
+  // every shape. Worth it for scenes with more than a handful of shapes.
+  void buildBvh() {
+    bvh = new Bvh(shapes);
+  }
+
+  // Returns a shape blocking the ray at a distance of at least 0 and less
+  // than maxDistance, skipping exclude, or null. Unlike testIntersection()
+  // it returns the first blocker found, which need not be the closest.
+  @Nullable
+  BaseShape occluder(@NonNull final MutableVector origin, @NonNull final MutableVector direction,
+                     @Nullable final BaseShape exclude, final double maxDistance, @NonNull final int[] stack) {
+    if (bvh != null) {
+      return bvh.any(origin, direction, exclude, maxDistance, stack);
+    }
+
+    final int n = shapes.size();
+    for(int i = 0; i < n; i++){
+      final BaseShape shape = shapes.get(i);
+      if (shape != exclude && shape.occludes(origin, direction, maxDistance)) {
+        return shape;
+      }
+    }
+    return null;
+  }
+
+  // Bakes the invariants of every shape, see ShapeRecord. Must be called
+  // again after changing the shapes, lights or camera.
+  void compile() {
+    final int n = shapes.size();
+    final ShapeRecord[] records = new ShapeRecord[n];
+    for(int i = 0; i < n; i++){
+      records[i] = new ShapeRecord(this, shapes.get(i));
+    }
+    this.records = records;
+  }
+
+  // The record of shapes.get(index), or null if the scene is not compiled.
+  @Nullable
+  ShapeRecord record(final int index) {
+    final ShapeRecord[] records = this.records;
+    return (records != null && index < records.length) ? records[index] : null;
+  }
+
+  // Whether any light is an area light, which only ScratchEngine renders.
+  boolean hasAreaLights() {
+    final int n = lights.size();
+    for(int i = 0; i < n; i++){
+      if (lights.get(i).radius > 0.0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Whether all shapes are equally transparent, so that any blocker of a
+  // shadow ray shades like the closest one.
+  boolean hasUniformTransparency() {
+    final int n = shapes.size();
+    for(int i = 1; i < n; i++){
+      if (shapes.get(i).material.transparency != shapes.get(0).material.transparency) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Returns the closest shape hit at a distance of at least 0 and less than
+  // maxDistance, skipping exclude, and stores it, its index and its distance
+  // in hit. Shading is left to BaseShape.shade(). The stack of
+  // Bvh.STACK_SIZE entries is only needed with a hierarchy.
+  @Nullable
+  BaseShape testIntersection(@NonNull final MutableVector origin, @NonNull final MutableVector direction,
+                             @Nullable final BaseShape exclude, final double maxDistance,
+                             @NonNull final Hit hit, @NonNull final int[] stack) {
+    if (bvh != null) {
+      hit.distance = maxDistance;
+      return bvh.closest(origin, direction, exclude, hit, stack);
+    }
+
+    BaseShape best = null;
+    int bestIndex = -1;
+    double bestDistance = maxDistance;
+
+    final int n = shapes.size();
+    for(int i = 0; i < n; i++){
+      final BaseShape shape = shapes.get(i);
+
+      if(shape != exclude){
+        final double distance = shape.intersectDistance(origin, direction);
+        if (distance >= 0 && distance < bestDistance) {
+          best = shape;
+          bestIndex = i;
+          bestDistance = distance;
+        }
+      }
+    }
+    hit.shape = best;
+    hit.index = bestIndex;
+    hit.distance = bestDistance;
+    return best;
+  }
 }
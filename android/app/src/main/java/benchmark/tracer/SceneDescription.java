@@ -0,0 +1,465 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import android.support.annotation.NonNull;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// A scene together with how to render it: resolution, pixel size,
+// recursion depth and which lighting features are enabled. Built either
+// with the methods below or parsed from a line based text format:
+//
+//   # comment
+//   size 1280 720
+//   pixel 1
+//   depth 3
+//   features diffuse shadows highlights reflections
+//   bvh
+//   camera 0 0 -15  -0.2 0 5  0 1 0       # position, look at, up
+//   background 0.5 0.5 0.5 0.4            # color, ambience
+//   solid teal 0 0.5 0.5 0.3 0 0 2        # color, reflection, refraction,
+//                                         # transparency, gloss
+//   chessboard floor 1 1 1 0 0 0 0.2 0 1 0.7
+//                                         # colors, reflection,
+//                                         # transparency, gloss, density
+//   sphere -1.5 1.5 2 1.5 teal            # center, radius, material
+//   plane 0.1 0.9 -0.5 1.2 floor          # normal, distance, material
+//   light 5 10 -1 0.8 0.8 0.8             # position, color[, intensity]
+//   arealight 5 10 -1 0.8 0.8 0.8 0.5     # position, color, radius
+//   samples 16                            # rays per pixel
+//   seed 42                               # of the random samples
+//   spheres 1000 42                       # count, seed of random spheres
+//
+// Materials must be declared before the shapes using them. Several samples
+// per pixel and area lights render only in the SCRATCH and TILED modes.
+public final class SceneDescription {
+  @NonNull
+  private final Scene scene = new Scene();
+
+  @NonNull
+  private final Map<String, Materials> materials = new HashMap<String, Materials>();
+
+  private int width = 100;
+  private int height = 100;
+  private int pixelSize = 1;
+  private int rayDepth = 2;
+  private boolean renderDiffuse = true;
+  private boolean renderShadows = true;
+  private boolean renderHighlights = true;
+  private boolean renderReflections = true;
+  private boolean bvh = false;
+  private boolean compile = true;
+  private int samples = 1;
+  private long seed = 0L;
+
+  // Changes whenever the image would, so that shading results cached for
+  // one version are not used for another.
+  private int version;
+  private int compiledVersion = -1;
+
+  public int getWidth() {
+    return width;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  public int getVersion() {
+    return version;
+  }
+
+  public int getShapeCount() {
+    return scene.shapes.size();
+  }
+
+  @NonNull
+  public SceneDescription size(final int width, final int height) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Size must be positive: " + width + "x" + height);
+    }
+    this.width = width;
+    this.height = height;
+    ++version;
+    return this;
+  }
+
+  @NonNull
+  public SceneDescription pixelSize(final int pixelSize) {
+    if (pixelSize <= 0) {
+      throw new IllegalArgumentException("Pixel size must be positive: " + pixelSize);
+    }
+    this.pixelSize = pixelSize;
+    ++version;
+    return this;
+  }
+
+  @NonNull
+  public SceneDescription rayDepth(final int rayDepth) {
+    if (rayDepth < 0) {
+      throw new IllegalArgumentException("Ray depth must not be negative: " + rayDepth);
+    }
+    this.rayDepth = rayDepth;
+    ++version;
+    return this;
+  }
+
+  @NonNull
+  public SceneDescription features(final boolean diffuse, final boolean shadows,
+                                   final boolean highlights, final boolean reflections) {
+    this.renderDiffuse = diffuse;
+    this.renderShadows = shadows;
+    this.renderHighlights = highlights;
+    this.renderReflections = reflections;
+    ++version;
+    return this;
+  }
+
+  // Whether to bake per-shape invariants before rendering, see
+  // ShapeRecord. Only off to measure what that saves.
+  @NonNull
+  public SceneDescription compile(final boolean compile) {
+    this.compile = compile;
+    compiledVersion = -1;
+    scene.records = null;
+    return this;
+  }
+
+  // Rays per pixel, at random points of it unless there is just one.
+  @NonNull
+  public SceneDescription samples(final int samples) {
+    if (samples <= 0) {
+      throw new IllegalArgumentException("Samples must be positive: " + samples);
+    }
+    this.samples = samples;
+    ++version;
+    return this;
+  }
+
+  // Seed of the random numbers of samples and area lights. The same seed
+  // renders the same image in every mode and on any number of threads.
+  @NonNull
+  public SceneDescription seed(final long seed) {
+    this.seed = seed;
+    ++version;
+    return this;
+  }
+
+  // Whether to build a bounding volume hierarchy over the shapes, which
+  // pays off from a few dozen of them.
+  @NonNull
+  public SceneDescription bvh(final boolean bvh) {
+    this.bvh = bvh;
+    scene.bvh = null;
+    return this;
+  }
+
+  @NonNull
+  public SceneDescription camera(final double x, final double y, final double z,
+                                 final double lookAtX, final double lookAtY, final double lookAtZ,
+                                 final double upX, final double upY, final double upZ) {
+    scene.camera = new Camera(new Vector(x, y, z), new Vector(lookAtX, lookAtY, lookAtZ),
+        new Vector(upX, upY, upZ));
+    ++version;
+    return this;
+  }
+
+  @NonNull
+  public SceneDescription background(final double r, final double g, final double b, final double ambience) {
+    scene.background = new Background(new Color(r, g, b), ambience);
+    ++version;
+    return this;
+  }
+
+  @NonNull
+  public SceneDescription solid(@NonNull final String name, final double r, final double g, final double b,
+                                final double reflection, final double refraction,
+                                final double transparency, final double gloss) {
+    materials.put(name, new Materials.Solid(new Color(r, g, b), reflection, refraction, transparency, gloss));
+    return this;
+  }
+
+  @NonNull
+  public SceneDescription chessboard(@NonNull final String name,
+                                     final double evenR, final double evenG, final double evenB,
+                                     final double oddR, final double oddG, final double oddB,
+                                     final double reflection, final double transparency,
+                                     final double gloss, final double density) {
+    materials.put(name, new Materials.Chessboard(new Color(evenR, evenG, evenB), new Color(oddR, oddG, oddB),
+        reflection, transparency, gloss, density));
+    return this;
+  }
+
+  @NonNull
+  public SceneDescription sphere(final double x, final double y, final double z, final double radius,
+                                 @NonNull final String material) {
+    return add(new Sphere(new Vector(x, y, z), radius, material(material)));
+  }
+
+  // The normal is normalized, d is the distance of the plane from the
+  // origin along it.
+  @NonNull
+  public SceneDescription plane(final double normalX, final double normalY, final double normalZ,
+                                final double d, @NonNull final String material) {
+    return add(new Plane(new Vector(normalX, normalY, normalZ).normalize(), d, material(material)));
+  }
+
+  @NonNull
+  public SceneDescription light(final double x, final double y, final double z,
+                                final double r, final double g, final double b) {
+    scene.lights.add(new Light(new Vector(x, y, z), new Color(r, g, b)));
+    ++version;
+    return this;
+  }
+
+  @NonNull
+  public SceneDescription light(final double x, final double y, final double z,
+                                final double r, final double g, final double b, final double intensity) {
+    scene.lights.add(new Light(new Vector(x, y, z), new Color(r, g, b), intensity));
+    ++version;
+    return this;
+  }
+
+  // A spherical light, which casts soft shadows.
+  @NonNull
+  public SceneDescription areaLight(final double x, final double y, final double z,
+                                    final double r, final double g, final double b, final double radius) {
+    if (!(radius > 0.0)) {
+      throw new IllegalArgumentException("Radius must be positive: " + radius);
+    }
+    scene.lights.add(new Light(new Vector(x, y, z), new Color(r, g, b), 10.0, radius));
+    ++version;
+    return this;
+  }
+
+  // Adds the field of random spheres SphereScene uses, the same for the
+  // same seed.
+  @NonNull
+  public SceneDescription randomSpheres(final int count, final long seed) {
+    SphereScene.addRandomSpheres(scene, count, seed);
+    scene.bvh = null;
+    ++version;
+    return this;
+  }
+
+  // Renders onto a canvas of getWidth() x getHeight() pixels and returns the
+  // sum of the brightness of all pixels.
+  public int render(@NonNull final Canvas canvas, @NonNull final RenderMode mode) {
+    checkCanvas(canvas);
+    return RenderScene.render(scene(mode.usesRecords()), canvas, mode, width, height, pixelSize, rayDepth,
+        renderDiffuse, renderShadows, renderHighlights, renderReflections, samples, seed);
+  }
+
+  // The mode whose image the others are checked against: the original
+  // Engine, unless the scene needs ScratchEngine for several samples per
+  // pixel or area lights.
+  @NonNull
+  public RenderMode referenceMode() {
+    return (samples > 1 || scene.hasAreaLights()) ? RenderMode.SCRATCH : RenderMode.REFERENCE;
+  }
+
+  @NonNull
+  ScratchEngine createEngine() {
+    final ScratchEngine engine = new ScratchEngine(width, height, pixelSize, pixelSize,
+        renderDiffuse, renderShadows, renderHighlights, renderReflections, rayDepth);
+    engine.setSampling(samples, seed);
+    return engine;
+  }
+
+  @NonNull
+  Scene scene() {
+    return scene(true);
+  }
+
+  // The scene, compiled if compile(true) and records are wanted.
+  @NonNull
+  private Scene scene(final boolean records) {
+    if (bvh && scene.bvh == null) {
+      scene.buildBvh();
+    }
+    if (records && compile && compiledVersion != version) {
+      scene.compile();
+      compiledVersion = version;
+    }
+    return scene;
+  }
+
+  void checkCanvas(@NonNull final Canvas canvas) {
+    if (canvas.width != width || canvas.height != height) {
+      throw new IllegalArgumentException("Canvas is " + canvas.width + "x" + canvas.height +
+          ", but the scene is " + width + "x" + height);
+    }
+  }
+
+  @NonNull
+  private SceneDescription add(@NonNull final BaseShape shape) {
+    scene.shapes.add(shape);
+    scene.bvh = null;
+    ++version;
+    return this;
+  }
+
+  @NonNull
+  private Materials material(@NonNull final String name) {
+    final Materials material = materials.get(name);
+    if (material == null) {
+      throw new IllegalArgumentException("Unknown material: " + name);
+    }
+    return material;
+  }
+
+  // Parses the text format described above. Errors are reported as
+  // IllegalArgumentException naming the line.
+  @NonNull
+  public static SceneDescription parse(@NonNull final Reader reader) throws IOException {
+    final SceneDescription description = new SceneDescription();
+    final BufferedReader lines = new BufferedReader(reader);
+    int number = 0;
+    String line;
+    while((line = lines.readLine()) != null) {
+      ++number;
+      final int comment = line.indexOf('#');
+      if (comment >= 0) {
+        line = line.substring(0, comment);
+      }
+      line = line.trim();
+      if (line.isEmpty()) {
+        continue;
+      }
+      try {
+        description.parseLine(line.split("\\s+"));
+      } catch(IllegalArgumentException e) {
+        throw new IllegalArgumentException("Line " + number + ": " + e.getMessage());
+      }
+    }
+    return description;
+  }
+
+  private void parseLine(@NonNull final String[] tokens) {
+    final String keyword = tokens[0].toLowerCase(Locale.US);
+    switch(keyword) {
+      case "size":
+        arguments(tokens, 2);
+        size(integer(tokens[1]), integer(tokens[2]));
+        break;
+      case "pixel":
+        arguments(tokens, 1);
+        pixelSize(integer(tokens[1]));
+        break;
+      case "depth":
+        arguments(tokens, 1);
+        rayDepth(integer(tokens[1]));
+        break;
+      case "features": {
+        boolean diffuse = false, shadows = false, highlights = false, reflections = false;
+        for(int i = 1; i < tokens.length; i++) {
+          switch(tokens[i].toLowerCase(Locale.US)) {
+            case "diffuse": diffuse = true; break;
+            case "shadows": shadows = true; break;
+            case "highlights": highlights = true; break;
+            case "reflections": reflections = true; break;
+            default: throw new IllegalArgumentException("Unknown feature: " + tokens[i]);
+          }
+        }
+        features(diffuse, shadows, highlights, reflections);
+        break;
+      }
+      case "bvh":
+        arguments(tokens, 0);
+        bvh(true);
+        break;
+      case "camera":
+        arguments(tokens, 9);
+        camera(number(tokens[1]), number(tokens[2]), number(tokens[3]),
+            number(tokens[4]), number(tokens[5]), number(tokens[6]),
+            number(tokens[7]), number(tokens[8]), number(tokens[9]));
+        break;
+      case "background":
+        arguments(tokens, 4);
+        background(number(tokens[1]), number(tokens[2]), number(tokens[3]), number(tokens[4]));
+        break;
+      case "solid":
+        arguments(tokens, 8);
+        solid(tokens[1], number(tokens[2]), number(tokens[3]), number(tokens[4]),
+            number(tokens[5]), number(tokens[6]), number(tokens[7]), number(tokens[8]));
+        break;
+      case "chessboard":
+        arguments(tokens, 11);
+        chessboard(tokens[1], number(tokens[2]), number(tokens[3]), number(tokens[4]),
+            number(tokens[5]), number(tokens[6]), number(tokens[7]),
+            number(tokens[8]), number(tokens[9]), number(tokens[10]), number(tokens[11]));
+        break;
+      case "sphere":
+        arguments(tokens, 5);
+        sphere(number(tokens[1]), number(tokens[2]), number(tokens[3]), number(tokens[4]), tokens[5]);
+        break;
+      case "plane":
+        arguments(tokens, 5);
+        plane(number(tokens[1]), number(tokens[2]), number(tokens[3]), number(tokens[4]), tokens[5]);
+        break;
+      case "light":
+        if (tokens.length == 8) {
+          light(number(tokens[1]), number(tokens[2]), number(tokens[3]),
+              number(tokens[4]), number(tokens[5]), number(tokens[6]), number(tokens[7]));
+        } else {
+          arguments(tokens, 6);
+          light(number(tokens[1]), number(tokens[2]), number(tokens[3]),
+              number(tokens[4]), number(tokens[5]), number(tokens[6]));
+        }
+        break;
+      case "arealight":
+        arguments(tokens, 7);
+        areaLight(number(tokens[1]), number(tokens[2]), number(tokens[3]),
+            number(tokens[4]), number(tokens[5]), number(tokens[6]), number(tokens[7]));
+        break;
+      case "samples":
+        arguments(tokens, 1);
+        samples(integer(tokens[1]));
+        break;
+      case "seed":
+        arguments(tokens, 1);
+        seed(Long.parseLong(tokens[1]));
+        break;
+      case "spheres":
+        arguments(tokens, 2);
+        randomSpheres(integer(tokens[1]), Long.parseLong(tokens[2]));
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown keyword: " + tokens[0]);
+    }
+  }
+
+  private static void arguments(@NonNull final String[] tokens, final int count) {
+    if (tokens.length != count + 1) {
+      throw new IllegalArgumentException(tokens[0] + " takes " + count + " arguments, but got " +
+          (tokens.length - 1));
+    }
+  }
+
+  private static int integer(@NonNull final String token) {
+    try {
+      return Integer.parseInt(token);
+    } catch(NumberFormatException e) {
+      throw new IllegalArgumentException("Not an integer: " + token);
+    }
+  }
+
+  private static double number(@NonNull final String token) {
+    try {
+      return Double.parseDouble(token);
+    } catch(NumberFormatException e) {
+      throw new IllegalArgumentException("Not a number: " + token);
+    }
+  }
+}
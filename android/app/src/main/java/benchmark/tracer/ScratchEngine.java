@@ -0,0 +1,440 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+// Renders like Engine but keeps all intermediate vectors and colors in
+// preallocated registers, so tracing a pixel allocates nothing. Every
+// level of reflection has its own Frame. An instance must only be used by
+// one thread at a time.
+final class ScratchEngine {
+  // Hits at this distance or farther are ignored, as in Engine.
+  private static final double MAX_DISTANCE = 2000.0;
+
+  private final int canvasWidth;
+  private final int canvasHeight;
+  private final int pixelWidth;
+  private final int pixelHeight;
+  private final boolean renderDiffuse;
+  private final boolean renderShadows;
+  private final boolean renderHighlights;
+  private final boolean renderReflections;
+  private final int rayDepth;
+  private Canvas canvas;
+
+  // The ray stack of rayTrace(), the camera ray and up to rayDepth + 1
+  // reflections of it.
+  @NonNull
+  private final Frame[] frames;
+
+  // Traversal stack for the scene's Bvh.
+  @NonNull
+  private final int[] stack = new int[Bvh.STACK_SIZE];
+
+  // Shadow rays stop at the first blocker instead of finding the closest
+  // one, which only shades the same if all blockers are equally
+  // transparent. Decided per scene by prepare().
+  private boolean anyHitShadows;
+
+  // Rays per pixel, at random points of it unless there is just one, and
+  // the seed the pixels' random streams are split off. See setSampling().
+  private int samples = 1;
+  private long seed;
+
+  // Whether pixels need random numbers, because of several samples or area
+  // lights. Decided per scene by prepare().
+  private boolean stochastic;
+
+  @NonNull
+  private final Rng rng = new Rng(0L);
+
+  // Camera terms per column and row of the canvas for termsCamera, see
+  // Camera.fillTerms(). Used for compiled scenes, unless stochastic. Never
+  // modified once filled, so copies of the engine share them.
+  private boolean useTerms;
+  @Nullable private Camera termsCamera;
+  @Nullable private double[] columnTerms;
+  @Nullable private double[] rowTerms;
+
+  private int checkNumber;
+
+  // Registers of one level of rayTrace().
+  private static final class Frame {
+    // The ray being traced and its closest hit.
+    @NonNull final MutableVector origin = new MutableVector();
+    @NonNull final MutableVector direction = new MutableVector();
+    @NonNull final Hit hit = new Hit();
+
+    // Direction to the current light and the highlight half vector.
+    @NonNull final MutableVector light = new MutableVector();
+    @NonNull final MutableVector half = new MutableVector();
+    @NonNull final MutableVector eye = new MutableVector();
+
+    // Direction to a random point of the current area light.
+    @NonNull final MutableVector shadowDirection = new MutableVector();
+
+    // Closest blocker of the current shadow ray when prepare() decided
+    // against any-hit shadows; only its distance is used.
+    @NonNull final Hit shadow = new Hit();
+
+    // Whether the material reflects a ray, and the color it brings back,
+    // that of the next frame or the background.
+    boolean reflects;
+    @NonNull final MutableColor reflected = new MutableColor();
+
+    // The result of rayTrace().
+    @NonNull final MutableColor color = new MutableColor();
+  }
+
+  ScratchEngine(final int canvasWidth, final int canvasHeight,
+                final int pixelWidth, final int pixelHeight,
+                final boolean renderDiffuse, final boolean renderShadows,
+                final boolean renderHighlights, final boolean renderReflections,
+                final int rayDepth) {
+    this.canvasWidth = canvasWidth / pixelWidth;
+    this.canvasHeight = canvasHeight / pixelHeight;
+    this.pixelWidth = pixelWidth;
+    this.pixelHeight = pixelHeight;
+    this.renderDiffuse = renderDiffuse;
+    this.renderShadows = renderShadows;
+    this.renderHighlights = renderHighlights;
+    this.renderReflections = renderReflections;
+    this.rayDepth = rayDepth;
+    this.frames = new Frame[rayDepth + 2];
+    for(int i = 0; i < frames.length; i++) {
+      frames[i] = new Frame();
+    }
+  }
+
+  // An engine with the same settings and its own registers.
+  ScratchEngine(@NonNull final ScratchEngine engine) {
+    this(engine.canvasWidth * engine.pixelWidth, engine.canvasHeight * engine.pixelHeight,
+        engine.pixelWidth, engine.pixelHeight,
+        engine.renderDiffuse, engine.renderShadows,
+        engine.renderHighlights, engine.renderReflections,
+        engine.rayDepth);
+    setSampling(engine.samples, engine.seed);
+    this.termsCamera = engine.termsCamera;
+    this.columnTerms = engine.columnTerms;
+    this.rowTerms = engine.rowTerms;
+  }
+
+  // Traces samples rays per pixel and averages them. Random numbers come
+  // from a stream per pixel split off seed, so the same seed always
+  // renders the same image, however the pixels are scheduled.
+  void setSampling(int samples, long seed) {
+    if (samples <= 0) {
+      throw new IllegalArgumentException("Samples must be positive: " + samples);
+    }
+    this.samples = samples;
+    this.seed = seed;
+  }
+
+  int getCanvasWidth() {
+    return canvasWidth;
+  }
+
+  int getCanvasHeight() {
+    return canvasHeight;
+  }
+
+  int getPixelWidth() {
+    return pixelWidth;
+  }
+
+  int getPixelHeight() {
+    return pixelHeight;
+  }
+
+  void setPixel(int x, int y, MutableColor color){
+    if (canvas != null) {
+      canvas.fillRect(x * pixelWidth, y * pixelHeight, pixelWidth, pixelHeight, color.toArgb());
+    }
+    checkNumber += color.brightness();
+  }
+
+  // 'canvas' can be null if raytracer runs as benchmark. Returns the sum of
+  // the brightness of all pixels.
+  int renderScene(Scene scene, Canvas canvas) {
+    checkNumber = 0;
+    prepare(scene);
+    /* Get canvas */
+    this.canvas = (canvas == null) ? null : canvas.getContext("2d");
+
+    final MutableColor color = new MutableColor();
+
+    for(int y = 0; y < canvasHeight; y++){
+      for(int x = 0; x < canvasWidth; x++){
+        tracePixel(x, y, scene, color);
+        setPixel(x, y, color);
+      }
+    }
+    if ((canvas == null) && (checkNumber != 55545)) {
+      // Used for benchmarking.
+      throw new RuntimeException("Scene rendered incorrectly - expected <55545>, but was <"+checkNumber+">");
+    }
+    return checkNumber;
+  }
+
+  // Renders the pixels x0 <= x < x1, y0 <= y < y1, onto canvas unless it
+  // is null, and returns the sum of their brightness, their share of
+  // checkNumber.
+  int renderTile(@NonNull Scene scene, @Nullable Canvas canvas, int x0, int y0, int x1, int y1) {
+    prepare(scene);
+    final MutableColor color = new MutableColor();
+    int sum = 0;
+
+    for(int y = y0; y < y1; y++){
+      for(int x = x0; x < x1; x++){
+        tracePixel(x, y, scene, color);
+        if (canvas != null) {
+          canvas.fillRect(x * pixelWidth, y * pixelHeight, pixelWidth, pixelHeight, color.toArgb());
+        }
+        sum += color.brightness();
+      }
+    }
+    return sum;
+  }
+
+  void prepare(@NonNull Scene scene) {
+    anyHitShadows = scene.hasUniformTransparency();
+    stochastic = samples > 1 || scene.hasAreaLights();
+    useTerms = scene.records != null && !stochastic;
+    if (useTerms && termsCamera != scene.camera) {
+      final double[] columns = new double[3 * canvasWidth];
+      final double[] rows = new double[3 * canvasHeight];
+      scene.camera.fillTerms(columns, canvasWidth, rows, canvasHeight);
+      columnTerms = columns;
+      rowTerms = rows;
+      termsCamera = scene.camera;
+    }
+  }
+
+  // Colors the camera ray origin/direction whose closest hit is shape, the
+  // index-th of the scene, at distance, like getPixelColor() does once it
+  // found the hit. For renderers that find primary hits themselves;
+  // prepare() must have been called for the scene.
+  void shadePrimary(@NonNull Scene scene, @NonNull MutableVector origin, @NonNull MutableVector direction,
+                    @NonNull BaseShape shape, int index, double distance, @NonNull MutableColor result) {
+    final Frame frame = frames[0];
+    frame.origin.set(origin);
+    frame.direction.set(direction);
+    frame.hit.index = index;
+    frame.hit.distance = distance;
+    shape.shade(frame.hit, frame.origin, frame.direction);
+    rayTrace(scene, 0);
+    result.set(frame.color);
+  }
+
+  // Colors the pixel x, y of the canvas; prepare() must have been called
+  // for the scene.
+  void tracePixel(int x, int y, @NonNull Scene scene, @NonNull MutableColor result) {
+    if (useTerms) {
+      final Frame frame = frames[0];
+      scene.camera.getRay(columnTerms, x, rowTerms, y, frame.origin, frame.direction);
+      tracePrimary(scene, result);
+      return;
+    }
+    if (!stochastic) {
+      double yp = (double)y / (double)canvasHeight * 2.0 - 1.0;
+      double xp = (double)x / (double)canvasWidth * 2.0 - 1.0;
+      getPixelColor(xp, yp, scene, result);
+      return;
+    }
+
+    rng.seed(seed, (long)y * canvasWidth + x);
+    double red = 0.0, green = 0.0, blue = 0.0;
+    for(int i = 0; i < samples; i++){
+      // A single sample stays at the corner of the pixel, where the
+      // deterministic render looks.
+      double u = (samples == 1) ? 0.0 : rng.nextDouble();
+      double v = (samples == 1) ? 0.0 : rng.nextDouble();
+      double yp = (y + v) / (double)canvasHeight * 2.0 - 1.0;
+      double xp = (x + u) / (double)canvasWidth * 2.0 - 1.0;
+      getPixelColor(xp, yp, scene, result);
+      red += result.red;
+      green += result.green;
+      blue += result.blue;
+    }
+    result.set(red / samples, green / samples, blue / samples);
+  }
+
+  void getPixelColor(double xp, double yp, @NonNull Scene scene, @NonNull MutableColor result) {
+    final Frame frame = frames[0];
+    scene.camera.getRay(xp, yp, frame.origin, frame.direction);
+    tracePrimary(scene, result);
+  }
+
+  // Colors the camera ray in frames[0].
+  private void tracePrimary(@NonNull Scene scene, @NonNull MutableColor result) {
+    final Frame frame = frames[0];
+    if (testIntersection(frame.origin, frame.direction, scene, null, frame.hit) != null) {
+      frame.hit.shape.shade(frame.hit, frame.origin, frame.direction);
+      rayTrace(scene, 0);
+      result.set(frame.color);
+    } else {
+      result.set(scene.background.color);
+    }
+  }
+
+  @Nullable
+  private BaseShape testIntersection(@NonNull MutableVector origin, @NonNull MutableVector direction,
+                                     @NonNull Scene scene, @Nullable BaseShape exclude, @NonNull Hit hit) {
+    return scene.testIntersection(origin, direction, exclude, MAX_DISTANCE, hit, stack);
+  }
+
+  // Traces frames[depth], whose hit has been shaded, into its color.
+  //
+  // Engine recurses into the reflection once per light, although the
+  // reflected ray is the same for every light, so its cost grows with the
+  // number of lights to the power of the depth. Here the chain of
+  // reflections is followed down once, pushing a frame per hit, and the
+  // frames are then lit from the deepest up, each blending in the color of
+  // the one below for every light. Without random numbers every recursive
+  // call of Engine returns the same color, so the image is the same; with
+  // them, all lights share one sample of the reflection.
+  private void rayTrace(@NonNull Scene scene, int depth) {
+    int top = depth;
+    while(reflect(scene, top)) {
+      ++top;
+    }
+    for(int d = top; d >= depth; d--) {
+      final Frame frame = frames[d];
+      if (frame.reflects && d < top) {
+        frame.reflected.set(frames[d + 1].color);
+      }
+      illuminate(scene, frame);
+    }
+  }
+
+  // Traces the reflection of frames[depth]'s ray, if any, into the next
+  // frame and shades its hit. Returns whether there is one, or else sets
+  // what the frame reflects.
+  private boolean reflect(@NonNull Scene scene, int depth) {
+    final Frame frame = frames[depth];
+    final Hit info = frame.hit;
+    final BaseShape shape = info.shape;
+    // Engine only reflects from within its loop over the lights.
+    frame.reflects = renderReflections && shape.material.reflection > 0.0 &&
+        depth <= rayDepth && !scene.lights.isEmpty();
+    if (!frame.reflects) {
+      return false;
+    }
+
+    final Frame next = frames[depth + 1];
+    final MutableVector N = info.normal;
+    final MutableVector V = frame.direction;
+    double c1 = -N.dot(V);
+    next.origin.set(info.position);
+    next.direction.set(N.x * (2*c1) + V.x, N.y * (2*c1) + V.y, N.z * (2*c1) + V.z);
+
+    if (testIntersection(next.origin, next.direction, scene, shape, next.hit) != null &&
+        next.hit.distance > 0.0) {
+      next.hit.shape.shade(next.hit, next.origin, next.direction);
+      return true;
+    }
+    frame.reflected.set(scene.background.color);
+    return false;
+  }
+
+  // Lights the frame's hit into its color, blending in what reflect()
+  // found it reflects.
+  private void illuminate(@NonNull Scene scene, @NonNull Frame frame) {
+    final Hit info = frame.hit;
+    final BaseShape shape = info.shape;
+    final Materials material = shape.material;
+    final MutableVector v = frame.light;
+    final ShapeRecord record = scene.record(info.index);
+
+    // Calc ambient
+    final MutableColor color = frame.color.set(info.color).multiplyScalar(scene.background.ambience);
+    double shininess = (record != null) ? record.shininess : Math.pow(10.0, material.gloss + 1.0);
+
+    final int n = scene.lights.size();
+    for(int i = 0; i < n; i++) {
+      final Light light = scene.lights.get(i);
+
+      // Calc diffuse lighting
+      v.set(light.position).sub(info.position).normalize();
+
+      if (renderDiffuse) {
+        double L = v.dot(info.normal);
+        if (L > 0.0) {
+          color.addProduct(info.color, light.color, L);
+        }
+      }
+
+      // Reflection, traced once for all lights by reflect()
+      if (frame.reflects) {
+        final MutableColor refl = frame.reflected;
+        color.blend(refl.red, refl.green, refl.blue, material.reflection);
+      }
+      /* Render shadows and highlights */
+
+      boolean shadowed = false;
+
+      if (renderShadows) {
+        final MutableVector s = (light.radius > 0.0) ? sampleLight(light, info.position, frame.shadowDirection) : v;
+        final BaseShape blocker = anyHitShadows
+            ? scene.occluder(info.position, s, shape, MAX_DISTANCE, stack)
+            : testIntersection(info.position, s, scene, shape, frame.shadow);
+        if (blocker != null) {
+          shadowed = true;
+          color.multiplyScalar(0.5).addScalar(0.5 * Math.pow(blocker.material.transparency, 0.5));
+        }
+      }
+      // Phong specular highlights
+      if (renderHighlights &&
+          !shadowed &&
+          (material.gloss > 0.0)) {
+        final MutableVector H;
+        if (record != null) {
+          H = frame.half.set(record.halfVectors[3 * i], record.halfVectors[3 * i + 1],
+              record.halfVectors[3 * i + 2]);
+        } else {
+          final MutableVector Lv = frame.half.set(shape.position).sub(light.position).normalize();
+
+          final MutableVector E = frame.eye.set(scene.camera.position).sub(shape.position).normalize();
+
+          H = E.sub(Lv).normalize();
+        }
+
+        double glossWeight = Math.pow(Math.max(info.normal.dot(H), 0.0), shininess);
+        color.addScaled(light.color, glossWeight);
+      }
+    }
+    color.limit();
+  }
+
+  // Sets direction towards a uniformly random point of the area light, as
+  // seen from position.
+  @NonNull
+  private MutableVector sampleLight(@NonNull Light light, @NonNull MutableVector position,
+                                    @NonNull MutableVector direction) {
+    double x, y, z;
+    do {
+      x = 2.0 * rng.nextDouble() - 1.0;
+      y = 2.0 * rng.nextDouble() - 1.0;
+      z = 2.0 * rng.nextDouble() - 1.0;
+    } while(x * x + y * y + z * z > 1.0);
+    final Vector center = light.position;
+    return direction.set(
+        center.x + light.radius * x - position.x,
+        center.y + light.radius * y - position.y,
+        center.z + light.radius * z - position.z).normalize();
+  }
+
+  @Override
+  @NonNull
+  public String toString() {
+    return "ScratchEngine [canvasWidth: "+canvasWidth+", canvasHeight: "+canvasHeight+"]";
+  }
+}
@@ -0,0 +1,197 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import java.util.Arrays;
+
+// Bounded map from pixel index to its shaded color, which evicts the least
+// recently used entry when full. Every entry remembers the scene version
+// it was shaded for; entries of other versions do not match and are
+// replaced. Entries live in parallel arrays that are allocated up front,
+// chained into a hash table and into a doubly linked recency list, so
+// neither lookups nor evictions allocate.
+//
+// Like any LRU cache it only helps if the pixels of a frame fit: a frame
+// scanned in order through a smaller cache evicts every entry before it
+// is used again.
+final class ShadingCache {
+  private static final int NONE = -1;
+
+  // Keeps the bucket array within an int's range of indexes.
+  static final int MAX_CAPACITY = 1 << 29;
+
+  private final int capacity;
+  private final int shift;
+
+  // Head entry of every bucket, and the next entry of the same bucket.
+  private final int[] buckets;
+  private final int[] chain;
+
+  private final int[] keys;
+  private final int[] versions;
+  private final int[] values;
+
+  // Recency list, from the most recently used entry at head to the least
+  // recently used one at tail.
+  private final int[] newer;
+  private final int[] older;
+  private int head = NONE;
+  private int tail = NONE;
+
+  private int size;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  ShadingCache(final int capacity) {
+    if (capacity <= 0 || capacity > MAX_CAPACITY) {
+      throw new IllegalArgumentException("Capacity must be in 1.." + MAX_CAPACITY + ": " + capacity);
+    }
+    this.capacity = capacity;
+    // At least twice as many buckets as entries, a power of two.
+    final int bits = 33 - Integer.numberOfLeadingZeros((capacity - 1) | 1);
+    this.shift = 32 - bits;
+    this.buckets = new int[1 << bits];
+    this.chain = new int[capacity];
+    this.keys = new int[capacity];
+    this.versions = new int[capacity];
+    this.values = new int[capacity];
+    this.newer = new int[capacity];
+    this.older = new int[capacity];
+    clear();
+  }
+
+  // Removes every entry and resets the counters.
+  void clear() {
+    Arrays.fill(buckets, NONE);
+    head = NONE;
+    tail = NONE;
+    size = 0;
+    hits = 0L;
+    misses = 0L;
+    evictions = 0L;
+  }
+
+  // Returns the entry of key if it was stored for version, after marking it
+  // as the most recently used one, or -1.
+  int find(final int key, final int version) {
+    final int entry = lookup(key);
+    if (entry == NONE || versions[entry] != version) {
+      ++misses;
+      return NONE;
+    }
+    ++hits;
+    touch(entry);
+    return entry;
+  }
+
+  int valueAt(final int entry) {
+    return values[entry];
+  }
+
+  // Stores value for key and version, replacing an entry of the same key or
+  // else the least recently used one if the cache is full.
+  void put(final int key, final int version, final int value) {
+    int entry = lookup(key);
+    if (entry == NONE) {
+      if (size < capacity) {
+        entry = size++;
+      } else {
+        entry = tail;
+        unlink(entry);
+        unchain(entry);
+        ++evictions;
+      }
+      keys[entry] = key;
+      final int bucket = bucket(key);
+      chain[entry] = buckets[bucket];
+      buckets[bucket] = entry;
+    } else {
+      unlink(entry);
+    }
+    versions[entry] = version;
+    values[entry] = value;
+    linkHead(entry);
+  }
+
+  int size() {
+    return size;
+  }
+
+  long getHits() {
+    return hits;
+  }
+
+  long getMisses() {
+    return misses;
+  }
+
+  long getEvictions() {
+    return evictions;
+  }
+
+  private int lookup(final int key) {
+    int entry = buckets[bucket(key)];
+    while(entry != NONE && keys[entry] != key) {
+      entry = chain[entry];
+    }
+    return entry;
+  }
+
+  private int bucket(final int key) {
+    return (key * 0x9e3779b9) >>> shift;
+  }
+
+  private void touch(final int entry) {
+    if (entry != head) {
+      unlink(entry);
+      linkHead(entry);
+    }
+  }
+
+  private void linkHead(final int entry) {
+    newer[entry] = NONE;
+    older[entry] = head;
+    if (head != NONE) {
+      newer[head] = entry;
+    } else {
+      tail = entry;
+    }
+    head = entry;
+  }
+
+  private void unlink(final int entry) {
+    final int n = newer[entry];
+    final int o = older[entry];
+    if (n != NONE) {
+      older[n] = o;
+    } else {
+      head = o;
+    }
+    if (o != NONE) {
+      newer[o] = n;
+    } else {
+      tail = n;
+    }
+  }
+
+  // Removes the entry from its bucket.
+  private void unchain(final int entry) {
+    final int bucket = bucket(keys[entry]);
+    int current = buckets[bucket];
+    if (current == entry) {
+      buckets[bucket] = chain[entry];
+      return;
+    }
+    while(chain[current] != entry) {
+      current = chain[current];
+    }
+    chain[current] = chain[entry];
+  }
+}
@@ -0,0 +1,48 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import android.support.annotation.NonNull;
+
+// What ScratchEngine.rayTrace() would otherwise recompute on every hit of a
+// shape, baked by Scene.compile(). The values are computed with the same
+// operations in the same order as the engine, so using them renders the
+// same image.
+//
+// Records belong to the scene they were compiled for, whose lights and
+// camera they depend on, see Scene.records.
+final class ShapeRecord {
+  // Highlight exponent of the shape's material.
+  final double shininess;
+
+  // Normalized half vector between the direction from the camera and the
+  // direction from the i-th light to the shape, at 3 * i. The engine
+  // approximates both directions by the shape's position, so they do not
+  // depend on the hit.
+  @NonNull
+  final double[] halfVectors;
+
+  ShapeRecord(@NonNull final Scene scene, @NonNull final BaseShape shape) {
+    this.shininess = Math.pow(10.0, shape.material.gloss + 1.0);
+
+    final int n = scene.lights.size();
+    this.halfVectors = new double[3 * n];
+    final MutableVector Lv = new MutableVector();
+    final MutableVector E = new MutableVector();
+    for(int i = 0; i < n; i++) {
+      final Light light = scene.lights.get(i);
+      Lv.set(shape.position).sub(light.position).normalize();
+      E.set(scene.camera.position).sub(shape.position).normalize();
+      final MutableVector H = E.sub(Lv).normalize();
+      halfVectors[3 * i] = H.x;
+      halfVectors[3 * i + 1] = H.y;
+      halfVectors[3 * i + 2] = H.z;
+    }
+  }
+}
@@ -11,7 +11,7 @@ package defrac.benchmark.tracer;
 import android.support.annotation.NonNull;
 
 public final class Sphere extends BaseShape {
-  private final double radius;
+  final double radius;
 
   Sphere(@NonNull final Vector pos, final double radius, @NonNull final Materials material) {
     super(pos, material);
@@ -41,6 +41,58 @@ public final class Sphere extends BaseShape {
     return info;
   }
 
+  @Override
+  double intersectDistance(@NonNull final MutableVector origin, @NonNull final MutableVector direction) {
+    final double dx = origin.x - position.x;
+    final double dy = origin.y - position.y;
+    final double dz = origin.z - position.z;
+
+    final double B = dx * direction.x + dy * direction.y + dz * direction.z;
+    final double C = (dx * dx + dy * dy + dz * dz) - (radius * radius);
+    final double D = (B * B) - C;
+
+    return D > 0 ? (-B) - Math.sqrt(D) : Double.NaN;
+  }
+
+  @Override
+  boolean occludes(@NonNull final MutableVector origin, @NonNull final MutableVector direction, final double maxDistance) {
+    final double dx = origin.x - position.x;
+    final double dy = origin.y - position.y;
+    final double dz = origin.z - position.z;
+
+    final double B = dx * direction.x + dy * direction.y + dz * direction.z;
+    if (B > 0) {
+      // The sphere is behind the origin, so (-B) - sqrt(D) < 0.
+      return false;
+    }
+    final double C = (dx * dx + dy * dy + dz * dz) - (radius * radius);
+    final double D = (B * B) - C;
+    if (D <= 0) {
+      return false;
+    }
+    final double distance = (-B) - Math.sqrt(D);
+    return distance >= 0 && distance < maxDistance;
+  }
+
+  @Override
+  boolean getBounds(@NonNull final double[] bounds, final int offset) {
+    bounds[offset] = position.x - radius;
+    bounds[offset + 1] = position.y - radius;
+    bounds[offset + 2] = position.z - radius;
+    bounds[offset + 3] = position.x + radius;
+    bounds[offset + 4] = position.y + radius;
+    bounds[offset + 5] = position.z + radius;
+    return true;
+  }
+
+  @Override
+  void shade(@NonNull final Hit hit, @NonNull final MutableVector origin, @NonNull final MutableVector direction) {
+    hit.shape = this;
+    hit.position.setPointAt(origin, direction, hit.distance);
+    hit.normal.set(hit.position).sub(position).normalize();
+    hit.color = material.getColor(0,0);
+  }
+
   @NonNull
   @Override
   public String toString() {
@@ -0,0 +1,92 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.Random;
+
+// RenderScene's camera, lights and floor with a field of random spheres in
+// front of the camera, for measuring how intersection scales with the
+// number of shapes. The same seed always generates the same scene.
+public final class SphereScene {
+  @NonNull private static final Vector POSITION = new Vector(0.0, 0.0, -15.0);
+  @NonNull private static final Vector LOOK_AT = new Vector(-0.2, 0.0, 5.0);
+  @NonNull private static final Vector UP = new Vector(0.0, 1.0, 0.0);
+  @NonNull private static final Background BACKGROUND = new Background(new Color(0.5, 0.5, 0.5), 0.4);
+  @NonNull private static final Color LIGHT_COLOR = new Color(0.8, 0.8, 0.8);
+  @NonNull private static final Materials.Chessboard FLOOR_MATERIAL = new Materials.Chessboard(
+      new Color(1.0, 1.0, 1.0), new Color(0.0, 0.0, 0.0), 0.2, 0.0, 1.0, 0.7);
+
+  // Spheres share a few materials, like real scenes do.
+  private static final int MATERIALS = 8;
+
+  @NonNull
+  private final Scene scene;
+
+  @NonNull
+  private final ScratchEngine engine;
+
+  // Finds the primary hits instead of the engine if not null.
+  @Nullable
+  private final PacketTracer packets;
+
+  public SphereScene(final int spheres, final long seed, final boolean bvh) {
+    this(spheres, seed, bvh, false);
+  }
+
+  public SphereScene(final int spheres, final long seed, final boolean bvh, final boolean packets) {
+    scene = new Scene();
+    scene.camera = new Camera(POSITION, LOOK_AT, UP);
+    scene.background = BACKGROUND;
+
+    scene.shapes.add(new Plane(new Vector(0.1, 0.9, -0.5).normalize(), 1.2, FLOOR_MATERIAL));
+    addRandomSpheres(scene, spheres, seed);
+
+    scene.lights.add(new Light(new Vector(5.0, 10.0, -1.0), LIGHT_COLOR));
+    scene.lights.add(new Light(new Vector(-3.0, 5.0, -15.0), LIGHT_COLOR, 100.0));
+
+    if (bvh) {
+      scene.buildBvh();
+    }
+    scene.compile();
+
+    engine = new ScratchEngine(100, 100, 2, 2, true, true, true, true, 2);
+    this.packets = packets ? new PacketTracer(scene, engine) : null;
+  }
+
+  // Adds spheres of random size, position and material, out of a few
+  // shared ones, in front of the camera.
+  static void addRandomSpheres(@NonNull final Scene scene, final int spheres, final long seed) {
+    final Random random = new Random(seed);
+    final Materials[] materials = new Materials[MATERIALS];
+    for(int i = 0; i < MATERIALS; i++) {
+      materials[i] = new Materials.Solid(
+          new Color(random.nextDouble(), random.nextDouble(), random.nextDouble()),
+          0.3 * random.nextDouble(), 0.0, 0.0, 1.0 + random.nextDouble());
+    }
+
+    for(int i = 0; i < spheres; i++) {
+      final Vector center = new Vector(
+          16.0 * random.nextDouble() - 8.0,
+          8.0 * random.nextDouble() - 4.0,
+          20.0 * random.nextDouble());
+      final double radius = 0.05 + 0.25 * random.nextDouble();
+      scene.shapes.add(new Sphere(center, radius, materials[random.nextInt(MATERIALS)]));
+    }
+  }
+
+  // Renders the scene and returns the sum of the brightness of all pixels.
+  public int render() {
+    if (packets != null) {
+      return packets.renderTile(null, 0, 0, engine.getCanvasWidth(), engine.getCanvasHeight());
+    }
+    return engine.renderTile(scene, null, 0, 0, engine.getCanvasWidth(), engine.getCanvasHeight());
+  }
+}
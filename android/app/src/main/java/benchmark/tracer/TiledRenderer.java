@@ -0,0 +1,123 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.RequiresApi;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Splits the canvas into square tiles and renders them with ScratchEngine on
+// a ForkJoinPool, whose work stealing balances cheap background tiles
+// against expensive reflective ones. Every tile stores its own checksum and
+// the checksums are added up in tile order afterwards, so the result does
+// not depend on which thread rendered what.
+@RequiresApi(21)
+final class TiledRenderer {
+  // In canvas pixels, i.e. after dividing by the pixel size.
+  static final int DEFAULT_TILE_SIZE = 8;
+
+  @NonNull
+  private final ForkJoinPool pool;
+
+  @NonNull
+  private final ScratchEngine engine;
+
+  private final int tileSize;
+
+  TiledRenderer(@NonNull final ForkJoinPool pool, @NonNull final ScratchEngine engine, final int tileSize) {
+    this.pool = pool;
+    this.engine = engine;
+    this.tileSize = tileSize;
+  }
+
+  // Shared by all renderers, with one worker per core.
+  @NonNull
+  static ForkJoinPool defaultPool() {
+    return DefaultPool.POOL;
+  }
+
+  private static final class DefaultPool {
+    static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+  }
+
+  // 'canvas' can be null if raytracer runs as benchmark. Returns the sum of
+  // the brightness of all pixels.
+  int renderScene(@NonNull final Scene scene, @Nullable final Canvas canvas) {
+    final int checkNumber = render(scene, canvas);
+    if ((canvas == null) && (checkNumber != 55545)) {
+      // Used for benchmarking.
+      throw new RuntimeException("Scene rendered incorrectly - expected <55545>, but was <"+checkNumber+">");
+    }
+    return checkNumber;
+  }
+
+  // Renders every tile, onto canvas unless it is null, and returns the sum
+  // of the brightness of all pixels. Tiles cover disjoint parts of the
+  // canvas, so they can draw concurrently.
+  int render(@NonNull final Scene scene, @Nullable final Canvas canvas) {
+    final int columns = (engine.getCanvasWidth() + tileSize - 1) / tileSize;
+    final int rows = (engine.getCanvasHeight() + tileSize - 1) / tileSize;
+    final int[] checksums = new int[columns * rows];
+
+    // Tiles copy the engine, and with it what prepare() derives from the
+    // scene once.
+    engine.prepare(scene);
+    pool.invoke(new Tiles(scene, canvas, columns, checksums, 0, checksums.length));
+
+    int checkNumber = 0;
+    for(final int checksum : checksums) {
+      checkNumber += checksum;
+    }
+    return checkNumber;
+  }
+
+  // Renders the tiles from <= i < to, halving the range until one is left.
+  private final class Tiles extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    @NonNull
+    private final Scene scene;
+    @Nullable
+    private final Canvas canvas;
+    private final int columns;
+    @NonNull
+    private final int[] checksums;
+    private final int from;
+    private final int to;
+
+    Tiles(@NonNull final Scene scene, @Nullable final Canvas canvas, final int columns,
+          @NonNull final int[] checksums, final int from, final int to) {
+      this.scene = scene;
+      this.canvas = canvas;
+      this.columns = columns;
+      this.checksums = checksums;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > 1) {
+        final int middle = (from + to) >>> 1;
+        invokeAll(new Tiles(scene, canvas, columns, checksums, from, middle),
+            new Tiles(scene, canvas, columns, checksums, middle, to));
+        return;
+      }
+
+      final int x0 = (from % columns) * tileSize;
+      final int y0 = (from / columns) * tileSize;
+      final int x1 = Math.min(x0 + tileSize, engine.getCanvasWidth());
+      final int y1 = Math.min(y0 + tileSize, engine.getCanvasHeight());
+      // ScratchEngine's registers must not be shared between threads.
+      checksums[from] = new ScratchEngine(engine).renderTile(scene, canvas, x0, y0, x1, y1);
+    }
+  }
+}
@@ -0,0 +1,542 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.RequiresApi;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Renders a wave of up to WAVE_SIZE pixels at a time stage by stage,
+// instead of one ray to completion after the other. The camera rays of the
+// wave go into a flat queue; every stage then runs one kind of work over a
+// whole queue: intersecting its rays, shading their hits, which emits the
+// reflection rays into the queue of the next level and a shadow ray per
+// light, and testing the shadow rays. Once no rays are left, the levels are
+// lit from the deepest up. Each stage works on primitive arrays and runs the
+// same code for all rays, so the hot loop stays in the cache instead of
+// alternating between the chessboard and the spheres, and each splits over
+// the pool when there is one.
+//
+// Lighting follows ScratchEngine step by step, so the image is the same.
+// Several samples per pixel and area lights are not supported. An instance
+// must only be used by one thread at a time.
+@RequiresApi(21)
+final class WavefrontRenderer {
+  // Pixels per wave, which bounds the size of the queues.
+  static final int WAVE_SIZE = 1 << 14;
+
+  // Stages split into ranges of this many rays.
+  private static final int GRAIN = 512;
+
+  // Hits at this distance or farther are ignored, as in Engine.
+  private static final double MAX_DISTANCE = 2000.0;
+
+  private static final int GENERATE = 0;
+  private static final int INTERSECT = 1;
+  private static final int SHADE = 2;
+  private static final int SHADOW = 3;
+  private static final int ILLUMINATE = 4;
+
+  @Nullable
+  private final ForkJoinPool pool;
+
+  private final int canvasWidth;
+  private final int canvasHeight;
+  private final int pixelWidth;
+  private final int pixelHeight;
+  private final boolean renderDiffuse;
+  private final boolean renderShadows;
+  private final boolean renderHighlights;
+  private final boolean renderReflections;
+  private final int rayDepth;
+
+  // Queue of every level of reflection, created when first reached.
+  @NonNull
+  private final RayQueue[] queues;
+
+  // Shadow directions of the level being shaded, one per ray and light.
+  @Nullable
+  private double[] shadowX, shadowY, shadowZ;
+
+  // Scratch registers of stages that run on the calling thread.
+  @NonNull
+  private final Lane lane = new Lane();
+
+  // What the stages work on.
+  private Scene scene;
+  private int lights;
+  private boolean anyHitShadows;
+  private int waveStart;
+
+  // The rays of one level of reflection, their hits and colors.
+  private static final class RayQueue {
+    int count;
+
+    @NonNull final double[] originX, originY, originZ;
+    @NonNull final double[] directionX, directionY, directionZ;
+
+    // The shape the ray starts from, which it cannot hit.
+    @NonNull final BaseShape[] exclude;
+
+    // The closest hit, its index in Scene.shapes and its distance, null if
+    // the ray hit nothing.
+    @NonNull final BaseShape[] shape;
+    @NonNull final int[] shapeIndex;
+    @NonNull final double[] distance;
+
+    // Shading of the hit.
+    @NonNull final double[] positionX, positionY, positionZ;
+    @NonNull final double[] normalX, normalY, normalZ;
+    @NonNull final Color[] color;
+
+    // Whether the hit reflects and the index of the reflected ray in the
+    // next queue. Its color is the one blended in.
+    @NonNull final boolean[] reflects;
+    @NonNull final int[] child;
+
+    // The closest or any blocker between the hit and every light, or null.
+    @NonNull final BaseShape[] blockers;
+
+    // The color of the ray.
+    @NonNull final double[] red, green, blue;
+
+    RayQueue(final int capacity, final int lights) {
+      originX = new double[capacity];
+      originY = new double[capacity];
+      originZ = new double[capacity];
+      directionX = new double[capacity];
+      directionY = new double[capacity];
+      directionZ = new double[capacity];
+      exclude = new BaseShape[capacity];
+      shape = new BaseShape[capacity];
+      shapeIndex = new int[capacity];
+      distance = new double[capacity];
+      positionX = new double[capacity];
+      positionY = new double[capacity];
+      positionZ = new double[capacity];
+      normalX = new double[capacity];
+      normalY = new double[capacity];
+      normalZ = new double[capacity];
+      color = new Color[capacity];
+      reflects = new boolean[capacity];
+      child = new int[capacity];
+      blockers = new BaseShape[capacity * lights];
+      red = new double[capacity];
+      green = new double[capacity];
+      blue = new double[capacity];
+    }
+  }
+
+  // Registers of a range of a stage.
+  private static final class Lane {
+    @NonNull final MutableVector origin = new MutableVector();
+    @NonNull final MutableVector direction = new MutableVector();
+    @NonNull final MutableVector light = new MutableVector();
+    @NonNull final MutableVector half = new MutableVector();
+    @NonNull final MutableVector eye = new MutableVector();
+    @NonNull final MutableColor color = new MutableColor();
+    @NonNull final Hit hit = new Hit();
+    @NonNull final int[] stack = new int[Bvh.STACK_SIZE];
+  }
+
+  // Without a pool, every stage runs on the calling thread.
+  WavefrontRenderer(@Nullable final ForkJoinPool pool,
+                    final int canvasWidth, final int canvasHeight,
+                    final int pixelWidth, final int pixelHeight,
+                    final boolean renderDiffuse, final boolean renderShadows,
+                    final boolean renderHighlights, final boolean renderReflections,
+                    final int rayDepth) {
+    this.pool = pool;
+    this.canvasWidth = canvasWidth / pixelWidth;
+    this.canvasHeight = canvasHeight / pixelHeight;
+    this.pixelWidth = pixelWidth;
+    this.pixelHeight = pixelHeight;
+    this.renderDiffuse = renderDiffuse;
+    this.renderShadows = renderShadows;
+    this.renderHighlights = renderHighlights;
+    this.renderReflections = renderReflections;
+    this.rayDepth = rayDepth;
+    this.queues = new RayQueue[rayDepth + 2];
+  }
+
+  // 'canvas' can be null if raytracer runs as benchmark. Returns the sum of
+  // the brightness of all pixels.
+  int renderScene(@NonNull final Scene scene, @Nullable final Canvas canvas) {
+    final int checkNumber = render(scene, canvas);
+    if ((canvas == null) && (checkNumber != 55545)) {
+      // Used for benchmarking.
+      throw new RuntimeException("Scene rendered incorrectly - expected <55545>, but was <"+checkNumber+">");
+    }
+    return checkNumber;
+  }
+
+  // Renders onto canvas unless it is null and returns the sum of the
+  // brightness of all pixels.
+  int render(@NonNull final Scene scene, @Nullable final Canvas canvas) {
+    if (scene.hasAreaLights()) {
+      throw new IllegalArgumentException("Cannot render area lights");
+    }
+    prepare(scene);
+    final int pixels = canvasWidth * canvasHeight;
+    final MutableColor color = lane.color;
+    int checkNumber = 0;
+
+    for(waveStart = 0; waveStart < pixels; waveStart += WAVE_SIZE){
+      final RayQueue primary = queue(0);
+      primary.count = Math.min(WAVE_SIZE, pixels - waveStart);
+      run(GENERATE, 0, primary.count);
+
+      // Trace down the levels while there are reflected rays.
+      int top = 0;
+      while(true) {
+        final RayQueue queue = queues[top];
+        run(INTERSECT, top, queue.count);
+        final boolean reflecting = top <= rayDepth && renderReflections && lights > 0;
+        if (reflecting) {
+          // Shading writes the reflected rays at the index of their parent.
+          queue(top + 1);
+        }
+        run(SHADE, top, queue.count);
+        if (renderShadows) {
+          run(SHADOW, top, queue.count * lights);
+        }
+        if (!reflecting || compact(top) == 0) {
+          break;
+        }
+        ++top;
+      }
+
+      for(int level = top; level >= 0; level--){
+        run(ILLUMINATE, level, queues[level].count);
+      }
+
+      for(int i = 0; i < primary.count; i++){
+        final int pixel = waveStart + i;
+        final int x = pixel % canvasWidth;
+        final int y = pixel / canvasWidth;
+        color.set(primary.red[i], primary.green[i], primary.blue[i]);
+        if (canvas != null) {
+          canvas.fillRect(x * pixelWidth, y * pixelHeight, pixelWidth, pixelHeight, color.toArgb());
+        }
+        checkNumber += color.brightness();
+      }
+    }
+    this.scene = null;
+    return checkNumber;
+  }
+
+  private void prepare(@NonNull final Scene scene) {
+    this.scene = scene;
+    this.anyHitShadows = scene.hasUniformTransparency();
+    if (lights != scene.lights.size()) {
+      // The blockers of the queues are sized for the old number of lights.
+      lights = scene.lights.size();
+      for(int i = 0; i < queues.length; i++){
+        queues[i] = null;
+      }
+      shadowX = null;
+    }
+    final int capacity = Math.min(WAVE_SIZE, canvasWidth * canvasHeight) * lights;
+    if (shadowX == null || shadowX.length < capacity) {
+      shadowX = new double[capacity];
+      shadowY = new double[capacity];
+      shadowZ = new double[capacity];
+    }
+  }
+
+  @NonNull
+  private RayQueue queue(final int level) {
+    RayQueue queue = queues[level];
+    if (queue == null) {
+      queue = new RayQueue(Math.min(WAVE_SIZE, canvasWidth * canvasHeight), lights);
+      queues[level] = queue;
+    }
+    return queue;
+  }
+
+  // Moves the reflected rays of level to the front of the next queue,
+  // keeping their order, and returns how many there are.
+  private int compact(final int level) {
+    final RayQueue queue = queues[level];
+    final RayQueue next = queues[level + 1];
+    int count = 0;
+    for(int i = 0; i < queue.count; i++){
+      if (!queue.reflects[i]) {
+        queue.child[i] = -1;
+        continue;
+      }
+      if (count != i) {
+        next.originX[count] = next.originX[i];
+        next.originY[count] = next.originY[i];
+        next.originZ[count] = next.originZ[i];
+        next.directionX[count] = next.directionX[i];
+        next.directionY[count] = next.directionY[i];
+        next.directionZ[count] = next.directionZ[i];
+        next.exclude[count] = next.exclude[i];
+      }
+      queue.child[i] = count++;
+    }
+    next.count = count;
+    return count;
+  }
+
+  // Runs stage over from <= i < to of level, split over the pool if there
+  // is one and the range is large enough.
+  private void run(final int stage, final int level, final int count) {
+    if (pool == null || count <= GRAIN) {
+      run(stage, level, lane, 0, count);
+    } else {
+      pool.invoke(new Split(stage, level, 0, count));
+    }
+  }
+
+  private final class Split extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int stage;
+    private final int level;
+    private final int from;
+    private final int to;
+
+    Split(final int stage, final int level, final int from, final int to) {
+      this.stage = stage;
+      this.level = level;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > GRAIN) {
+        final int middle = (from + to) >>> 1;
+        invokeAll(new Split(stage, level, from, middle), new Split(stage, level, middle, to));
+        return;
+      }
+      run(stage, level, new Lane(), from, to);
+    }
+  }
+
+  private void run(final int stage, final int level, @NonNull final Lane lane, final int from, final int to) {
+    switch(stage) {
+      case GENERATE: generate(lane, from, to); break;
+      case INTERSECT: intersect(level, lane, from, to); break;
+      case SHADE: shade(level, lane, from, to); break;
+      case SHADOW: shadow(level, lane, from, to); break;
+      default: illuminate(level, lane, from, to); break;
+    }
+  }
+
+  // Camera rays of the wave's pixels.
+  private void generate(@NonNull final Lane lane, final int from, final int to) {
+    final RayQueue queue = queues[0];
+    final MutableVector origin = lane.origin;
+    final MutableVector direction = lane.direction;
+    for(int i = from; i < to; i++){
+      final int pixel = waveStart + i;
+      final int x = pixel % canvasWidth;
+      final int y = pixel / canvasWidth;
+      double yp = (double)y / (double)canvasHeight * 2.0 - 1.0;
+      double xp = (double)x / (double)canvasWidth * 2.0 - 1.0;
+      scene.camera.getRay(xp, yp, origin, direction);
+      queue.originX[i] = origin.x;
+      queue.originY[i] = origin.y;
+      queue.originZ[i] = origin.z;
+      queue.directionX[i] = direction.x;
+      queue.directionY[i] = direction.y;
+      queue.directionZ[i] = direction.z;
+      queue.exclude[i] = null;
+    }
+  }
+
+  // Closest hits. Like ScratchEngine, reflected rays must hit in front of
+  // their origin.
+  private void intersect(final int level, @NonNull final Lane lane, final int from, final int to) {
+    final RayQueue queue = queues[level];
+    final MutableVector origin = lane.origin;
+    final MutableVector direction = lane.direction;
+    final Hit hit = lane.hit;
+    for(int i = from; i < to; i++){
+      origin.set(queue.originX[i], queue.originY[i], queue.originZ[i]);
+      direction.set(queue.directionX[i], queue.directionY[i], queue.directionZ[i]);
+      BaseShape shape = scene.testIntersection(origin, direction, queue.exclude[i], MAX_DISTANCE, hit, lane.stack);
+      if (level > 0 && shape != null && hit.distance <= 0.0) {
+        shape = null;
+      }
+      queue.shape[i] = shape;
+      queue.shapeIndex[i] = hit.index;
+      queue.distance[i] = hit.distance;
+    }
+  }
+
+  // Shades the hits and emits their reflected rays, at the same index of
+  // the next queue, and their shadow rays.
+  private void shade(final int level, @NonNull final Lane lane, final int from, final int to) {
+    final RayQueue queue = queues[level];
+    final RayQueue next = (level + 1 < queues.length) ? queues[level + 1] : null;
+    final boolean reflecting = level <= rayDepth && renderReflections && lights > 0;
+    final MutableVector origin = lane.origin;
+    final MutableVector direction = lane.direction;
+    final MutableVector v = lane.light;
+    final Hit hit = lane.hit;
+    for(int i = from; i < to; i++){
+      final BaseShape shape = queue.shape[i];
+      if (shape == null) {
+        queue.reflects[i] = false;
+        continue;
+      }
+      origin.set(queue.originX[i], queue.originY[i], queue.originZ[i]);
+      direction.set(queue.directionX[i], queue.directionY[i], queue.directionZ[i]);
+      hit.distance = queue.distance[i];
+      shape.shade(hit, origin, direction);
+      final MutableVector P = hit.position;
+      final MutableVector N = hit.normal;
+      queue.positionX[i] = P.x;
+      queue.positionY[i] = P.y;
+      queue.positionZ[i] = P.z;
+      queue.normalX[i] = N.x;
+      queue.normalY[i] = N.y;
+      queue.normalZ[i] = N.z;
+      queue.color[i] = hit.color;
+
+      queue.reflects[i] = reflecting && shape.material.reflection > 0.0;
+      if (queue.reflects[i]) {
+        final MutableVector V = direction;
+        double c1 = -N.dot(V);
+        next.originX[i] = P.x;
+        next.originY[i] = P.y;
+        next.originZ[i] = P.z;
+        next.directionX[i] = N.x * (2*c1) + V.x;
+        next.directionY[i] = N.y * (2*c1) + V.y;
+        next.directionZ[i] = N.z * (2*c1) + V.z;
+        next.exclude[i] = shape;
+      }
+
+      if (renderShadows) {
+        for(int l = 0; l < lights; l++){
+          v.set(scene.lights.get(l).position).sub(P).normalize();
+          final int k = i * lights + l;
+          shadowX[k] = v.x;
+          shadowY[k] = v.y;
+          shadowZ[k] = v.z;
+        }
+      }
+    }
+  }
+
+  // Blockers of the shadow rays from <= k < to, of ray k / lights towards
+  // light k % lights.
+  private void shadow(final int level, @NonNull final Lane lane, final int from, final int to) {
+    final RayQueue queue = queues[level];
+    final MutableVector origin = lane.origin;
+    final MutableVector direction = lane.direction;
+    for(int k = from; k < to; k++){
+      final int i = k / lights;
+      final BaseShape shape = queue.shape[i];
+      if (shape == null) {
+        continue;
+      }
+      origin.set(queue.positionX[i], queue.positionY[i], queue.positionZ[i]);
+      direction.set(shadowX[k], shadowY[k], shadowZ[k]);
+      queue.blockers[k] = anyHitShadows
+          ? scene.occluder(origin, direction, shape, MAX_DISTANCE, lane.stack)
+          : scene.testIntersection(origin, direction, shape, MAX_DISTANCE, lane.hit, lane.stack);
+    }
+  }
+
+  // Colors the rays, blending in the colors of the next level, which must
+  // have been lit already. ScratchEngine.illuminate() step by step.
+  private void illuminate(final int level, @NonNull final Lane lane, final int from, final int to) {
+    final RayQueue queue = queues[level];
+    final RayQueue next = (level + 1 < queues.length) ? queues[level + 1] : null;
+    final Color background = scene.background.color;
+    final MutableVector P = lane.origin;
+    final MutableVector N = lane.direction;
+    final MutableVector v = lane.light;
+    final MutableColor color = lane.color;
+    for(int i = from; i < to; i++){
+      final BaseShape shape = queue.shape[i];
+      if (shape == null) {
+        queue.red[i] = background.red;
+        queue.green[i] = background.green;
+        queue.blue[i] = background.blue;
+        continue;
+      }
+      final Materials material = shape.material;
+      final Color hitColor = queue.color[i];
+      final ShapeRecord record = scene.record(queue.shapeIndex[i]);
+      P.set(queue.positionX[i], queue.positionY[i], queue.positionZ[i]);
+      N.set(queue.normalX[i], queue.normalY[i], queue.normalZ[i]);
+
+      // Calc ambient
+      color.set(hitColor).multiplyScalar(scene.background.ambience);
+      double shininess = (record != null) ? record.shininess : Math.pow(10.0, material.gloss + 1.0);
+
+      for(int l = 0; l < lights; l++){
+        final Light light = scene.lights.get(l);
+
+        // Calc diffuse lighting
+        v.set(light.position).sub(P).normalize();
+
+        if (renderDiffuse) {
+          double L = v.dot(N);
+          if (L > 0.0) {
+            color.addProduct(hitColor, light.color, L);
+          }
+        }
+
+        // Reflection, the color of the reflected ray
+        if (queue.reflects[i]) {
+          final int c = queue.child[i];
+          color.blend(next.red[c], next.green[c], next.blue[c], material.reflection);
+        }
+
+        boolean shadowed = false;
+
+        if (renderShadows) {
+          final BaseShape blocker = queue.blockers[i * lights + l];
+          if (blocker != null) {
+            shadowed = true;
+            color.multiplyScalar(0.5).addScalar(0.5 * Math.pow(blocker.material.transparency, 0.5));
+          }
+        }
+        // Phong specular highlights
+        if (renderHighlights &&
+            !shadowed &&
+            (material.gloss > 0.0)) {
+          final MutableVector H;
+          if (record != null) {
+            H = lane.half.set(record.halfVectors[3 * l], record.halfVectors[3 * l + 1],
+                record.halfVectors[3 * l + 2]);
+          } else {
+            final MutableVector Lv = lane.half.set(shape.position).sub(light.position).normalize();
+
+            final MutableVector E = lane.eye.set(scene.camera.position).sub(shape.position).normalize();
+
+            H = E.sub(Lv).normalize();
+          }
+
+          double glossWeight = Math.pow(Math.max(N.dot(H), 0.0), shininess);
+          color.addScaled(light.color, glossWeight);
+        }
+      }
+      color.limit();
+      queue.red[i] = color.red;
+      queue.green[i] = color.green;
+      queue.blue[i] = color.blue;
+    }
+  }
+
+  @Override
+  @NonNull
+  public String toString() {
+    return "WavefrontRenderer [canvasWidth: "+canvasWidth+", canvasHeight: "+canvasHeight+"]";
+  }
+}
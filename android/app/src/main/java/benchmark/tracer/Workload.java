@@ -0,0 +1,100 @@
+// The ray tracer code in this file is written by Adam Burmister. It
+// is available in its original form from:
+//
+//   http://labs.flog.co.nz/raytracer/
+//
+// Ported from the v8 benchmark suite by Google 2012.
+//
+// Translated from Dart's ton80 benchmark suite to Java
+package defrac.benchmark.tracer;
+
+import android.support.annotation.NonNull;
+
+// Canned scenes from the benchmark's own up to a 4K frame of ten thousand
+// spheres, for profiling how rendering scales with resolution, recursion
+// depth and the number of shapes. Every step raises all three. SOFT
+// instead raises the work per pixel, DEEP the depth alone.
+public enum Workload {
+  // The benchmark: 100x100 in blocks of 5x5 pixels, three shapes.
+  TINY(100, 100, 5, 2, 0, 1, 0.0),
+
+  // The benchmark scene one ray per pixel.
+  SMALL(320, 240, 1, 2, 0, 1, 0.0),
+  VGA(640, 480, 1, 3, 0, 1, 0.0),
+
+  // The benchmark scene in a field of random spheres.
+  HD(1280, 720, 1, 3, 100, 1, 0.0),
+  FULL_HD(1920, 1080, 1, 4, 1000, 1, 0.0),
+  UHD(3840, 2160, 1, 5, 10000, 1, 0.0),
+
+  // The benchmark scene antialiased with 16 rays per pixel and lit by area
+  // lights, so that the shadows are soft. Needs the SCRATCH or TILED mode.
+  SOFT(320, 240, 1, 2, 0, 16, 1.0),
+
+  // The benchmark scene with a dozen levels of reflection, which Engine
+  // traces again for every light at every level.
+  DEEP(320, 240, 1, 12, 0, 1, 0.0);
+
+  // Seed of the random spheres and samples, so that every run renders the
+  // same image.
+  private static final long SEED = 42L;
+
+  public final int width;
+  public final int height;
+  public final int pixelSize;
+  public final int rayDepth;
+  public final int randomSpheres;
+  public final int samples;
+
+  // Radius of the lights, 0.0 for point lights.
+  public final double lightRadius;
+
+  Workload(final int width, final int height, final int pixelSize, final int rayDepth, final int randomSpheres,
+           final int samples, final double lightRadius) {
+    this.width = width;
+    this.height = height;
+    this.pixelSize = pixelSize;
+    this.rayDepth = rayDepth;
+    this.randomSpheres = randomSpheres;
+    this.samples = samples;
+    this.lightRadius = lightRadius;
+  }
+
+  // Returns a new description of this workload.
+  @NonNull
+  public SceneDescription describe() {
+    final SceneDescription description = benchmarkScene(lightRadius)
+        .size(width, height)
+        .pixelSize(pixelSize)
+        .rayDepth(rayDepth)
+        .samples(samples)
+        .seed(SEED);
+    if (randomSpheres > 0) {
+      description.randomSpheres(randomSpheres, SEED).bvh(true);
+    }
+    return description;
+  }
+
+  // The scene of RenderScene, with every feature enabled, and area lights if
+  // lightRadius is positive.
+  @NonNull
+  static SceneDescription benchmarkScene(final double lightRadius) {
+    final SceneDescription description = new SceneDescription()
+        .camera(0.0, 0.0, -15.0, -0.2, 0.0, 5.0, 0.0, 1.0, 0.0)
+        .background(0.5, 0.5, 0.5, 0.4)
+        .chessboard("floor", 1.0, 1.0, 1.0, 0.0, 0.0, 0.0, 0.2, 0.0, 1.0, 0.7)
+        .solid("teal", 0.0, 0.5, 0.5, 0.3, 0.0, 0.0, 2.0)
+        .solid("white", 0.9, 0.9, 0.9, 0.1, 0.0, 0.0, 1.5)
+        .plane(0.1, 0.9, -0.5, 1.2, "floor")
+        .sphere(-1.5, 1.5, 2.0, 1.5, "teal")
+        .sphere(1.0, 0.25, 1.0, 0.5, "white");
+    if (lightRadius > 0.0) {
+      return description
+          .areaLight(5.0, 10.0, -1.0, 0.8, 0.8, 0.8, lightRadius)
+          .areaLight(-3.0, 5.0, -15.0, 0.8, 0.8, 0.8, lightRadius);
+    }
+    return description
+        .light(5.0, 10.0, -1.0, 0.8, 0.8, 0.8)
+        .light(-3.0, 5.0, -15.0, 0.8, 0.8, 0.8, 100.0);
+  }
+}
@@ -0,0 +1,51 @@
+package com.nabinbhandari.flutterbenchmark;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Debug;
+
+import defrac.benchmark.MemoryProbe;
+
+// MemoryProbe reading ART's runtime statistics. They count allocations of
+// all threads, which is close enough while a benchmark runs alone. Before
+// Marshmallow the deprecated global allocation counters are used instead.
+final class ArtMemoryProbe extends MemoryProbe {
+    private static final boolean RUNTIME_STATS = Build.VERSION.SDK_INT >= Build.VERSION_CODES.M;
+
+    @SuppressWarnings("deprecation")
+    ArtMemoryProbe() {
+        if (!RUNTIME_STATS) {
+            Debug.startAllocCounting();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public long allocatedBytes() {
+        return RUNTIME_STATS ? runtimeStat("art.gc.bytes-allocated") : Debug.getGlobalAllocSize();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public long gcCount() {
+        return RUNTIME_STATS ? runtimeStat("art.gc.gc-count") : Debug.getGlobalGcInvocationCount();
+    }
+
+    @Override
+    public long gcTimeMillis() {
+        return RUNTIME_STATS ? runtimeStat("art.gc.gc-time") : -1L;
+    }
+
+    @TargetApi(Build.VERSION_CODES.M)
+    private static long runtimeStat(String name) {
+        final String value = Debug.getRuntimeStat(name);
+        if (value == null) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.nabinbhandari.flutterbenchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import defrac.benchmark.Options;
+import defrac.benchmark.Result;
+import defrac.benchmark.Throughput;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel;
+
+// Lets the Flutter side run the Java suite in the background.
+//
+// Dart calls "run" with an optional list of benchmark names and "cancel".
+// Progress is streamed back by invoking "progress", "result", "throughput"
+// and finally one of "finished", "cancelled" or "error" on the Dart side.
+final class BenchmarkChannel implements MethodChannel.MethodCallHandler, BenchmarkExecutor.Listener {
+    static final String NAME = "flutterbenchmark/java";
+
+    private final MethodChannel channel;
+    private final BenchmarkExecutor executor = BenchmarkExecutor.get();
+
+    BenchmarkChannel(BinaryMessenger messenger) {
+        channel = new MethodChannel(messenger, NAME);
+        channel.setMethodCallHandler(this);
+    }
+
+    void dispose() {
+        executor.cancel(this);
+        channel.setMethodCallHandler(null);
+    }
+
+    @Override
+    public void onMethodCall(MethodCall call, MethodChannel.Result result) {
+        switch (call.method) {
+            case "run":
+                if (executor.isRunning()) {
+                    result.error("busy", "A benchmark run is already in progress", null);
+                    return;
+                }
+                final Options options = new Options();
+                final List<String> names = call.argument("benchmarks");
+                if (names != null && !names.isEmpty()) {
+                    options.benchmarks = names.toArray(new String[names.size()]);
+                }
+                executor.start(options, this);
+                result.success(null);
+                break;
+            case "cancel":
+                executor.cancel(this);
+                result.success(null);
+                break;
+            default:
+                result.notImplemented();
+                break;
+        }
+    }
+
+    @Override
+    public void onProgress(String name, int completed, int total) {
+        final Map<String, Object> arguments = new HashMap<>();
+        arguments.put("name", name);
+        arguments.put("completed", completed);
+        arguments.put("total", total);
+        channel.invokeMethod("progress", arguments);
+    }
+
+    @Override
+    public void onResult(Result result) {
+        final Map<String, Object> arguments = new HashMap<>();
+        arguments.put("name", result.name);
+        arguments.put("elapsedUs", toList(result.elapsedUs));
+        arguments.put("runsPerSec", toList(result.scores()));
+        channel.invokeMethod("result", arguments);
+    }
+
+    @Override
+    public void onThroughput(Throughput throughput) {
+        final Map<String, Object> arguments = new HashMap<>();
+        arguments.put("name", throughput.name);
+        arguments.put("singleRunsPerSec", throughput.singleRunsPerSec);
+        arguments.put("threadRunsPerSec", toList(throughput.threadRunsPerSec));
+        channel.invokeMethod("throughput", arguments);
+    }
+
+    @Override
+    public void onFinished(boolean passed) {
+        channel.invokeMethod("finished", passed);
+    }
+
+    @Override
+    public void onCancelled() {
+        channel.invokeMethod("cancelled", null);
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        channel.invokeMethod("error", String.valueOf(error));
+    }
+
+    private static List<Double> toList(double[] values) {
+        final List<Double> list = new ArrayList<>(values.length);
+        for (double value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,169 @@
+package com.nabinbhandari.flutterbenchmark;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import java.util.concurrent.CancellationException;
+
+import defrac.benchmark.AllBenchmarks;
+import defrac.benchmark.Launcher;
+import defrac.benchmark.Options;
+import defrac.benchmark.Reporter;
+import defrac.benchmark.Result;
+import defrac.benchmark.RunMetadata;
+import defrac.benchmark.Throughput;
+
+// Runs the suite on a dedicated thread so that the UI stays responsive and
+// the main looper does not interfere with the measurements. Results are
+// still logged as "[benchmark] Java - " lines and are additionally posted to
+// the listener on the main thread as each benchmark completes.
+//
+// There is one executor for the whole app, so that the activities cannot
+// start runs that compete with each other for the cores.
+final class BenchmarkExecutor {
+    private static final BenchmarkExecutor INSTANCE = new BenchmarkExecutor();
+
+    // Fixed for the whole run so that the scheduler does not change the
+    // priority of the benchmark thread while it is measured.
+    private static final int PRIORITY = Process.THREAD_PRIORITY_FOREGROUND;
+
+    interface Listener {
+        void onProgress(String name, int completed, int total);
+
+        void onResult(Result result);
+
+        void onThroughput(Throughput throughput);
+
+        void onFinished(boolean passed);
+
+        void onCancelled();
+
+        void onError(Throwable error);
+    }
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private Thread thread;
+
+    // Listener of the run started last.
+    private Listener owner;
+
+    private BenchmarkExecutor() {
+    }
+
+    static BenchmarkExecutor get() {
+        return INSTANCE;
+    }
+
+    // Whether any run is in progress, whoever started it.
+    boolean isRunning() {
+        return thread != null && thread.isAlive();
+    }
+
+    // Must be called on the main thread.
+    void start(final Options options, final Listener listener) {
+        if (isRunning()) {
+            throw new IllegalStateException("A benchmark run is already in progress");
+        }
+        owner = listener;
+        thread = new Thread(null, new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(PRIORITY);
+                execute(options, listener);
+            }
+        }, "benchmark", Launcher.STACK_SIZE);
+        thread.start();
+    }
+
+    // Stops the current run after the repetition in progress if it was
+    // started with listener. Must be called on the main thread.
+    void cancel(Listener listener) {
+        if (thread != null && owner == listener) {
+            thread.interrupt();
+        }
+    }
+
+    private void execute(final Options options, final Listener listener) {
+        final Reporter reporter = new ForwardingReporter(options.benchmarks.length, listener);
+        try {
+            final boolean passed = AllBenchmarks.run(options, reporter);
+            System.err.println("[benchmark] java - completed.");
+            post(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onFinished(passed);
+                }
+            });
+        } catch (CancellationException e) {
+            System.err.println("[benchmark] java - cancelled.");
+            post(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onCancelled();
+                }
+            });
+        } catch (final RuntimeException | Error e) {
+            post(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onError(e);
+                }
+            });
+        }
+    }
+
+    private void post(Runnable runnable) {
+        mainHandler.post(runnable);
+    }
+
+    // Logs every result like AllBenchmarks.main() and passes it on.
+    private final class ForwardingReporter extends Reporter {
+        private final Reporter log = Reporter.create(Reporter.FORMAT_TEXT, System.out);
+        private final int total;
+        private final Listener listener;
+        private int completed;
+
+        ForwardingReporter(int total, Listener listener) {
+            this.total = total;
+            this.listener = listener;
+        }
+
+        @Override
+        public void begin(RunMetadata metadata) {
+            log.begin(metadata);
+        }
+
+        @Override
+        public void report(final Result result) {
+            log.report(result);
+            final int count = ++completed;
+            post(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onResult(result);
+                    listener.onProgress(result.name, count, total);
+                }
+            });
+        }
+
+        @Override
+        public void reportThroughput(final Throughput throughput) {
+            log.reportThroughput(throughput);
+            final int count = ++completed;
+            post(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onThroughput(throughput);
+                    listener.onProgress(throughput.name, count, total);
+                }
+            });
+        }
+
+        @Override
+        public void end() {
+            log.end();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.nabinbhandari.flutterbenchmark;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+
+import defrac.benchmark.tracer.Canvas;
+
+// Hands a tracer framebuffer to Android as a Bitmap.
+final class CanvasBitmaps {
+
+    private CanvasBitmaps() {
+    }
+
+    // Returns a new ARGB_8888 bitmap with the pixels of the canvas. A direct
+    // canvas is already laid out the way the bitmap stores its pixels and is
+    // copied without conversion.
+    @NonNull
+    static Bitmap toBitmap(@NonNull Canvas canvas) {
+        int[] pixels = canvas.pixels();
+        if (pixels != null) {
+            return Bitmap.createBitmap(pixels, canvas.width, canvas.height, Bitmap.Config.ARGB_8888);
+        }
+        Bitmap bitmap = Bitmap.createBitmap(canvas.width, canvas.height, Bitmap.Config.ARGB_8888);
+        ByteBuffer buffer = canvas.buffer().duplicate();
+        buffer.rewind();
+        bitmap.copyPixelsFromBuffer(buffer);
+        return bitmap;
+    }
+
+    // Copies the pixels of the canvas into a mutable ARGB_8888 bitmap of the
+    // same size, so a view can show a frame that is still being rendered.
+    static void copy(@NonNull Canvas canvas, @NonNull Bitmap bitmap) {
+        int[] pixels = canvas.pixels();
+        if (pixels != null) {
+            bitmap.setPixels(pixels, 0, canvas.width, 0, 0, canvas.width, canvas.height);
+            return;
+        }
+        ByteBuffer buffer = canvas.buffer().duplicate();
+        buffer.rewind();
+        bitmap.copyPixelsFromBuffer(buffer);
+    }
+}
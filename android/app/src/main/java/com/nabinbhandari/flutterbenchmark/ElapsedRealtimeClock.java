@@ -0,0 +1,21 @@
+package com.nabinbhandari.flutterbenchmark;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.SystemClock;
+
+import defrac.benchmark.Clock;
+
+// Monotonic clock that keeps counting while the device is in deep sleep.
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+final class ElapsedRealtimeClock implements Clock {
+    @Override
+    public long nanoTime() {
+        return SystemClock.elapsedRealtimeNanos();
+    }
+
+    @Override
+    public String toString() {
+        return "SystemClock.elapsedRealtimeNanos";
+    }
+}
@@ -5,9 +5,18 @@ import io.flutter.app.FlutterActivity;
 import io.flutter.plugins.GeneratedPluginRegistrant;
 
 public class MainActivity extends FlutterActivity {
+  private BenchmarkChannel benchmarkChannel;
+
   @Override
   protected void onCreate(Bundle savedInstanceState) {
     super.onCreate(savedInstanceState);
     GeneratedPluginRegistrant.registerWith(this);
+    benchmarkChannel = new BenchmarkChannel(getFlutterView());
+  }
+
+  @Override
+  protected void onDestroy() {
+    benchmarkChannel.dispose();
+    super.onDestroy();
   }
 }
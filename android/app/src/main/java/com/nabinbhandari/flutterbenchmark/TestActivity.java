@@ -2,8 +2,14 @@ package com.nabinbhandari.flutterbenchmark;
 
 import android.app.Activity;
 import android.content.Intent;
+import android.graphics.Bitmap;
+import android.os.Build;
 import android.os.Bundle;
+import android.view.Choreographer;
 import android.view.View;
+import android.widget.Button;
+import android.widget.ImageView;
+import android.widget.TextView;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
@@ -11,9 +17,17 @@ import android.os.Message;
 import defrac.benchmark.DeltaBlue;
 import defrac.benchmark.FluidMotion;
 import defrac.benchmark.Havlak;
+import defrac.benchmark.MemoryProbe;
+import defrac.benchmark.Options;
+import defrac.benchmark.Result;
 import defrac.benchmark.Richards;
+import defrac.benchmark.Stopwatch;
+import defrac.benchmark.Throughput;
 import defrac.benchmark.Tracer;
-import defrac.benchmark.AllBenchmarks;
+import defrac.benchmark.tracer.Canvas;
+import defrac.benchmark.tracer.ProgressiveRenderer;
+import defrac.benchmark.tracer.SceneDescription;
+import defrac.benchmark.tracer.Workload;
 import io.flutter.embedding.engine.FlutterEngine;
 import io.flutter.embedding.engine.dart.DartExecutor;
 import io.flutter.view.FlutterMain;
@@ -28,12 +42,44 @@ public class TestActivity extends Activity {
     public static final int MSG_RUN_JAVA = 1;
     public static final int MSG_RUN_NATIVE = 2;
 
-    MainHandler handler = new MainHandler();;
+    MainHandler handler = new MainHandler();
+
+    private final BenchmarkExecutor executor = BenchmarkExecutor.get();
+
+    // Listener of the run this activity started, while it is in progress.
+    private BenchmarkExecutor.Listener run;
+
+    private Button javaButton;
+    private TextView status;
+    private ImageView frame;
+
+    // Leaves the main thread time to draw within a 60 fps frame.
+    private static final long RENDER_BUDGET_NANOS = 8000000L;
+
+    private ProgressiveRenderer renderer;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_test);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            Stopwatch.setDefaultClock(new ElapsedRealtimeClock());
+        }
+        MemoryProbe.setDefault(new ArtMemoryProbe());
+
+        javaButton = findViewById(R.id.java);
+        status = findViewById(R.id.status);
+        frame = findViewById(R.id.frame);
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (run != null) {
+            executor.cancel(run);
+        }
+        renderer = null;
+        super.onDestroy();
     }
 
     private class MainHandler extends Handler {
@@ -75,9 +121,89 @@ public class TestActivity extends Activity {
         handler.sendMessage(msg);
     }
 
+    // Renders a frame of the tracer progressively on the main thread, a
+    // slice of every frame at a time, and shows it as it refines.
+    public void onClickRender(View view) {
+        if (renderer != null) {
+            return;
+        }
+        SceneDescription description = Workload.VGA.describe();
+        final Canvas canvas = Canvas.allocateDirect(description.getWidth(), description.getHeight());
+        final Bitmap bitmap = Bitmap.createBitmap(canvas.width, canvas.height, Bitmap.Config.ARGB_8888);
+        // The elapsedRealtime clock installed in onCreate(), where available.
+        renderer = new ProgressiveRenderer(description, canvas, Stopwatch.defaultClock());
+        frame.setImageBitmap(bitmap);
+        status.setText("Rendering...");
+        Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+            @Override
+            public void doFrame(long frameTimeNanos) {
+                if (isFinishing() || renderer == null) {
+                    return;
+                }
+                boolean converged = renderer.renderFor(RENDER_BUDGET_NANOS);
+                CanvasBitmaps.copy(canvas, bitmap);
+                frame.invalidate();
+                if (!converged) {
+                    Choreographer.getInstance().postFrameCallback(this);
+                    return;
+                }
+                status.setText("Preview after " + renderer.getFirstPreviewNanos() / 1000000 +
+                        " ms, converged after " + renderer.getConvergedNanos() / 1000000 +
+                        " ms in " + renderer.getSlices() + " frames");
+                renderer = null;
+            }
+        });
+    }
+
+    // Starts the suite in the background, or cancels it if it is running.
+    // Does not start while a run of another activity is in progress.
     private void startPerformance() {
-        AllBenchmarks.main();
+        if (run != null) {
+            executor.cancel(run);
+            status.setText("Cancelling...");
+            return;
+        }
+        if (executor.isRunning()) {
+            status.setText("Another benchmark run is in progress");
+            return;
+        }
+        javaButton.setText("Cancel");
+        status.setText("Running...");
+        run = new BenchmarkExecutor.Listener() {
+            @Override
+            public void onProgress(String name, int completed, int total) {
+                status.append("\n" + completed + "/" + total + " " + name + " done");
+            }
+
+            @Override
+            public void onResult(Result result) {
+            }
+
+            @Override
+            public void onThroughput(Throughput throughput) {
+            }
+
+            @Override
+            public void onFinished(boolean passed) {
+                onStopped(passed ? "Completed" : "Completed with regressions");
+            }
+
+            @Override
+            public void onCancelled() {
+                onStopped("Cancelled");
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                onStopped("Failed: " + error);
+            }
+        };
+        executor.start(new Options(), run);
+    }
 
-        System.err.println("[benchmark] java - completed.");
+    private void onStopped(String message) {
+        run = null;
+        javaButton.setText("Java");
+        status.append("\n" + message);
     }
 }
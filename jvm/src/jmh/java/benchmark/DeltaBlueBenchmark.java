@@ -0,0 +1,8 @@
+package defrac.benchmark;
+
+public class DeltaBlueBenchmark extends KernelBenchmark {
+  @Override
+  BenchmarkBase create() {
+    return new DeltaBlue();
+  }
+}
@@ -0,0 +1,25 @@
+package defrac.benchmark;
+
+import defrac.benchmark.fluidMotion.FluidField;
+import org.openjdk.jmh.annotations.Param;
+
+public class FluidMotionBenchmark extends KernelBenchmark {
+  public enum Solver {
+    GAUSS_SEIDEL,
+    RED_BLACK,
+    // RED_BLACK in bands of rows on a pool with one worker per core.
+    RED_BLACK_PARALLEL,
+  }
+
+  @Param({"GAUSS_SEIDEL", "RED_BLACK", "RED_BLACK_PARALLEL"})
+  public Solver solver;
+
+  @Override
+  BenchmarkBase create() {
+    switch(solver) {
+      case RED_BLACK: return new FluidMotion("FluidMotion", FluidField.Solver.RED_BLACK, false);
+      case RED_BLACK_PARALLEL: return new FluidMotion("FluidMotion", FluidField.Solver.RED_BLACK, true);
+      default: return new FluidMotion("FluidMotion", FluidField.Solver.GAUSS_SEIDEL, false);
+    }
+  }
+}
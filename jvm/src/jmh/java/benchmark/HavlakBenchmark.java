@@ -0,0 +1,12 @@
+package defrac.benchmark;
+
+import org.openjdk.jmh.annotations.Fork;
+
+// The loop finder recurses once per basic block, see Launcher.STACK_SIZE.
+@Fork(value = 3, jvmArgsAppend = "-Xss8m")
+public class HavlakBenchmark extends KernelBenchmark {
+  @Override
+  BenchmarkBase create() {
+    return new Havlak();
+  }
+}
@@ -0,0 +1,51 @@
+package defrac.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Runs one BenchmarkBase under JMH. Each JMH invocation is one operation(),
+// the same unit BenchmarkBase.sample() times on the device, so the numbers
+// line up with the per-operation latencies reported by AllBenchmarks.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(3)
+public abstract class KernelBenchmark {
+  private BenchmarkBase benchmark;
+
+  abstract BenchmarkBase create();
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    benchmark = create();
+    benchmark.setup();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    benchmark.teardown();
+  }
+
+  @Benchmark
+  public void operation(final Blackhole blackhole) {
+    // The kernels validate their own results and throw on a mismatch, so
+    // the work cannot be eliminated; consuming the instance additionally
+    // keeps any state it exposes alive.
+    benchmark.operation();
+    blackhole.consume(benchmark);
+  }
+}
@@ -0,0 +1,8 @@
+package defrac.benchmark;
+
+public class RichardsBenchmark extends KernelBenchmark {
+  @Override
+  BenchmarkBase create() {
+    return new Richards();
+  }
+}
@@ -0,0 +1,14 @@
+package defrac.benchmark;
+
+import defrac.benchmark.tracer.RenderMode;
+import org.openjdk.jmh.annotations.Param;
+
+public class TracerBenchmark extends KernelBenchmark {
+  @Param({"REFERENCE", "SCRATCH", "TILED", "PACKET", "WAVEFRONT"})
+  public RenderMode mode;
+
+  @Override
+  BenchmarkBase create() {
+    return new Tracer("Tracer", mode);
+  }
+}
@@ -0,0 +1,14 @@
+package defrac.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+
+public class TracerCacheBenchmark extends KernelBenchmark {
+  // Whether every frame starts with an empty shading cache or a full one.
+  @Param({"COLD", "WARM"})
+  public String cache;
+
+  @Override
+  BenchmarkBase create() {
+    return new TracerCache("TracerCache", "WARM".equals(cache));
+  }
+}
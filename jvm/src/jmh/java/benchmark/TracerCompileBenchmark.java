@@ -0,0 +1,16 @@
+package defrac.benchmark;
+
+import defrac.benchmark.tracer.RenderMode;
+import defrac.benchmark.tracer.Workload;
+import org.openjdk.jmh.annotations.Param;
+
+public class TracerCompileBenchmark extends KernelBenchmark {
+  // Whether per-shape invariants are baked before rendering.
+  @Param({"true", "false"})
+  public boolean compile;
+
+  @Override
+  BenchmarkBase create() {
+    return new TracerWorkload("TracerCompile", Workload.VGA, RenderMode.SCRATCH, compile);
+  }
+}
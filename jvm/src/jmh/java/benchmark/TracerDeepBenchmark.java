@@ -0,0 +1,15 @@
+package defrac.benchmark;
+
+import defrac.benchmark.tracer.RenderMode;
+import defrac.benchmark.tracer.Workload;
+import org.openjdk.jmh.annotations.Param;
+
+public class TracerDeepBenchmark extends KernelBenchmark {
+  @Param({"REFERENCE", "SCRATCH", "TILED"})
+  public RenderMode mode;
+
+  @Override
+  BenchmarkBase create() {
+    return new TracerWorkload("TracerDeep", Workload.DEEP, mode);
+  }
+}
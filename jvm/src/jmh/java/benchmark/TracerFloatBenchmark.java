@@ -0,0 +1,14 @@
+package defrac.benchmark;
+
+import defrac.benchmark.tracer.Workload;
+import org.openjdk.jmh.annotations.Param;
+
+public class TracerFloatBenchmark extends KernelBenchmark {
+  @Param({"SMALL", "VGA", "DEEP"})
+  public Workload workload;
+
+  @Override
+  BenchmarkBase create() {
+    return new TracerFloat("TracerFloat", workload);
+  }
+}
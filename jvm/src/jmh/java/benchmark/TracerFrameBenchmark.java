@@ -0,0 +1,14 @@
+package defrac.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+
+public class TracerFrameBenchmark extends KernelBenchmark {
+  // Whether the framebuffer is an int[] or a direct ByteBuffer.
+  @Param({"HEAP", "DIRECT"})
+  public String canvas;
+
+  @Override
+  BenchmarkBase create() {
+    return new TracerFrame("TracerFrame", "DIRECT".equals(canvas));
+  }
+}
@@ -0,0 +1,14 @@
+package defrac.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+
+public class TracerProgressiveBenchmark extends KernelBenchmark {
+  // Whether to stop at the first complete preview or render until converged.
+  @Param({"PREVIEW", "CONVERGED"})
+  public String until;
+
+  @Override
+  BenchmarkBase create() {
+    return new TracerProgressive("TracerProgressive", "PREVIEW".equals(until));
+  }
+}
@@ -0,0 +1,16 @@
+package defrac.benchmark;
+
+import defrac.benchmark.tracer.RenderMode;
+import defrac.benchmark.tracer.Workload;
+import org.openjdk.jmh.annotations.Param;
+
+public class TracerSoftBenchmark extends KernelBenchmark {
+  // Only ScratchEngine, alone or in tiles, renders several samples per pixel.
+  @Param({"SCRATCH", "TILED"})
+  public RenderMode mode;
+
+  @Override
+  BenchmarkBase create() {
+    return new TracerWorkload("TracerSoft", Workload.SOFT, mode);
+  }
+}
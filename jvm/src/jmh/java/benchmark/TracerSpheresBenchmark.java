@@ -0,0 +1,14 @@
+package defrac.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+
+public class TracerSpheresBenchmark extends KernelBenchmark {
+  // How primary and secondary hits are found.
+  @Param({"LINEAR", "BVH", "PACKET"})
+  public String intersection;
+
+  @Override
+  BenchmarkBase create() {
+    return new TracerSpheres("TracerSpheres", "BVH".equals(intersection), "PACKET".equals(intersection));
+  }
+}
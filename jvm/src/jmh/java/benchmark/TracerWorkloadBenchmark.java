@@ -0,0 +1,18 @@
+package defrac.benchmark;
+
+import defrac.benchmark.tracer.RenderMode;
+import defrac.benchmark.tracer.Workload;
+import org.openjdk.jmh.annotations.Param;
+
+public class TracerWorkloadBenchmark extends KernelBenchmark {
+  @Param({"SMALL", "VGA", "HD", "FULL_HD", "UHD"})
+  public Workload workload;
+
+  @Param({"REFERENCE", "SCRATCH", "WAVEFRONT"})
+  public RenderMode mode;
+
+  @Override
+  BenchmarkBase create() {
+    return new TracerWorkload("TracerWorkload", workload, mode);
+  }
+}
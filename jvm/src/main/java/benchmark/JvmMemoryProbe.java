@@ -0,0 +1,53 @@
+package defrac.benchmark;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+// MemoryProbe backed by the platform MXBeans. Allocations are counted per
+// thread where the VM supports it (HotSpot does).
+public final class JvmMemoryProbe extends MemoryProbe {
+  private final com.sun.management.ThreadMXBean threads;
+  private final List<GarbageCollectorMXBean> collectors;
+
+  public JvmMemoryProbe() {
+    final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean &&
+        ((com.sun.management.ThreadMXBean)bean).isThreadAllocatedMemorySupported()) {
+      threads = (com.sun.management.ThreadMXBean)bean;
+      threads.setThreadAllocatedMemoryEnabled(true);
+    } else {
+      threads = null;
+    }
+    collectors = ManagementFactory.getGarbageCollectorMXBeans();
+  }
+
+  @Override
+  public long allocatedBytes() {
+    return threads == null ? -1L : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  @Override
+  public long gcCount() {
+    long count = 0L;
+    for(final GarbageCollectorMXBean collector : collectors) {
+      final long n = collector.getCollectionCount();
+      if (n > 0L) {
+        count += n;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public long gcTimeMillis() {
+    long time = 0L;
+    for(final GarbageCollectorMXBean collector : collectors) {
+      final long t = collector.getCollectionTime();
+      if (t > 0L) {
+        time += t;
+      }
+    }
+    return time;
+  }
+}
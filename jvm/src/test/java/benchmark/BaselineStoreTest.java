@@ -0,0 +1,52 @@
+package defrac.benchmark;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public final class BaselineStoreTest {
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void loadsSamples() throws IOException {
+    write("Richards", "# Richards us per exercise()\n1.5\n\n2.5\n");
+    assertArrayEquals(new double[] { 1.5, 2.5 }, store().load("Richards"), 0.0);
+  }
+
+  @Test
+  public void missingFileIsNoBaseline() {
+    assertNull(store().load("Richards"));
+  }
+
+  @Test
+  public void commentsOnlyIsNoBaseline() throws IOException {
+    write("Richards", "# Richards us per exercise()\n# 2026-10-18 OpenJDK\n");
+    assertNull(store().load("Richards"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void medianRejectsNoValues() {
+    Statistics.computeMedian(new double[0]);
+  }
+
+  private BaselineStore store() {
+    return new BaselineStore(folder.getRoot());
+  }
+
+  private void write(final String name, final String content) throws IOException {
+    final OutputStream out = new FileOutputStream(new File(folder.getRoot(), name + ".baseline"));
+    try {
+      out.write(content.getBytes("UTF-8"));
+    } finally {
+      out.close();
+    }
+  }
+}
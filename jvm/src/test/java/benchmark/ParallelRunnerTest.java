@@ -0,0 +1,64 @@
+package defrac.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public final class ParallelRunnerTest {
+  private static final int THREADS = 4;
+
+  // Does nothing; setup() fails for the instance with the given number,
+  // counting from 1 in the order of creation.
+  private static final class Factory implements ParallelRunner.Factory {
+    private final AtomicInteger created = new AtomicInteger();
+    private final int failing;
+    final RuntimeException failure = new IllegalStateException("setup failed");
+
+    Factory(final int failing) {
+      this.failing = failing;
+    }
+
+    @Override
+    public BenchmarkBase create(final String name) {
+      final int number = created.incrementAndGet();
+      return new BenchmarkBase(name) {
+        @Override
+        public void setup() {
+          if (number == failing) {
+            throw failure;
+          }
+        }
+      };
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void measuresEveryThread() {
+    final ParallelRunner runner = new ParallelRunner(THREADS, 10, 10, new Factory(0));
+    try {
+      final Throughput throughput = runner.measure("Empty");
+      assertEquals(THREADS, throughput.threads());
+    } finally {
+      runner.shutdown();
+    }
+  }
+
+  // The single instance is the first one, so this fails one of the
+  // concurrent instances while the others wait for it at the start.
+  @Test(timeout = 10000)
+  public void failsWhenAnInstanceFailsInSetup() {
+    final Factory factory = new Factory(3);
+    final ParallelRunner runner = new ParallelRunner(THREADS, 10, 10, factory);
+    try {
+      runner.measure("Empty");
+      fail("Expected the failure of setup()");
+    } catch(RuntimeException e) {
+      assertSame(factory.failure, e.getCause());
+    } finally {
+      runner.shutdown();
+    }
+  }
+}
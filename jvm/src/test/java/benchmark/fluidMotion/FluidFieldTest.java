@@ -0,0 +1,103 @@
+package defrac.benchmark.fluidMotion;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+// Compares the RED_BLACK solver with GAUSS_SEIDEL on the benchmark's
+// 128 x 128 field, within the tolerances documented at FluidField.Solver.
+public final class FluidFieldTest {
+  private static final int SIZE = 128;
+  private static final int CELLS = (SIZE + 2) * (SIZE + 2);
+
+  // Diffusion with a = 1, and the pressure solve of project().
+  private static final int DIFFUSION = 5;
+  private static final int PRESSURE = 4;
+
+  @Test
+  public void linSolveConvergesToGaussSeidel() {
+    assertDeviation(solve(FluidField.Solver.RED_BLACK, 20, DIFFUSION, null),
+        solve(FluidField.Solver.GAUSS_SEIDEL, 20, DIFFUSION, null), 1e-3);
+    assertDeviation(solve(FluidField.Solver.RED_BLACK, 200, DIFFUSION, null),
+        solve(FluidField.Solver.GAUSS_SEIDEL, 200, DIFFUSION, null), 1e-12);
+  }
+
+  @Test
+  public void linSolve2ConvergesToGaussSeidel() {
+    final double[][] redBlack20 = solve2(FluidField.Solver.RED_BLACK, 20, DIFFUSION, null);
+    final double[][] gaussSeidel20 = solve2(FluidField.Solver.GAUSS_SEIDEL, 20, DIFFUSION, null);
+    final double[][] redBlack200 = solve2(FluidField.Solver.RED_BLACK, 200, DIFFUSION, null);
+    final double[][] gaussSeidel200 = solve2(FluidField.Solver.GAUSS_SEIDEL, 200, DIFFUSION, null);
+    for(int field = 0; field < 2; field++) {
+      assertDeviation(redBlack20[field], gaussSeidel20[field], 1e-3);
+      assertDeviation(redBlack200[field], gaussSeidel200[field], 1e-12);
+    }
+  }
+
+  @Test
+  public void pressureStaysCloseToGaussSeidel() {
+    assertDeviation(solve(FluidField.Solver.RED_BLACK, 20, PRESSURE, null),
+        solve(FluidField.Solver.GAUSS_SEIDEL, 20, PRESSURE, null), 0.1);
+  }
+
+  @Test
+  public void poolDoesNotChangeTheResult() {
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      assertArrayEquals(solve(FluidField.Solver.RED_BLACK, 20, PRESSURE, null),
+          solve(FluidField.Solver.RED_BLACK, 20, PRESSURE, pool), 0.0);
+      final double[][] serial = solve2(FluidField.Solver.RED_BLACK, 20, PRESSURE, null);
+      final double[][] parallel = solve2(FluidField.Solver.RED_BLACK, 20, PRESSURE, pool);
+      assertArrayEquals(serial[0], parallel[0], 0.0);
+      assertArrayEquals(serial[1], parallel[1], 0.0);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static FluidField field(final FluidField.Solver solver, final int iterations, final ForkJoinPool pool) {
+    final FluidField field = FluidField.create(null, SIZE, SIZE, iterations);
+    field.setSolver(solver);
+    field.setPool(pool);
+    return field;
+  }
+
+  private static double[] solve(final FluidField.Solver solver, final int iterations, final int c,
+                                final ForkJoinPool pool) {
+    final double[] x = new double[CELLS];
+    field(solver, iterations, pool).lin_solve(0, x, random(1L), 1, c);
+    return x;
+  }
+
+  private static double[][] solve2(final FluidField.Solver solver, final int iterations, final int c,
+                                   final ForkJoinPool pool) {
+    final double[] x = new double[CELLS];
+    final double[] y = new double[CELLS];
+    field(solver, iterations, pool).lin_solve2(x, random(2L), y, random(3L), 1, c);
+    return new double[][] { x, y };
+  }
+
+  private static double[] random(final long seed) {
+    final Random random = new Random(seed);
+    final double[] values = new double[CELLS];
+    for(int i = 0; i < CELLS; i++) {
+      values[i] = random.nextDouble() - 0.5;
+    }
+    return values;
+  }
+
+  // Largest difference of any cell relative to the largest expected value.
+  private static void assertDeviation(final double[] actual, final double[] expected, final double tolerance) {
+    double difference = 0.0;
+    double magnitude = 0.0;
+    for(int i = 0; i < CELLS; i++) {
+      difference = Math.max(difference, Math.abs(actual[i] - expected[i]));
+      magnitude = Math.max(magnitude, Math.abs(expected[i]));
+    }
+    assertTrue("Deviation " + difference / magnitude + " exceeds " + tolerance,
+        difference <= tolerance * magnitude);
+  }
+}
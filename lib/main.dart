@@ -1,4 +1,5 @@
 import 'package:flutter/material.dart';
+import 'package:flutter/services.dart';
 import 'package:test/test.dart';
 
 import 'common/dart/BenchmarkBase.dart';
@@ -27,6 +28,10 @@ class MyApp extends StatelessWidget {
   }
 }
 
+// Runs the Java suite in the background of the host activity and streams
+// its results back, see BenchmarkChannel.java.
+const MethodChannel javaChannel = const MethodChannel('flutterbenchmark/java');
+
 class MyPage extends StatelessWidget {
   @override
   Widget build(BuildContext context) {
@@ -46,6 +51,18 @@ class MyPage extends StatelessWidget {
                 onPressed: () {
                   startPerformance();
                 },
+              ),
+              RaisedButton(
+                child: Text("Java"),
+                onPressed: () {
+                  startJavaPerformance();
+                },
+              ),
+              RaisedButton(
+                child: Text("Cancel Java"),
+                onPressed: () {
+                  javaChannel.invokeMethod('cancel');
+                },
               )
             ],
           )
@@ -60,6 +77,29 @@ class MyPage extends StatelessWidget {
   }
 
 
+  void startJavaPerformance() {
+    javaChannel.setMethodCallHandler((MethodCall call) async {
+      switch (call.method) {
+        case 'progress':
+          print('[benchmark] Java - ${call.arguments['completed']}/${call.arguments['total']} ${call.arguments['name']}');
+          break;
+        case 'result':
+          List<double> scores = (call.arguments['runsPerSec'] as List).cast<double>();
+          List<double> elapsedUs = (call.arguments['elapsedUs'] as List).cast<double>();
+          print('[benchmark] Java - ${call.arguments['name']}:(runs/sec)\t${format(scores, "\t")}\tavg us:\t${computeMean(elapsedUs)}');
+          break;
+        case 'finished':
+        case 'cancelled':
+        case 'error':
+          print('[benchmark] Java - ${call.method} ${call.arguments ?? ''}');
+          break;
+      }
+    });
+    javaChannel.invokeMethod('run').catchError((error) {
+      print('[benchmark] Java - $error');
+    });
+  }
+
   void runBenchmark() async {
     group('benchmark_harness', () {
       test('run is called', () {